@@ -0,0 +1,182 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.HadronioSocketOptions.Profile;
+import de.hhu.bsinfo.hadronio.util.MessageUtil;
+
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Buffer lengths and coalescing behaviour of a single channel.
+ * Initially, all values are taken from the global configuration, but they may be changed via socket options.
+ */
+class ChannelOptions {
+
+    static final Set<SocketOption<?>> SUPPORTED_OPTIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            StandardSocketOptions.SO_SNDBUF, StandardSocketOptions.SO_RCVBUF, StandardSocketOptions.TCP_NODELAY,
+            HadronioSocketOptions.BUFFER_SLICE_LENGTH, HadronioSocketOptions.CREDIT_WINDOW, HadronioSocketOptions.PROFILE)));
+
+    private static final int LATENCY_BUFFER_LENGTH = 128 * 1024;
+    private static final int LATENCY_BUFFER_SLICE_LENGTH = 8 * 1024;
+    private static final int BULK_BUFFER_LENGTH = 32 * 1024 * 1024;
+    private static final int BULK_BUFFER_SLICE_LENGTH = 512 * 1024;
+
+    private final Configuration configuration;
+
+    private int sendBufferLength;
+    private int receiveBufferLength;
+    private int bufferSliceLength;
+    private int creditWindow;
+    private boolean noDelay;
+    private Profile profile;
+
+    ChannelOptions(final Configuration configuration) {
+        this.configuration = configuration;
+        applyProfile(Profile.DEFAULT);
+    }
+
+    ChannelOptions(final ChannelOptions other) {
+        configuration = other.configuration;
+        sendBufferLength = other.sendBufferLength;
+        receiveBufferLength = other.receiveBufferLength;
+        bufferSliceLength = other.bufferSliceLength;
+        creditWindow = other.creditWindow;
+        noDelay = other.noDelay;
+        profile = other.profile;
+    }
+
+    /**
+     * Whether the option determines the length of a ring buffer or the amount of data in flight,
+     * which can only be changed before a channel is connected.
+     */
+    static boolean isBufferOption(final SocketOption<?> option) {
+        return option != StandardSocketOptions.TCP_NODELAY;
+    }
+
+    <T> void set(final SocketOption<T> option, final T value) {
+        if (option == StandardSocketOptions.TCP_NODELAY) {
+            noDelay = (Boolean) value;
+        } else if (option == StandardSocketOptions.SO_SNDBUF) {
+            Configuration.checkBufferLengths((Integer) value, receiveBufferLength, getBufferSliceLength());
+            sendBufferLength = (Integer) value;
+        } else if (option == StandardSocketOptions.SO_RCVBUF) {
+            Configuration.checkBufferLengths(sendBufferLength, (Integer) value, getBufferSliceLength());
+            receiveBufferLength = (Integer) value;
+        } else if (option == HadronioSocketOptions.BUFFER_SLICE_LENGTH) {
+            if (configuration.isSharedReceivePool()) {
+                throw new IllegalArgumentException("BUFFER_SLICE_LENGTH can not be set per channel, while a shared receive pool is used!");
+            }
+
+            Configuration.checkBufferLengths(sendBufferLength, receiveBufferLength, (Integer) value);
+            bufferSliceLength = (Integer) value + MessageUtil.HEADER_LENGTH;
+        } else if (option == HadronioSocketOptions.CREDIT_WINDOW) {
+            if ((Integer) value < 0) {
+                throw new IllegalArgumentException("CREDIT_WINDOW must not be negative!");
+            }
+
+            creditWindow = (Integer) value;
+        } else if (option == HadronioSocketOptions.PROFILE) {
+            applyProfile((Profile) value);
+        } else {
+            throw new UnsupportedOperationException("Trying to set unsupported option " + option.name() + "!");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(final SocketOption<T> option) {
+        if (option == StandardSocketOptions.TCP_NODELAY) {
+            return (T) Boolean.valueOf(noDelay);
+        } else if (option == StandardSocketOptions.SO_SNDBUF) {
+            return (T) Integer.valueOf(sendBufferLength);
+        } else if (option == StandardSocketOptions.SO_RCVBUF) {
+            return (T) Integer.valueOf(receiveBufferLength);
+        } else if (option == HadronioSocketOptions.BUFFER_SLICE_LENGTH) {
+            return (T) Integer.valueOf(getBufferSliceLength());
+        } else if (option == HadronioSocketOptions.CREDIT_WINDOW) {
+            return (T) Integer.valueOf(creditWindow);
+        } else if (option == HadronioSocketOptions.PROFILE) {
+            return (T) profile;
+        }
+
+        throw new UnsupportedOperationException("Trying to get unsupported option " + option.name() + "!");
+    }
+
+    private void applyProfile(final Profile profile) {
+        switch (profile) {
+            case LATENCY:
+                setBufferLengths(LATENCY_BUFFER_LENGTH, LATENCY_BUFFER_LENGTH, LATENCY_BUFFER_SLICE_LENGTH + MessageUtil.HEADER_LENGTH);
+                noDelay = true;
+                break;
+            case BULK:
+                setBufferLengths(BULK_BUFFER_LENGTH, BULK_BUFFER_LENGTH, BULK_BUFFER_SLICE_LENGTH + MessageUtil.HEADER_LENGTH);
+                noDelay = false;
+                break;
+            default:
+                setBufferLengths(configuration.getSendBufferLength(), configuration.getReceiveBufferLength(), configuration.getBufferSliceLength());
+                noDelay = !configuration.isCoalescing();
+                break;
+        }
+
+        creditWindow = 0;
+        this.profile = profile;
+    }
+
+    private void setBufferLengths(final int sendBufferLength, final int receiveBufferLength, final int bufferSliceLength) {
+        // Channels using a shared receive pool must use the pool's slice length
+        this.bufferSliceLength = configuration.isSharedReceivePool() ? configuration.getBufferSliceLength() : bufferSliceLength;
+
+        // Both buffers must be able to hold at least two slices
+        final int minBufferLength = 2 * getBufferSliceLength();
+        this.sendBufferLength = Math.max(sendBufferLength, minBufferLength);
+        this.receiveBufferLength = Math.max(receiveBufferLength, minBufferLength);
+    }
+
+    /**
+     * Use the slice length announced by the connecting channel, so that both channels send messages of the same maximum length.
+     * Both buffers are enlarged if necessary, so that they can still hold at least two slices.
+     *
+     * @param sliceLength The slice length including the message header
+     */
+    void adoptSliceLength(final int sliceLength) {
+        bufferSliceLength = sliceLength;
+
+        final int minBufferLength = 2 * getBufferSliceLength();
+        sendBufferLength = Math.max(sendBufferLength, minBufferLength);
+        receiveBufferLength = Math.max(receiveBufferLength, minBufferLength);
+    }
+
+    Configuration getConfiguration() {
+        return configuration;
+    }
+
+    int getSendBufferLength() {
+        return sendBufferLength;
+    }
+
+    int getReceiveBufferLength() {
+        return receiveBufferLength;
+    }
+
+    /**
+     * @return The slice length including the message header, as it is used by the ring buffers
+     */
+    int getSliceLength() {
+        return bufferSliceLength;
+    }
+
+    private int getBufferSliceLength() {
+        return bufferSliceLength - MessageUtil.HEADER_LENGTH;
+    }
+
+    int getCreditWindow() {
+        return creditWindow;
+    }
+
+    boolean isNoDelay() {
+        return noDelay;
+    }
+}
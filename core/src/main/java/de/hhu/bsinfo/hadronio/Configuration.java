@@ -1,45 +1,157 @@
 package de.hhu.bsinfo.hadronio;
 
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
 import de.hhu.bsinfo.hadronio.util.MessageUtil;
 import org.agrona.BitUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.EnumSet;
+import java.util.Properties;
+import java.util.Set;
 
 class Configuration {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Configuration.class);
+
     private static final Configuration instance = getInstance();
 
     private static final int MIN_SEND_BUFFER_LENGTH = 128;
     private static final int MIN_RECEIVE_BUFFER_LENGTH = 128;
     private static final int MIN_BUFFER_SLICE_LENGTH = 32;
-    private static final int MIN_FLUSH_INTERVAL_SIZE = 128;
+    private static final int MIN_ZERO_COPY_THRESHOLD = 0;
+    private static final int MIN_COALESCING_DELAY = 0;
+    private static final int MIN_BUFFER_SHRINK_TIMEOUT = 0;
+    private static final int MIN_SHARED_RECEIVE_POOL_LENGTH = 0;
+    private static final int MIN_SPIN_DURATION = -1;
+    private static final int MIN_YIELD_DURATION = 0;
 
     private static final int DEFAULT_SEND_BUFFER_LENGTH = 8 * 1024 * 1024;
     private static final int DEFAULT_RECEIVE_BUFFER_LENGTH = 8 * 1024 * 1024;
     private static final int DEFAULT_BUFFER_SLICE_LENGTH = 64 * 1024;
-    private static final int DEFAULT_FLUSH_INTERVAL_SIZE = 1024;
+    private static final int DEFAULT_ZERO_COPY_THRESHOLD = 0;
+    private static final boolean DEFAULT_COALESCING = false;
+    private static final int DEFAULT_COALESCING_DELAY = 10;
+    private static final boolean DEFAULT_PROBE_RECEIVES = false;
+    private static final int DEFAULT_INITIAL_BUFFER_LENGTH = 0;
+    private static final int DEFAULT_BUFFER_SHRINK_TIMEOUT = 5000;
+    private static final int DEFAULT_SHARED_RECEIVE_POOL_LENGTH = 0;
+    private static final String DEFAULT_HUGE_PAGE_DIRECTORY = "";
+    private static final int DEFAULT_SPIN_DURATION = -1;
+    private static final int DEFAULT_YIELD_DURATION = 0;
+    private static final boolean DEFAULT_MULTIPLEX_CONNECTIONS = false;
     private static final String DEFAULT_PROVIDER_CLASS = "de.hhu.bsinfo.hadronio.jucx.JucxProvider";
 
     private final int sendBufferLength;
     private final int receiveBufferLength;
     private final int bufferSliceLength;
-    private final int flushIntervalSize;
+    private final int zeroCopyThreshold;
+    private final boolean coalescing;
+    private final int coalescingDelay;
+    private boolean probeReceives;
+    private final int initialBufferLength;
+    private final int bufferShrinkTimeout;
+    private int sharedReceivePoolLength;
+    private final String hugePageDirectory;
+    private final int spinDuration;
+    private final int yieldDuration;
+    private boolean multiplexConnections;
     private final String providerClass;
 
+    /**
+     * Features supported by the UCX provider. Configured features, which need unsupported ones, are disabled by {@link #applyCapabilities(Set)}.
+     */
+    private Set<UcxCapability> capabilities = EnumSet.allOf(UcxCapability.class);
+
     static Configuration getInstance() throws IllegalArgumentException {
         if (instance != null) {
             return instance;
         }
 
-        final int sendBufferLength = Integer.parseInt(System.getProperty("de.hhu.bsinfo.hadronio.Configuration.SEND_BUFFER_LENGTH", String.valueOf(DEFAULT_SEND_BUFFER_LENGTH)));
-        final int receiveBufferLength = Integer.parseInt(System.getProperty("de.hhu.bsinfo.hadronio.Configuration.RECEIVE_BUFFER_LENGTH", String.valueOf(DEFAULT_RECEIVE_BUFFER_LENGTH)));
-        final int bufferSliceLength = Integer.parseInt(System.getProperty("de.hhu.bsinfo.hadronio.Configuration.BUFFER_SLICE_LENGTH", String.valueOf(DEFAULT_BUFFER_SLICE_LENGTH)));
-        final int flushIntervalSize = Integer.parseInt(System.getProperty("de.hhu.bsinfo.hadronio.Configuration.FLUSH_INTERVAL_SIZE", String.valueOf(DEFAULT_FLUSH_INTERVAL_SIZE)));
-        final String providerClass = System.getProperty("de.hhu.bsinfo.hadronio.Configuration.PROVIDER_CLASS", DEFAULT_PROVIDER_CLASS);
+        return fromProperties(System.getProperties());
+    }
+
+    /**
+     * Parse a configuration from the given properties, which use the same keys as the system properties read by {@link #getInstance()}.
+     */
+    static Configuration fromProperties(final Properties properties) throws IllegalArgumentException {
+        final int sendBufferLength = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.SEND_BUFFER_LENGTH", String.valueOf(DEFAULT_SEND_BUFFER_LENGTH)));
+        final int receiveBufferLength = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.RECEIVE_BUFFER_LENGTH", String.valueOf(DEFAULT_RECEIVE_BUFFER_LENGTH)));
+        final int bufferSliceLength = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.BUFFER_SLICE_LENGTH", String.valueOf(DEFAULT_BUFFER_SLICE_LENGTH)));
+        final int zeroCopyThreshold = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.ZERO_COPY_THRESHOLD", String.valueOf(DEFAULT_ZERO_COPY_THRESHOLD)));
+        final boolean coalescing = Boolean.parseBoolean(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.COALESCING", String.valueOf(DEFAULT_COALESCING)));
+        final int coalescingDelay = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.COALESCING_DELAY", String.valueOf(DEFAULT_COALESCING_DELAY)));
+        final boolean probeReceives = Boolean.parseBoolean(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.PROBE_RECEIVES", String.valueOf(DEFAULT_PROBE_RECEIVES)));
+        final int initialBufferLength = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.INITIAL_BUFFER_LENGTH", String.valueOf(DEFAULT_INITIAL_BUFFER_LENGTH)));
+        final int bufferShrinkTimeout = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.BUFFER_SHRINK_TIMEOUT", String.valueOf(DEFAULT_BUFFER_SHRINK_TIMEOUT)));
+        final int sharedReceivePoolLength = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.SHARED_RECEIVE_POOL_LENGTH", String.valueOf(DEFAULT_SHARED_RECEIVE_POOL_LENGTH)));
+        final String hugePageDirectory = properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.HUGE_PAGE_DIRECTORY", DEFAULT_HUGE_PAGE_DIRECTORY);
+        final int spinDuration = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.SPIN_DURATION", String.valueOf(DEFAULT_SPIN_DURATION)));
+        final int yieldDuration = Integer.parseInt(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.YIELD_DURATION", String.valueOf(DEFAULT_YIELD_DURATION)));
+        final boolean multiplexConnections = Boolean.parseBoolean(properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.MULTIPLEX_CONNECTIONS", String.valueOf(DEFAULT_MULTIPLEX_CONNECTIONS)));
+        final String providerClass = properties.getProperty("de.hhu.bsinfo.hadronio.Configuration.PROVIDER_CLASS", DEFAULT_PROVIDER_CLASS);
+
+        checkConfiguration(sendBufferLength, receiveBufferLength, bufferSliceLength, zeroCopyThreshold, coalescingDelay, initialBufferLength, bufferShrinkTimeout, sharedReceivePoolLength, hugePageDirectory, spinDuration, yieldDuration, providerClass);
+        return new Configuration(sendBufferLength, receiveBufferLength, bufferSliceLength + MessageUtil.HEADER_LENGTH, zeroCopyThreshold, coalescing, coalescingDelay, probeReceives, initialBufferLength, bufferShrinkTimeout, sharedReceivePoolLength, hugePageDirectory.isEmpty() ? null : hugePageDirectory, spinDuration, yieldDuration, multiplexConnections, providerClass);
+    }
+
+    private static void checkConfiguration(final int sendBufferLength, final int receiveBufferLength, final int bufferSliceLength, final int zeroCopyThreshold, final int coalescingDelay, final int initialBufferLength, final int bufferShrinkTimeout, final int sharedReceivePoolLength, final String hugePageDirectory, final int spinDuration, final int yieldDuration, final String providerClass) throws IllegalArgumentException {
+        checkBufferLengths(sendBufferLength, receiveBufferLength, bufferSliceLength);
+
+        if (zeroCopyThreshold < MIN_ZERO_COPY_THRESHOLD) {
+            throw new IllegalArgumentException("ZERO_COPY_THRESHOLD must be a at least " + MIN_ZERO_COPY_THRESHOLD + " byte!");
+        }
+
+        if (coalescingDelay < MIN_COALESCING_DELAY) {
+            throw new IllegalArgumentException("COALESCING_DELAY must be a at least " + MIN_COALESCING_DELAY + " microseconds!");
+        }
+
+        if (bufferShrinkTimeout < MIN_BUFFER_SHRINK_TIMEOUT) {
+            throw new IllegalArgumentException("BUFFER_SHRINK_TIMEOUT must be a at least " + MIN_BUFFER_SHRINK_TIMEOUT + " milliseconds!");
+        }
+
+        if (sharedReceivePoolLength < MIN_SHARED_RECEIVE_POOL_LENGTH) {
+            throw new IllegalArgumentException("SHARED_RECEIVE_POOL_LENGTH must be a at least " + MIN_SHARED_RECEIVE_POOL_LENGTH + " byte!");
+        }
+
+        if (sharedReceivePoolLength != 0 && sharedReceivePoolLength < 2 * bufferSliceLength) {
+            throw new IllegalArgumentException("SHARED_RECEIVE_POOL_LENGTH must be a at least twice as high as BUFFER_SLICE_LENGTH!");
+        }
+
+        if (initialBufferLength != 0) {
+            if (!BitUtil.isPowerOfTwo(initialBufferLength)) {
+                throw new IllegalArgumentException("INITIAL_BUFFER_LENGTH must be a power of 2");
+            }
 
-        checkConfiguration(sendBufferLength, receiveBufferLength, bufferSliceLength, flushIntervalSize, providerClass);
-        return new Configuration(sendBufferLength, receiveBufferLength, bufferSliceLength + MessageUtil.HEADER_LENGTH, flushIntervalSize, providerClass);
+            if (initialBufferLength < 2 * bufferSliceLength) {
+                throw new IllegalArgumentException("INITIAL_BUFFER_LENGTH must be a at least twice as high as BUFFER_SLICE_LENGTH!");
+            }
+        }
+
+        if (spinDuration < MIN_SPIN_DURATION) {
+            throw new IllegalArgumentException("SPIN_DURATION must be a at least " + MIN_SPIN_DURATION + " microseconds!");
+        }
+
+        if (yieldDuration < MIN_YIELD_DURATION) {
+            throw new IllegalArgumentException("YIELD_DURATION must be a at least " + MIN_YIELD_DURATION + " microseconds!");
+        }
+
+        if (!hugePageDirectory.isEmpty() && !new File(hugePageDirectory).isDirectory()) {
+            throw new IllegalArgumentException("HUGE_PAGE_DIRECTORY '" + hugePageDirectory + "' is not a directory!");
+        }
+
+        try {
+            Class.forName(providerClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Class '" + providerClass + "' does not exist!");
+        }
     }
 
-    private static void checkConfiguration(final int sendBufferLength, final int receiveBufferLength, final int bufferSliceLength, final int flushIntervalSize, final String providerClass) throws IllegalArgumentException {
+    /**
+     * Check the lengths of the ring buffers and their slices, which may also be set per channel via socket options.
+     */
+    static void checkBufferLengths(final int sendBufferLength, final int receiveBufferLength, final int bufferSliceLength) throws IllegalArgumentException {
         if (sendBufferLength < MIN_SEND_BUFFER_LENGTH) {
             throw new IllegalArgumentException("SEND_BUFFER_LENGTH must be a at least " + MIN_SEND_BUFFER_LENGTH + " byte!");
         }
@@ -52,10 +164,6 @@ class Configuration {
             throw new IllegalArgumentException("BUFFER_SLICE_LENGTH must be a at least " + MIN_BUFFER_SLICE_LENGTH + " byte!");
         }
 
-        if (flushIntervalSize < MIN_FLUSH_INTERVAL_SIZE) {
-            throw new IllegalArgumentException("FLUSH_INTERVAL_SIZE must be a at least " + MIN_FLUSH_INTERVAL_SIZE + "!");
-        }
-
         if (!BitUtil.isPowerOfTwo(bufferSliceLength)) {
             throw new IllegalArgumentException("BUFFER_SLICE_LENGTH must be a power of 2");
         }
@@ -75,19 +183,23 @@ class Configuration {
         if (receiveBufferLength < 2 * bufferSliceLength) {
             throw new IllegalArgumentException("SEND_BUFFER_LENGTH must be a at least twice as high as RECEIVE_BUFFER_LENGTH!");
         }
-
-        try {
-            Class.forName(providerClass);
-        } catch (ClassNotFoundException e) {
-            throw new IllegalArgumentException("Class '" + providerClass + "' does not exist!");
-        }
     }
 
-    private Configuration(final int sendBufferLength, final int receiveBufferLength, final int bufferSliceLength, final int flushIntervalSize, final String providerClass) {
+    private Configuration(final int sendBufferLength, final int receiveBufferLength, final int bufferSliceLength, final int zeroCopyThreshold, final boolean coalescing, final int coalescingDelay, final boolean probeReceives, final int initialBufferLength, final int bufferShrinkTimeout, final int sharedReceivePoolLength, final String hugePageDirectory, final int spinDuration, final int yieldDuration, final boolean multiplexConnections, final String providerClass) {
         this.sendBufferLength = sendBufferLength;
         this.receiveBufferLength = receiveBufferLength;
         this.bufferSliceLength = bufferSliceLength;
-        this.flushIntervalSize = flushIntervalSize;
+        this.zeroCopyThreshold = zeroCopyThreshold;
+        this.coalescing = coalescing;
+        this.coalescingDelay = coalescingDelay;
+        this.probeReceives = probeReceives;
+        this.initialBufferLength = initialBufferLength;
+        this.bufferShrinkTimeout = bufferShrinkTimeout;
+        this.sharedReceivePoolLength = sharedReceivePoolLength;
+        this.hugePageDirectory = hugePageDirectory;
+        this.spinDuration = spinDuration;
+        this.yieldDuration = yieldDuration;
+        this.multiplexConnections = multiplexConnections;
         this.providerClass = providerClass;
     }
 
@@ -103,21 +215,117 @@ class Configuration {
         return bufferSliceLength;
     }
 
-    int getFlushIntervalSize() {
-        return flushIntervalSize;
+    /**
+     * The minimum length of data, which blocking channels send out-of-band instead of copying it into their send buffer.
+     * This is a sender-side setting, but it also decides, which messages the remote channel can receive directly into
+     * the application's buffer: only out-of-band messages are received this way, while all other messages are always
+     * copied out of the receive buffer.
+     */
+    int getZeroCopyThreshold() {
+        return zeroCopyThreshold;
+    }
+
+    boolean isCoalescing() {
+        return coalescing;
+    }
+
+    int getCoalescingDelay() {
+        return coalescingDelay;
+    }
+
+    boolean isProbeReceives() {
+        return probeReceives;
+    }
+
+    int getInitialBufferLength() {
+        return initialBufferLength;
+    }
+
+    int getBufferShrinkTimeout() {
+        return bufferShrinkTimeout;
+    }
+
+    int getSharedReceivePoolLength() {
+        return sharedReceivePoolLength;
+    }
+
+    boolean isSharedReceivePool() {
+        return sharedReceivePoolLength > 0;
+    }
+
+    String getHugePageDirectory() {
+        return hugePageDirectory;
+    }
+
+    int getSpinDuration() {
+        return spinDuration;
+    }
+
+    int getYieldDuration() {
+        return yieldDuration;
+    }
+
+    boolean isSleepEnabled() {
+        return spinDuration >= 0;
+    }
+
+    boolean isMultiplexConnections() {
+        return multiplexConnections;
     }
 
     String getProviderClass() {
         return providerClass;
     }
 
+    boolean supports(final UcxCapability capability) {
+        return capabilities.contains(capability);
+    }
+
+    /**
+     * Disable all configured features, which the UCX provider can not support, so that hadroNIO falls back to its basic operations.
+     * Must be called, before any channel has been created.
+     */
+    void applyCapabilities(final Set<UcxCapability> capabilities) {
+        this.capabilities = capabilities.isEmpty() ? EnumSet.noneOf(UcxCapability.class) : EnumSet.copyOf(capabilities);
+
+        if (probeReceives && !supports(UcxCapability.TAG_PROBE)) {
+            LOGGER.warn("PROBE_RECEIVES is not supported by [{}], so full buffer slices are posted instead", providerClass);
+            probeReceives = false;
+        }
+
+        if (sharedReceivePoolLength > 0 && !supports(UcxCapability.SHARED_WORKER)) {
+            LOGGER.warn("SHARED_RECEIVE_POOL_LENGTH is not supported by [{}], so each channel posts its own receive buffer slices", providerClass);
+            sharedReceivePoolLength = 0;
+        }
+
+        // Multiplexed channels share a worker and create further endpoints on an existing connection
+        if (multiplexConnections && (!supports(UcxCapability.MULTIPLEX) || !supports(UcxCapability.SHARED_WORKER))) {
+            LOGGER.warn("MULTIPLEX_CONNECTIONS is not supported by [{}], so each channel uses its own connection", providerClass);
+            multiplexConnections = false;
+        }
+
+        if (!supports(UcxCapability.MEMORY_MAPPING)) {
+            LOGGER.info("Memory mapping is not supported by [{}], so UCX registers buffers on demand", providerClass);
+        }
+    }
+
     @Override
     public String toString() {
         return "Configuration(" +
                 "sendBufferSize=" + sendBufferLength +
                 ",receiveBufferSize=" + receiveBufferLength +
                 ",bufferSliceLength=" + bufferSliceLength +
-                ",flushIntervalSize=" + flushIntervalSize +
+                ",zeroCopyThreshold=" + zeroCopyThreshold +
+                ",coalescing=" + coalescing +
+                ",coalescingDelay=" + coalescingDelay +
+                ",probeReceives=" + probeReceives +
+                ",initialBufferLength=" + initialBufferLength +
+                ",bufferShrinkTimeout=" + bufferShrinkTimeout +
+                ",sharedReceivePoolLength=" + sharedReceivePoolLength +
+                ",hugePageDirectory=" + hugePageDirectory +
+                ",spinDuration=" + spinDuration +
+                ",yieldDuration=" + yieldDuration +
+                ",multiplexConnections=" + multiplexConnections +
                 ",providerClass=" + providerClass +
                 ")";
     }
@@ -1,43 +1,98 @@
 package de.hhu.bsinfo.hadronio;
 
-import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
 import de.hhu.bsinfo.hadronio.util.TagUtil;
 import org.agrona.concurrent.AtomicBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-class ConnectionCallback implements UcxSendCallback, UcxReceiveCallback {
+/**
+ * Handles the handshake, which exchanges the ids of a connecting and an accepting channel in one round trip.
+ * The connecting channel sends its id and slice length. The accepting channel chooses its own id, so that it never collides
+ * with another channel in its process, and replies with a tagged message addressed to the connecting channel's id.
+ * Both messages use the same layout. A reply without a slice length rejects the connection.
+ * Each channel also announces the amount of bytes, which one of its credits stands for (or 0, if each credit stands for one message),
+ * and its initial credits, since it has already posted its receive requests. Thus, no separate credit messages are needed afterwards.
+ * Finally, each channel announces its receive buffer length, which limits the length of out-of-band messages sent to it.
+ * Accepting channels are notified, once the handshake message has been received, while connecting channels are notified, once the reply has been received.
+ */
+class ConnectionCallback implements UcxReceiveCallback {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionCallback.class);
 
+    static final int OFFSET_CONNECTOR_ID = 0;
+    static final int OFFSET_ACCEPTOR_ID = Long.BYTES;
+    static final int OFFSET_CHECKSUM = 2 * Long.BYTES;
+    static final int OFFSET_SLICE_LENGTH = 3 * Long.BYTES;
+    static final int OFFSET_CREDIT_LENGTH = 4 * Long.BYTES;
+    static final int OFFSET_CREDITS = 5 * Long.BYTES;
+    static final int OFFSET_RECEIVE_BUFFER_LENGTH = 6 * Long.BYTES;
+    static final int MESSAGE_LENGTH = 7 * Long.BYTES;
+
     private final HadronioSocketChannel socket;
-    private final AtomicBuffer receiveBuffer;
-    private final long localTag;
+    private final AtomicBuffer buffer;
+    private final boolean connecting;
 
-    ConnectionCallback(final HadronioSocketChannel socket, final AtomicBuffer receiveBuffer, final long localTag) {
+    ConnectionCallback(final HadronioSocketChannel socket, final AtomicBuffer buffer, final boolean connecting) {
         this.socket = socket;
-        this.receiveBuffer = receiveBuffer;
-        this.localTag = localTag;
-    }
-
-    @Override
-    public void onMessageSent() {
-        LOGGER.debug("Connection callback has been called (Sent tag: [0x{}])", Long.toHexString(localTag));
+        this.buffer = buffer;
+        this.connecting = connecting;
     }
 
     @Override
     public void onMessageReceived(long tag) {
-        final long remoteTag = receiveBuffer.getLong(0);
-        final long checksum = receiveBuffer.getLong(Long.BYTES);
-        final long expectedChecksum = TagUtil.calculateChecksum(remoteTag);
+        if (!checkMessage(buffer)) {
+            socket.onConnection(false, 0, 0, 0, 0, 0);
+            return;
+        }
+
+        final long connectorId = buffer.getLong(OFFSET_CONNECTOR_ID);
+        final long acceptorId = buffer.getLong(OFFSET_ACCEPTOR_ID);
+        final int remoteSliceLength = (int) buffer.getLong(OFFSET_SLICE_LENGTH);
+        final int remoteCreditLength = (int) buffer.getLong(OFFSET_CREDIT_LENGTH);
+        final int remoteCredits = (int) buffer.getLong(OFFSET_CREDITS);
+        final int remoteReceiveBufferLength = (int) buffer.getLong(OFFSET_RECEIVE_BUFFER_LENGTH);
 
-        if (checksum == expectedChecksum) {
-            LOGGER.debug("Connection callback has been called (Received tag: [0x{}])", Long.toHexString(remoteTag));
-            socket.onConnection(true, localTag, remoteTag);
+        LOGGER.debug("Connection callback has been called (Received tags: [0x{}], [0x{}])", Long.toHexString(connectorId), Long.toHexString(acceptorId));
+        if (connecting) {
+            if (remoteSliceLength <= 0) {
+                LOGGER.error("Connection has been rejected by the remote channel");
+            }
+
+            socket.onConnection(remoteSliceLength > 0, acceptorId, remoteSliceLength, remoteCreditLength, remoteCredits, remoteReceiveBufferLength);
         } else {
-            LOGGER.error("Tags have been exchanged, but checksum is wrong (Expected: [0x{}], Received: [0x{}])!", Long.toHexString(expectedChecksum), Long.toHexString(checksum));
-            socket.onConnection(false, localTag, 0);
+            socket.onConnection(true, connectorId, remoteSliceLength, remoteCreditLength, remoteCredits, remoteReceiveBufferLength);
+        }
+    }
+
+    static void writeMessage(final AtomicBuffer buffer, final long connectorId, final long acceptorId, final int sliceLength, final int creditLength, final int credits, final int receiveBufferLength) {
+        buffer.putLong(OFFSET_CONNECTOR_ID, connectorId);
+        buffer.putLong(OFFSET_ACCEPTOR_ID, acceptorId);
+        buffer.putLong(OFFSET_CHECKSUM, TagUtil.calculateChecksum(connectorId, acceptorId, sliceLength, creditLength, credits, receiveBufferLength));
+        buffer.putLong(OFFSET_SLICE_LENGTH, sliceLength);
+        buffer.putLong(OFFSET_CREDIT_LENGTH, creditLength);
+        buffer.putLong(OFFSET_CREDITS, credits);
+        buffer.putLong(OFFSET_RECEIVE_BUFFER_LENGTH, receiveBufferLength);
+    }
+
+    static boolean checkMessage(final AtomicBuffer buffer) {
+        final long checksum = buffer.getLong(OFFSET_CHECKSUM);
+        final long expectedChecksum = TagUtil.calculateChecksum(buffer.getLong(OFFSET_CONNECTOR_ID), buffer.getLong(OFFSET_ACCEPTOR_ID),
+                (int) buffer.getLong(OFFSET_SLICE_LENGTH), (int) buffer.getLong(OFFSET_CREDIT_LENGTH), (int) buffer.getLong(OFFSET_CREDITS),
+                (int) buffer.getLong(OFFSET_RECEIVE_BUFFER_LENGTH));
+
+        if (checksum != expectedChecksum) {
+            LOGGER.error("Tags have been received, but checksum is wrong (Expected: [0x{}], Received: [0x{}])!", Long.toHexString(expectedChecksum), Long.toHexString(checksum));
+            return false;
         }
+
+        return true;
+    }
+
+    /**
+     * The tag of the reply, which the accepting channel sends to the connecting channel with the given id.
+     */
+    static long getReplyTag(final long connectorId) {
+        return TagUtil.setMessageType(connectorId, TagUtil.MessageType.HANDSHAKE);
     }
 }
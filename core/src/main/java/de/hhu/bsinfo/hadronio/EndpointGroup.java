@@ -0,0 +1,104 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A single UCX endpoint, which is shared by all socket channels connected to the same remote address, if
+ * {@link Configuration#isMultiplexConnections()} is enabled. The group connects the endpoint itself, while each
+ * channel uses its own multiplexed endpoint on top of it. Channels are only distinguished by their tags,
+ * so that opening a channel merely costs a handshake message and its reply.
+ */
+class EndpointGroup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndpointGroup.class);
+
+    private static final Map<InetSocketAddress, EndpointGroup> groups = new HashMap<>();
+
+    private final InetSocketAddress address;
+
+    /**
+     * The connected endpoint, which keeps the connection open, as long as there are members left.
+     */
+    private final UcxEndpoint endpoint;
+
+    /**
+     * The worker created for the connection, or null, if the connection uses a shared worker owned by the provider.
+     */
+    private final UcxWorker worker;
+
+    private int members;
+
+    private EndpointGroup(final InetSocketAddress address, final UcxEndpoint endpoint, final UcxWorker worker) {
+        this.address = address;
+        this.endpoint = endpoint;
+        this.worker = worker;
+    }
+
+    /**
+     * Join the group connected to the given address. If there is no such group yet, or its connection has failed,
+     * a new group is created and connected. Its endpoint is created on the given shared worker, or on a new worker,
+     * which is progressed by all threads using one of the group's channels.
+     */
+    static synchronized EndpointGroup join(final InetSocketAddress address, final UcxProvider provider, final UcxWorker sharedWorker) throws IOException {
+        EndpointGroup group = groups.get(address);
+        if (group == null || group.endpoint.getErrorState()) {
+            group = connect(address, provider, sharedWorker);
+            groups.put(address, group);
+            LOGGER.info("Created endpoint group for [{}]", address);
+        }
+
+        group.members++;
+        return group;
+    }
+
+    private static EndpointGroup connect(final InetSocketAddress address, final UcxProvider provider, final UcxWorker sharedWorker) throws IOException {
+        final UcxWorker worker = sharedWorker != null ? sharedWorker : provider.createWorker();
+        try {
+            final UcxEndpoint endpoint = provider.createEndpoint(worker);
+            endpoint.connect(address);
+            return new EndpointGroup(address, endpoint, sharedWorker != null ? null : worker);
+        } catch (IOException | RuntimeException e) {
+            if (sharedWorker == null) {
+                worker.close();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Create an endpoint for a channel, which has joined the group.
+     */
+    UcxEndpoint multiplex() throws IOException {
+        return endpoint.multiplex();
+    }
+
+    /**
+     * Leave the group. The connection and its worker are closed, once the last channel has left and closed its endpoint.
+     */
+    void leave() throws IOException {
+        synchronized (EndpointGroup.class) {
+            if (--members > 0) {
+                return;
+            }
+
+            // A failed group may already have been replaced by a new one
+            groups.remove(address, this);
+        }
+
+        LOGGER.info("Closing endpoint group for [{}]", address);
+        endpoint.close();
+        if (worker != null) {
+            worker.close();
+        }
+    }
+}
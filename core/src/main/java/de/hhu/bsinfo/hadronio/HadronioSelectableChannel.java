@@ -9,4 +9,18 @@ interface HadronioSelectableChannel {
     int readyOps();
 
     UcxWorker getWorker();
+
+    ReadinessNotifier getReadinessNotifier();
+
+    /**
+     * The point in time (as given by {@link System#nanoTime()}), at which the channel needs to be selected again,
+     * even if its state has not changed (e.g. to send delayed data), or 0, if it only needs to be selected on state changes.
+     */
+    long getSelectDeadline();
+
+    /**
+     * Whether the channel needs to be selected again, once its worker has made progress, even if no callback has notified its keys
+     * (e.g. to probe for arrived messages).
+     */
+    boolean needsSelectOnProgress();
 }
@@ -1,19 +1,49 @@
 package de.hhu.bsinfo.hadronio;
 
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.spi.AbstractSelectionKey;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class HadronioSelectionKey extends AbstractSelectionKey {
 
     private final SelectableChannel channel;
-    private final Selector selector;
+    private final HadronioSelector selector;
+
+    /**
+     * Set while the key is waiting in its selector's ready queue, so that it is queued at most once.
+     */
+    private final AtomicBoolean queued = new AtomicBoolean();
+
+    // Interest operations may be changed by any thread, while ready operations are only set by the selecting thread
+    private volatile int interestOps = 0;
+    private volatile int readyOps = 0;
+
+    /**
+     * Position inside the selector's selected-key set, or -1 if the key is not selected.
+     */
+    private int selectedIndex = -1;
 
-    private int interestOps = 0;
-    private int readyOps = 0;
+    /**
+     * The worker progressed on behalf of this key. Only accessed by the selecting thread.
+     */
+    private UcxWorker worker;
 
-    HadronioSelectionKey(final SelectableChannel channel, final Selector selector) {
+    /**
+     * Set while the key waits for the selector's workers to make progress, before it is selected again. Only accessed by the selecting thread.
+     */
+    private boolean waitingForProgress;
+
+    /**
+     * The point in time, at which the key is selected again, while it is deferred by the selector, or 0 otherwise.
+     * Only accessed by the selecting thread.
+     */
+    private long selectDeadline;
+
+    HadronioSelectionKey(final SelectableChannel channel, final HadronioSelector selector) {
         this.channel = channel;
         this.selector = selector;
     }
@@ -35,8 +65,12 @@ class HadronioSelectionKey extends AbstractSelectionKey {
 
     @Override
     public SelectionKey interestOps(final int interestOps) {
-        synchronized (this) {
-            this.interestOps = interestOps;
+        final int previousInterestOps = this.interestOps;
+        this.interestOps = interestOps;
+
+        // Readiness for newly added operations has not been determined yet, while removed operations are simply not selected anymore
+        if ((interestOps & ~previousInterestOps) != 0) {
+            markReady();
         }
 
         return this;
@@ -52,15 +86,57 @@ class HadronioSelectionKey extends AbstractSelectionKey {
         return "UcxSelectionKey(interestOps=" + interestOps + ", readyOps=" + readyOps + ", isValid=" + isValid() + ")";
     }
 
-    void readyOps(final int readyOps) {
-        synchronized(this) {
-            this.readyOps = readyOps;
+    void markReady() {
+        if (queued.compareAndSet(false, true)) {
+            selector.enqueue(this);
         }
     }
 
+    void updateWorker() {
+        selector.updateWorker(this);
+    }
+
+    UcxWorker getWorker() {
+        return worker;
+    }
+
+    void setWorker(final UcxWorker worker) {
+        this.worker = worker;
+    }
+
+    boolean isWaitingForProgress() {
+        return waitingForProgress;
+    }
+
+    void setWaitingForProgress(final boolean waitingForProgress) {
+        this.waitingForProgress = waitingForProgress;
+    }
+
+    long getSelectDeadline() {
+        return selectDeadline;
+    }
+
+    void setSelectDeadline(final long selectDeadline) {
+        this.selectDeadline = selectDeadline;
+    }
+
+    void clearReady() {
+        queued.set(false);
+    }
+
+    int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    void setSelectedIndex(final int selectedIndex) {
+        this.selectedIndex = selectedIndex;
+    }
+
+    void readyOps(final int readyOps) {
+        this.readyOps = readyOps;
+    }
+
     void readyOpsOr(final int readyOps) {
-        synchronized(this) {
-            this.readyOps(this.readyOps | readyOps);
-        }
+        this.readyOps = this.readyOps | readyOps;
     }
 }
@@ -1,5 +1,8 @@
 package de.hhu.bsinfo.hadronio;
 
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+import org.agrona.hints.ThreadHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,20 +13,91 @@ import java.nio.channels.spi.AbstractSelectableChannel;
 import java.nio.channels.spi.AbstractSelector;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 class HadronioSelector extends AbstractSelector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HadronioSelector.class);
+    private static final long MIN_PARK_DURATION = 10000;
+    private static final long MAX_PARK_DURATION = 1000000;
+
+    /**
+     * UCX can not wait for events with a timeout, so timed waits are ended by interrupting the worker from this thread.
+     */
+    private static final ScheduledExecutorService WAKEUP_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "hadronio-selector-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final Set<SelectionKey> keys = new HashSet<>();
     private final FixedSelectionKeySet selectedKeys = new FixedSelectionKeySet();
     private final Object wakeupLock = new Object();
 
-    private boolean wakeupStatus = true;
-    private boolean selectorClosed = false;
+    /**
+     * Keys, whose channels have changed their state since they have last been selected.
+     * Completion callbacks may run on any thread, so keys are pushed without holding any lock.
+     */
+    private final ManyToOneConcurrentLinkedQueue<HadronioSelectionKey> readyKeys = new ManyToOneConcurrentLinkedQueue<>();
+    private final ArrayList<HadronioSelectionKey> selectBatch = new ArrayList<>();
+
+    /**
+     * Keys, whose channels are selected again, once any worker has made progress (e.g. to probe for arrived messages).
+     */
+    private final ArrayList<HadronioSelectionKey> progressKeys = new ArrayList<>();
+
+    /**
+     * Keys, whose channels need to be selected again at a later point in time (e.g. to send delayed data),
+     * even if their state does not change until then.
+     */
+    private final ArrayList<HadronioSelectionKey> deferredKeys = new ArrayList<>();
+    private long nextKeyDeadline;
+
+    /**
+     * Keys registered by other threads, which are added to the key set by the selecting thread.
+     * This way, registering a channel never needs to wait for a running select operation.
+     */
+    private final ManyToOneConcurrentLinkedQueue<HadronioSelectionKey> pendingRegistrations = new ManyToOneConcurrentLinkedQueue<>();
+    private final ArrayList<SelectionKey> cancelledBatch = new ArrayList<>();
+    private final ManyToOneConcurrentLinkedQueue<HadronioSelectionKey> pendingWorkerUpdates = new ManyToOneConcurrentLinkedQueue<>();
+
+    /**
+     * Channels may share a worker, which only needs to be progressed once per iteration.
+     */
+    private final Map<UcxWorker, Integer> workerReferences = new IdentityHashMap<>();
+    private UcxWorker[] workers = new UcxWorker[0];
+
+    private final boolean sleepEnabled;
+    private final long spinDuration;
+    private final long yieldDuration;
+
+    /**
+     * Set while the selecting thread sleeps, so that wakeups and state changes from other threads know to interrupt it.
+     */
+    private volatile boolean sleeping;
+    private volatile Thread sleepingThread;
+    private volatile UcxWorker sleepingWorker;
+    private long lastActivity;
+    private long parkDuration = MIN_PARK_DURATION;
+
+    private volatile boolean wakeupStatus = false;
+    private volatile boolean selectorClosed = false;
 
     HadronioSelector(final SelectorProvider selectorProvider) {
+        this(selectorProvider, Configuration.getInstance());
+    }
+
+    HadronioSelector(final SelectorProvider selectorProvider, final Configuration configuration) {
         super(selectorProvider);
+
+        sleepEnabled = configuration.isSleepEnabled();
+        spinDuration = configuration.getSpinDuration() * 1000L;
+        yieldDuration = configuration.getYieldDuration() * 1000L;
     }
 
     @Override
@@ -31,20 +105,25 @@ class HadronioSelector extends AbstractSelector {
         LOGGER.info("Closing selector");
         selectorClosed = true;
 
+        // A running select operation needs to return, before the selector can be closed
+        wakeup();
+
         synchronized (this) {
-            synchronized (keys) {
-                synchronized (selectedKeys) {
-                    synchronized (cancelledKeys()) {
-                        wakeup();
+            synchronized (selectedKeys) {
+                processRegistrations();
+                for (SelectionKey key : keys) {
+                    key.cancel();
+                }
 
-                        for (SelectionKey key : keys) {
-                            key.cancel();
-                        }
+                removeCancelledKeys();
+                selectedKeys.clear();
+                keys.clear();
 
-                        selectedKeys.clear();
-                        keys.clear();
-                    }
-                }
+                // The ready queue does not support clear(), so it is drained instead
+                while (readyKeys.poll() != null) {}
+
+                progressKeys.clear();
+                deferredKeys.clear();
             }
         }
     }
@@ -55,19 +134,23 @@ class HadronioSelector extends AbstractSelector {
             throw new ClosedSelectorException();
         }
 
+        final HadronioSelectableChannel selectableChannel = (HadronioSelectableChannel) channel;
         final HadronioSelectionKey key = new HadronioSelectionKey(channel, this);
-        key.interestOps(interestOps);
         key.attach(attachment);
         LOGGER.info("Registering channel with selection key [{}]", key);
 
-        synchronized (keys) {
-            synchronized (wakeupLock) {
-                keys.add(key);
-                wakeupLock.notifyAll();
+        // The key is added to the key set at the start of the next select iteration
+        selectableChannel.getReadinessNotifier().add(key);
+        pendingRegistrations.offer(key);
 
-                return key;
-            }
+        // Setting the interest set queues the key, so that the channel's initial state is selected
+        key.interestOps(interestOps);
+
+        synchronized (wakeupLock) {
+            wakeupLock.notifyAll();
         }
+
+        return key;
     }
 
     @Override
@@ -90,17 +173,36 @@ class HadronioSelector extends AbstractSelector {
 
     @Override
     public int selectNow() {
-        return select(false, 0);
+        return select(false, 0, null);
     }
 
     @Override
     public int select(final long timeout) {
-        return select(true, timeout);
+        return select(true, timeout, null);
     }
 
     @Override
     public int select() {
-        return select(true, 0);
+        return select(true, 0, null);
+    }
+
+    // The following methods override the consumer-based select operations introduced in Java 11,
+    // but cannot be annotated with @Override, since hadroNIO is compiled for Java 8
+
+    public int select(final Consumer<SelectionKey> action, final long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Negative timeout");
+        }
+
+        return select(true, timeout, Objects.requireNonNull(action));
+    }
+
+    public int select(final Consumer<SelectionKey> action) {
+        return select(true, 0, Objects.requireNonNull(action));
+    }
+
+    public int selectNow(final Consumer<SelectionKey> action) {
+        return select(false, 0, Objects.requireNonNull(action));
     }
 
     @Override
@@ -111,15 +213,36 @@ class HadronioSelector extends AbstractSelector {
             wakeupLock.notifyAll();
         }
 
+        interruptSleep();
         return this;
     }
 
-    private int select(final boolean blocking, final long timeout) {
+    void updateWorker(final HadronioSelectionKey key) {
+        // Applied together with pending registrations, since the worker list is only accessed by the selecting thread
+        pendingWorkerUpdates.offer(key);
+        key.markReady();
+    }
+
+    void enqueue(final HadronioSelectionKey key) {
+        readyKeys.offer(key);
+
+        // The key may have been queued by another thread (e.g. an application thread writing to a channel)
+        if (sleeping) {
+            interruptSleep();
+        }
+    }
+
+    /**
+     * Perform a select operation. If an action is given, it is invoked for every ready key directly,
+     * instead of adding the key to the selected-key set.
+     */
+    private int select(final boolean blocking, final long timeout, final Consumer<SelectionKey> action) {
         if (selectorClosed) {
             throw new ClosedSelectorException();
         }
 
         LOGGER.trace("Starting select operation (blocking: [{}], timeout: [{}])", blocking, timeout);
+        final long deadline = timeout > 0 ? System.nanoTime() + timeout * 1000000 : 0;
 
         boolean keysAvailable = checkKeys(blocking, timeout);
         if (!keysAvailable) {
@@ -127,65 +250,160 @@ class HadronioSelector extends AbstractSelector {
         }
 
         synchronized (this) {
-            synchronized (keys) {
-                synchronized (selectedKeys) {
-                    pollWorker(false, 0);
-
-                    int updatedKeys = 0;
-                    do {
-                        removeCancelledKeys();
-                        updatedKeys += performSelectOperation();
-                        removeCancelledKeys();
-
-                        LOGGER.trace("Finished select iteration (blocking: [{}], keys: [{}], selectedKeys: [{}])", blocking, keys.size(), selectedKeys.size());
-
-                        if (blocking && keys.size() > 0 && selectedKeys.size() == 0) {
-                            pollWorker(true, timeout);
-
-                            synchronized (wakeupLock) {
-                                if (wakeupStatus) {
-                                    LOGGER.trace("Selector has been interrupted by wakeup");
-                                    wakeupStatus = false;
-                                    break;
-                                }
+            synchronized (selectedKeys) {
+                processRegistrations();
+                pollWorker(false, deadline);
+
+                int updatedKeys = 0;
+                do {
+                    processRegistrations();
+                    removeCancelledKeys();
+                    queueDeferredKeys();
+                    updatedKeys += performSelectOperation(action);
+                    removeCancelledKeys();
+
+                    LOGGER.trace("Finished select iteration (blocking: [{}], keys: [{}], selectedKeys: [{}])", blocking, keys.size(), selectedKeys.size());
+
+                    if (blocking && keys.size() > 0 && isNothingSelected(action, updatedKeys)) {
+                        if (deadline != 0 && System.nanoTime() >= deadline) {
+                            LOGGER.trace("Timeout of [{}] has been reached while selecting", timeout);
+                            break;
+                        }
+
+                        // Deferred keys need to be selected again in time, even if no event arrives until then
+                        pollWorker(true, getEarliestDeadline(deadline, nextKeyDeadline));
+
+                        synchronized (wakeupLock) {
+                            if (wakeupStatus) {
+                                LOGGER.trace("Selector has been interrupted by wakeup");
+                                wakeupStatus = false;
+                                break;
                             }
                         }
-                    } while (blocking && keys.size() > 0 && selectedKeys.size() == 0);
+                    }
+                } while (blocking && keys.size() > 0 && isNothingSelected(action, updatedKeys));
 
-                    LOGGER.trace("Finished select operation (blocking: [{}], timeout: [{}], updatedKeys: [{}])", blocking, timeout, updatedKeys);
-                    return updatedKeys;
+                if (updatedKeys > 0) {
+                    lastActivity = System.nanoTime();
                 }
+
+                LOGGER.trace("Finished select operation (blocking: [{}], timeout: [{}], updatedKeys: [{}])", blocking, timeout, updatedKeys);
+                return updatedKeys;
             }
         }
     }
 
-    private void pollWorker(final boolean blocking, final long timeout) {
-            LOGGER.trace("Polling worker (blocking: [{}], timeout: [{}])", blocking, timeout);
+    private void pollWorker(final boolean blocking, final long deadline) {
+            LOGGER.trace("Polling worker (blocking: [{}], deadline: [{}])", blocking, deadline);
             boolean eventsPolled = false;
-            final long endTime = System.nanoTime() + timeout * 1000000;
 
-            do {
-                for (final SelectionKey key : keys) {
-                    final HadronioSelectableChannel channel = (HadronioSelectableChannel) key.channel();
-                    eventsPolled |= channel.getWorker().progress();
+            while (true) {
+                for (final UcxWorker worker : workers) {
+                    eventsPolled |= worker.progress();
+                }
+
+                if (eventsPolled) {
+                    // Keep busy polling, as long as events keep arriving
+                    lastActivity = System.nanoTime();
+                    parkDuration = MIN_PARK_DURATION;
+                    queueProgressKeys();
+                    break;
                 }
 
-                if (timeout > 0 && System.nanoTime() > endTime) {
-                    LOGGER.trace("Timeout of [{}] has been reached while polling worker", timeout);
+                if (!blocking || wakeupStatus || !readyKeys.isEmpty()) {
                     break;
                 }
-            } while(blocking && !eventsPolled && !wakeupStatus);
+
+                final long now = System.nanoTime();
+                if (deadline != 0 && now >= deadline) {
+                    LOGGER.trace("Deadline has been reached while polling worker");
+                    break;
+                }
+
+                idle(now, deadline);
+            }
+
             LOGGER.trace("Finished polling worker (eventsPolled: [{}])", eventsPolled);
     }
 
-    private boolean selectKey(final HadronioSelectionKey key) {
+    private void idle(final long now, final long deadline) {
+        final long idleTime = now - lastActivity;
+        if (!sleepEnabled || idleTime < spinDuration) {
+            ThreadHints.onSpinWait();
+        } else if (idleTime < spinDuration + yieldDuration) {
+            Thread.yield();
+        } else {
+            sleep(now, deadline);
+        }
+    }
+
+    private void sleep(final long now, final long deadline) {
+        final UcxWorker[] currentWorkers = workers;
+        // UCX can only block on the event file descriptor of a single worker
+        final UcxWorker worker = currentWorkers.length == 1 ? currentWorkers[0] : null;
+        ScheduledFuture<?> wakeupTimer = null;
+
+        sleepingThread = Thread.currentThread();
+        sleepingWorker = worker;
+        sleeping = true;
+        try {
+            // Other threads may have woken up the selector or queued keys, since we last checked
+            if (wakeupStatus || !readyKeys.isEmpty()) {
+                return;
+            }
+
+            if (worker != null) {
+                // Waiting for events does not support a timeout, so the worker is interrupted once the deadline has been reached
+                if (deadline != 0) {
+                    wakeupTimer = WAKEUP_TIMER.schedule(worker::interrupt, deadline - now, TimeUnit.NANOSECONDS);
+                }
+
+                LOGGER.trace("Waiting for events on worker (deadline: [{}])", deadline);
+                worker.waitForEvents();
+            } else {
+                // Without a single event file descriptor to block on, the workers are polled in increasing intervals
+                final long duration = deadline == 0 ? parkDuration : Math.min(parkDuration, deadline - now);
+                LockSupport.parkNanos(this, duration);
+                parkDuration = Math.min(parkDuration * 2, MAX_PARK_DURATION);
+            }
+        } finally {
+            sleeping = false;
+            if (wakeupTimer != null) {
+                wakeupTimer.cancel(false);
+            }
+        }
+    }
+
+    private void interruptSleep() {
+        if (!sleeping) {
+            return;
+        }
+
+        final UcxWorker worker = sleepingWorker;
+        if (worker != null) {
+            worker.interrupt();
+        }
+
+        LockSupport.unpark(sleepingThread);
+    }
+
+    private boolean isNothingSelected(final Consumer<SelectionKey> action, final int updatedKeys) {
+        // Without an action, keys selected by previous operations, which have not yet been handled, also count
+        return action == null ? selectedKeys.size() == 0 : updatedKeys == 0;
+    }
+
+    private boolean selectKey(final HadronioSelectionKey key, final Consumer<SelectionKey> action) {
         LOGGER.trace("Selecting key: [{}]", key);
         final int channelReadyOps = ((HadronioSelectableChannel) key.channel()).readyOps();
         final int readyOps = channelReadyOps & key.interestOps();
         LOGGER.trace("Selected channel (channelReadyOps: [{}], readyOps: [{}])", channelReadyOps, readyOps);
 
         if (readyOps != 0) {
-            if (selectedKeys.contains(key)) {
+            if (action != null) {
+                // The key is handed to the action directly, without ever being added to the selected-key set
+                key.readyOps(readyOps);
+                action.accept(key);
+            } else if (selectedKeys.contains(key)) {
                 key.readyOpsOr(readyOps);
             } else {
                 selectedKeys.addKey(key);
@@ -199,7 +417,7 @@ class HadronioSelector extends AbstractSelector {
     }
 
     private boolean checkKeys(final boolean blocking, final long timeout) {
-        if (!keys.isEmpty()) {
+        if (!keys.isEmpty() || !pendingRegistrations.isEmpty()) {
             return true;
         }
 
@@ -210,8 +428,11 @@ class HadronioSelector extends AbstractSelector {
 
         synchronized (wakeupLock) {
             try {
-                LOGGER.trace("Waiting for new keys (timeout: [{}])", timeout);
-                wakeupLock.wait(timeout);
+                // A key may have been registered, since we last checked
+                if (pendingRegistrations.isEmpty()) {
+                    LOGGER.trace("Waiting for new keys (timeout: [{}])", timeout);
+                    wakeupLock.wait(timeout);
+                }
             } catch (InterruptedException e) {
                 LOGGER.warn("Thread has been interrupted while waiting for keys to be registered");
                 return false;
@@ -224,7 +445,7 @@ class HadronioSelector extends AbstractSelector {
             }
         }
 
-        if (keys.isEmpty()) {
+        if (keys.isEmpty() && pendingRegistrations.isEmpty()) {
             LOGGER.trace("There are still no keys registered after wait() has returned");
             return false;
         }
@@ -232,38 +453,210 @@ class HadronioSelector extends AbstractSelector {
         return true;
     }
 
+    private void processRegistrations() {
+        HadronioSelectionKey key;
+        while ((key = pendingRegistrations.poll()) != null) {
+            keys.add(key);
+            key.setWorker(((HadronioSelectableChannel) key.channel()).getWorker());
+            addWorker(key.getWorker());
+        }
+
+        while ((key = pendingWorkerUpdates.poll()) != null) {
+            final UcxWorker worker = ((HadronioSelectableChannel) key.channel()).getWorker();
+            if (keys.contains(key) && key.getWorker() != worker) {
+                removeWorker(key.getWorker());
+                key.setWorker(worker);
+                addWorker(worker);
+            }
+        }
+    }
+
     private void removeCancelledKeys() {
-        synchronized (cancelledKeys()) {
-            if (!cancelledKeys().isEmpty()) {
-                LOGGER.trace("Removing [{}] cancelled {}", cancelledKeys().size(), cancelledKeys().size() == 1 ? "key" : "keys");
-                keys.removeAll(cancelledKeys());
-                selectedKeys.removeAll(cancelledKeys());
-                cancelledKeys().clear();
+        // The cancelled-key set is only locked for moving its keys, so that cancelling keys never waits for long
+        final Set<SelectionKey> cancelledKeys = cancelledKeys();
+        synchronized (cancelledKeys) {
+            if (cancelledKeys.isEmpty()) {
+                return;
             }
+
+            cancelledBatch.addAll(cancelledKeys);
+            cancelledKeys.clear();
         }
+
+        LOGGER.trace("Removing [{}] cancelled {}", cancelledBatch.size(), cancelledBatch.size() == 1 ? "key" : "keys");
+        for (final SelectionKey key : cancelledBatch) {
+            final HadronioSelectableChannel channel = (HadronioSelectableChannel) key.channel();
+            channel.getReadinessNotifier().remove((HadronioSelectionKey) key);
+            if (keys.remove(key)) {
+                removeWorker(((HadronioSelectionKey) key).getWorker());
+            }
+
+            selectedKeys.remove(key);
+        }
+
+        cancelledBatch.clear();
     }
 
-    private int performSelectOperation() {
-        LOGGER.trace("Selecting [{}] {}", keys.size(), keys.size() == 1 ? "key" : "keys");
+    private int performSelectOperation(final Consumer<SelectionKey> action) {
+        // Only channels, which have been active since the last iteration, need to be selected
+        HadronioSelectionKey readyKey;
+        while ((readyKey = readyKeys.poll()) != null) {
+            selectBatch.add(readyKey);
+        }
+
+        LOGGER.trace("Selecting [{}] of [{}] {}", selectBatch.size(), keys.size(), keys.size() == 1 ? "key" : "keys");
         int updatedKeys = 0;
+        int index = 0;
+
+        try {
+            for (; index < selectBatch.size(); index++) {
+                final HadronioSelectionKey key = selectBatch.get(index);
 
-        for (SelectionKey key : Collections.unmodifiableSet(keys)) {
-            ((HadronioSelectableChannel) key.channel()).select();
+                // Cleared before selecting, so that any state change from now on queues the key again
+                key.clearReady();
+                if (!key.isValid()) {
+                    continue;
+                }
 
-            if (selectKey((HadronioSelectionKey) key)) {
-                updatedKeys++;
+                final HadronioSelectableChannel channel = (HadronioSelectableChannel) key.channel();
+                channel.select();
+
+                final boolean selected = selectKey(key, action);
+                if (selected) {
+                    updatedKeys++;
+                }
+
+                // Selected channels stay ready until the application has handled them, so they are checked again next time
+                // Other channels are only checked again, once their state changes or their deadline has passed
+                if (selected) {
+                    key.markReady();
+                    continue;
+                }
+
+                final long selectDeadline = channel.getSelectDeadline();
+                if (selectDeadline != 0 && selectDeadline - System.nanoTime() <= 0) {
+                    key.markReady();
+                    continue;
+                } else if (selectDeadline != 0) {
+                    deferKey(key, selectDeadline);
+                }
+
+                if (channel.needsSelectOnProgress() && !key.isWaitingForProgress()) {
+                    key.setWaitingForProgress(true);
+                    progressKeys.add(key);
+                }
             }
+        } finally {
+            // If the action has thrown an exception, the current and all remaining keys are selected during the next operation
+            if (index < selectBatch.size()) {
+                selectBatch.get(index).markReady();
+
+                // The remaining keys are still marked as queued
+                for (index++; index < selectBatch.size(); index++) {
+                    readyKeys.offer(selectBatch.get(index));
+                }
+            }
+
+            selectBatch.clear();
         }
 
         LOGGER.trace("Finished selecting (updatedKeys: [{}])", updatedKeys);
         return updatedKeys;
     }
 
-    private static final class FixedSelectionKeySet extends HashSet<SelectionKey> {
+    private void deferKey(final HadronioSelectionKey key, final long selectDeadline) {
+        // The latest deadline reported by the channel replaces any earlier one
+        if (key.getSelectDeadline() == 0) {
+            deferredKeys.add(key);
+        }
+
+        key.setSelectDeadline(selectDeadline);
+        nextKeyDeadline = getEarliestDeadline(nextKeyDeadline, selectDeadline);
+    }
+
+    private void queueDeferredKeys() {
+        if (nextKeyDeadline == 0 || nextKeyDeadline - System.nanoTime() > 0) {
+            return;
+        }
 
-        public FixedSelectionKeySet() {
-            super();
+        final long now = System.nanoTime();
+        nextKeyDeadline = 0;
+        for (int i = deferredKeys.size() - 1; i >= 0; i--) {
+            final HadronioSelectionKey key = deferredKeys.get(i);
+            final long selectDeadline = key.getSelectDeadline();
+            if (selectDeadline - now <= 0 || !key.isValid()) {
+                // Keys are removed by moving the last key into their place, since their order does not matter
+                key.setSelectDeadline(0);
+                deferredKeys.set(i, deferredKeys.get(deferredKeys.size() - 1));
+                deferredKeys.remove(deferredKeys.size() - 1);
+                key.markReady();
+            } else {
+                nextKeyDeadline = getEarliestDeadline(nextKeyDeadline, selectDeadline);
+            }
         }
+    }
+
+    private static long getEarliestDeadline(final long first, final long second) {
+        // A deadline of 0 means, that there is no deadline at all
+        if (first == 0) {
+            return second;
+        }
+
+        return second == 0 || first - second <= 0 ? first : second;
+    }
+
+    private void queueProgressKeys() {
+        for (int i = 0; i < progressKeys.size(); i++) {
+            final HadronioSelectionKey key = progressKeys.get(i);
+            key.setWaitingForProgress(false);
+            key.markReady();
+        }
+
+        progressKeys.clear();
+    }
+
+    private void addWorker(final UcxWorker worker) {
+        // Channels, which have not started connecting yet, have no worker
+        if (worker == null) {
+            return;
+        }
+
+        final Integer references = workerReferences.get(worker);
+        workerReferences.put(worker, references == null ? 1 : references + 1);
+        if (references == null) {
+            workers = workerReferences.keySet().toArray(new UcxWorker[0]);
+        }
+    }
+
+    private void removeWorker(final UcxWorker worker) {
+        final Integer references = worker == null ? null : workerReferences.get(worker);
+        if (references == null) {
+            return;
+        }
+
+        if (references > 1) {
+            workerReferences.put(worker, references - 1);
+        } else {
+            workerReferences.remove(worker);
+            workers = workerReferences.keySet().toArray(new UcxWorker[0]);
+        }
+    }
+
+    /**
+     * Set of selected keys, which is backed by an array. Each key stores its own position inside the array,
+     * so that adding, removing and looking up keys takes constant time. Removing a key moves the last key into its place.
+     * Iterating the set does not allocate any objects, since every call to iterator() resets and returns the same iterator.
+     * Thus, only one single-pass iteration may be active at a time, as is the case for the common select loop
+     * (iterating the selected keys once and removing each handled key). Nested iterations and iterators kept across calls are not supported.
+     */
+    static final class FixedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private HadronioSelectionKey[] keys = new HadronioSelectionKey[INITIAL_CAPACITY];
+        private int size;
+
+        private final KeyIterator iterator = new KeyIterator();
 
         @Override
         public boolean add(final SelectionKey key) {
@@ -275,8 +668,104 @@ class HadronioSelector extends AbstractSelector {
             throw new UnsupportedOperationException("Trying to add a key to a fixed set!");
         }
 
-        private void addKey(final SelectionKey key) {
-            super.add(key);
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(final Object object) {
+            if (!(object instanceof HadronioSelectionKey)) {
+                return false;
+            }
+
+            final int index = ((HadronioSelectionKey) object).getSelectedIndex();
+            return index >= 0 && index < size && keys[index] == object;
+        }
+
+        @Override
+        public boolean remove(final Object object) {
+            if (!contains(object)) {
+                return false;
+            }
+
+            removeAt(((HadronioSelectionKey) object).getSelectedIndex());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            for (int i = 0; i < size; i++) {
+                keys[i].setSelectedIndex(-1);
+                keys[i] = null;
+            }
+
+            size = 0;
+        }
+
+        @Override
+        public Iterator<SelectionKey> iterator() {
+            // An abandoned iteration is simply restarted, so that there is no state left behind by an early exit
+            return iterator.reset();
+        }
+
+        void addKey(final HadronioSelectionKey key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+
+            key.setSelectedIndex(size);
+            keys[size++] = key;
+        }
+
+        private void removeAt(final int index) {
+            keys[index].setSelectedIndex(-1);
+
+            final int last = --size;
+            if (index != last) {
+                keys[index] = keys[last];
+                keys[index].setSelectedIndex(index);
+            }
+
+            keys[last] = null;
+        }
+
+        private final class KeyIterator implements Iterator<SelectionKey> {
+
+            private int next;
+            private boolean removable;
+
+            private KeyIterator reset() {
+                next = 0;
+                removable = false;
+                return this;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                removable = true;
+                return keys[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+
+                // The last key is moved into the removed key's place, so it needs to be returned next
+                removeAt(--next);
+                removable = false;
+            }
         }
     }
 }
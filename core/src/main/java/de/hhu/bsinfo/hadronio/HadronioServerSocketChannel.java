@@ -4,7 +4,6 @@ import de.hhu.bsinfo.hadronio.binding.UcxConnectionRequest;
 import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
 import de.hhu.bsinfo.hadronio.binding.UcxListener;
 import de.hhu.bsinfo.hadronio.binding.UcxWorker;
-import java.util.Stack;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,7 +15,10 @@ import java.net.SocketOption;
 import java.nio.channels.*;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.nio.channels.SelectionKey.OP_ACCEPT;
 
@@ -25,16 +27,58 @@ public class HadronioServerSocketChannel extends ServerSocketChannel implements
     private static final Logger LOGGER = LoggerFactory.getLogger(HadronioServerSocketChannel.class);
     private static final int DEFAULT_SERVER_PORT = 2998;
 
-    private final UcxListener listener;
-    private final Stack<UcxConnectionRequest> pendingRequests = new Stack<>();
+    private static final Set<SocketOption<?>> SUPPORTED_OPTIONS;
+
+    static {
+        final Set<SocketOption<?>> options = new HashSet<>(ChannelOptions.SUPPORTED_OPTIONS);
+        options.add(HadronioSocketOptions.REUSE_PORT);
+        SUPPORTED_OPTIONS = Collections.unmodifiableSet(options);
+    }
 
-    private boolean channelClosed = false;
+    private final UcxListener listener;
+    private final WaitStrategy.Signal waitSignal;
+    private final WaitStrategy acceptWait;
+    private final ReadinessNotifier readinessNotifier = new ReadinessNotifier();
+
+    /**
+     * Options inherited by all accepted channels.
+     */
+    private final ChannelOptions options;
+    private final boolean multiplexConnections;
+
+    /**
+     * Connection requests are accepted in the order they have arrived in. Space in the backlog is reserved
+     * via the counter before a request is queued, so that concurrent requests can never exceed it.
+     */
+    private final ConcurrentLinkedQueue<UcxConnectionRequest> pendingRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingRequestCount = new AtomicInteger();
+
+    /**
+     * The listener receiving connection requests for this channel. If the channel has joined a listener group,
+     * this is the group's listener instead of the channel's own one.
+     */
+    private volatile UcxListener boundListener;
+    private ListenerGroup listenerGroup;
+    private boolean reusePort = false;
+    private int backlog;
+
+    private volatile boolean channelClosed = false;
     private boolean channelBound = false;
     private int readyOps;
 
     public HadronioServerSocketChannel(final SelectorProvider provider, final UcxListener listener) {
+        this(provider, listener, Configuration.getInstance());
+    }
+
+    HadronioServerSocketChannel(final SelectorProvider provider, final UcxListener listener, final Configuration configuration) {
         super(provider);
         this.listener = listener;
+        boundListener = listener;
+
+        options = new ChannelOptions(configuration);
+        multiplexConnections = configuration.isMultiplexConnections();
+        waitSignal = new WaitStrategy.Signal(configuration);
+        acceptWait = new WaitStrategy(configuration, waitSignal);
     }
 
     @Override
@@ -57,17 +101,24 @@ public class HadronioServerSocketChannel extends ServerSocketChannel implements
             localAddress = (InetSocketAddress) socketAddress;
         }
 
+        this.backlog = backlog;
+
         try {
-            listener.bind(localAddress, connectionRequest -> {
-                LOGGER.info("Received connection request");
-
-                if (backlog <= 0 || pendingRequests.size() < backlog) {
-                    pendingRequests.push(connectionRequest);
-                } else {
-                    LOGGER.error("Discarding connection request, because the maximum number of pending requests ({}) has been reached", backlog);
-                    connectionRequest.reject();
+            if (reusePort && localAddress.getPort() != 0) {
+                listenerGroup = ListenerGroup.join(localAddress, this, listener);
+                if (listenerGroup.getListener() != listener) {
+                    // Connection requests arrive on the group's worker, which selectors need to progress instead of our own
+                    boundListener = listenerGroup.getListener();
+                    readinessNotifier.updateWorkers();
                 }
-            });
+            } else {
+                listener.bind(localAddress, connectionRequest -> {
+                    if (!offerConnectionRequest(connectionRequest)) {
+                        LOGGER.error("Discarding connection request, because the maximum number of pending requests ({}) has been reached", backlog);
+                        connectionRequest.reject();
+                    }
+                });
+            }
 
             channelBound = true;
         } catch (IOException e){
@@ -84,21 +135,42 @@ public class HadronioServerSocketChannel extends ServerSocketChannel implements
             throw new ClosedChannelException();
         }
 
-        throw new UnsupportedOperationException("Trying to set unsupported option " + socketOption.name() + "!");
+        if (isReusePortOption(socketOption)) {
+            if (channelBound) {
+                LOGGER.warn("Option [{}] can only be set before binding, ignoring value [{}]", socketOption.name(), t);
+            } else {
+                reusePort = (Boolean) t;
+            }
+
+            return this;
+        }
+
+        synchronized (options) {
+            options.set(socketOption, t);
+        }
+
+        return this;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T getOption(final SocketOption<T> socketOption) throws IOException {
         if (channelClosed) {
             throw new ClosedChannelException();
         }
 
-        throw new UnsupportedOperationException("Trying to set unsupported option " + socketOption.name() + "!");
+        if (isReusePortOption(socketOption)) {
+            return (T) Boolean.valueOf(reusePort);
+        }
+
+        synchronized (options) {
+            return options.get(socketOption);
+        }
     }
 
     @Override
     public Set<SocketOption<?>> supportedOptions() {
-        return Collections.emptySet();
+        return SUPPORTED_OPTIONS;
     }
 
     @Override
@@ -120,21 +192,43 @@ public class HadronioServerSocketChannel extends ServerSocketChannel implements
             throw new NotYetBoundException();
         }
 
-        if (!isBlocking() && pendingRequests.isEmpty()) {
-            return null;
-        }
+        UcxConnectionRequest connectionRequest = pendingRequests.poll();
+        if (connectionRequest == null) {
+            if (!isBlocking()) {
+                return null;
+            }
 
-        while (isBlocking() && pendingRequests.isEmpty()) {
-            listener.getWorker().progress();
+            acceptWait.reset();
+            while ((connectionRequest = pendingRequests.poll()) == null) {
+                acceptWait.progress(boundListener.getWorker());
+            }
         }
 
+        pendingRequestCount.decrementAndGet();
+
         LOGGER.info("Accepting connection request");
-        final UcxEndpoint endpoint = listener.accept(pendingRequests.pop());
-        final HadronioSocketChannel socket = new HadronioSocketChannel(provider(), endpoint);
+        final MultiplexedConnectionRequest multiplexedRequest = connectionRequest instanceof MultiplexedConnectionRequest ?
+                (MultiplexedConnectionRequest) connectionRequest : null;
+        final UcxEndpoint endpoint = multiplexedRequest != null ? multiplexedRequest.createEndpoint() : boundListener.accept(connectionRequest);
+        final HadronioSocketChannel socket;
+        synchronized (options) {
+            // Accepted channels are connected right away, so they need to know their buffer lengths beforehand
+            socket = new HadronioSocketChannel(provider(), endpoint, new ChannelOptions(options));
+        }
+
+        if (multiplexedRequest != null) {
+            // The handshake message of a multiplexed channel has already been received
+            multiplexedRequest.accept(socket);
+            return socket;
+        }
+
+        // The tags are exchanged in the background, so that accepting does not wait for a round trip
+        // The channel becomes writable, once the handshake has completed and the remote channel has announced its credits
+        socket.acceptConnection();
 
-        socket.establishConnection();
-        while (!socket.isConnected()) {
-            socket.getWorker().progress();
+        if (multiplexConnections) {
+            // The remote process may open further channels over the same connection
+            HandshakeListener.listen(this, endpoint);
         }
 
         return socket;
@@ -142,14 +236,29 @@ public class HadronioServerSocketChannel extends ServerSocketChannel implements
 
     @Override
     public SocketAddress getLocalAddress() {
-        return listener.getAddress();
+        return boundListener.getAddress();
     }
 
     @Override
     protected void implCloseSelectableChannel() throws IOException {
         LOGGER.info("Closing server socket channel bound to [{}]", getLocalAddress());
         channelClosed = true;
-        listener.close();
+
+        if (listenerGroup != null) {
+            // The group's listener may still be used by other channels, so it is only closed by the group itself
+            listenerGroup.leave(this);
+            if (listenerGroup.getListener() != listener) {
+                listener.close();
+            }
+        } else {
+            listener.close();
+        }
+
+        // Requests, which arrived after leaving the group, are rejected as well
+        UcxConnectionRequest connectionRequest;
+        while ((connectionRequest = pendingRequests.poll()) != null) {
+            connectionRequest.reject();
+        }
     }
 
     @Override
@@ -169,10 +278,54 @@ public class HadronioServerSocketChannel extends ServerSocketChannel implements
 
     @Override
     public UcxWorker getWorker() {
-        return listener.getWorker();
+        return boundListener.getWorker();
+    }
+
+    @Override
+    public ReadinessNotifier getReadinessNotifier() {
+        return readinessNotifier;
+    }
+
+    @Override
+    public long getSelectDeadline() {
+        return 0;
+    }
+
+    @Override
+    public boolean needsSelectOnProgress() {
+        return false;
     }
 
     boolean isBound() {
         return channelBound;
     }
+
+    /**
+     * Queue a connection request, which has been received by this channel's listener or its listener group.
+     *
+     * @return Whether the request has been queued. If the backlog is full, the caller needs to take care of the request.
+     */
+    boolean offerConnectionRequest(final UcxConnectionRequest connectionRequest) {
+        if (channelClosed) {
+            return false;
+        }
+
+        if (pendingRequestCount.incrementAndGet() > backlog && backlog > 0) {
+            pendingRequestCount.decrementAndGet();
+            return false;
+        }
+
+        LOGGER.info("Received connection request");
+        pendingRequests.offer(connectionRequest);
+        waitSignal.signal(boundListener.getWorker());
+        readinessNotifier.notifyKeys();
+
+        return true;
+    }
+
+    private static boolean isReusePortOption(final SocketOption<?> socketOption) {
+        // StandardSocketOptions.SO_REUSEPORT only exists since Java 9, so it is recognized by its name
+        return socketOption == HadronioSocketOptions.REUSE_PORT ||
+                ("SO_REUSEPORT".equals(socketOption.name()) && socketOption.type() == Boolean.class);
+    }
 }
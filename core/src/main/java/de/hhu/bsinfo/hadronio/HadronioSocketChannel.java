@@ -1,12 +1,19 @@
 package de.hhu.bsinfo.hadronio;
 
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
 import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.binding.UcxTagMessage;
 import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import de.hhu.bsinfo.hadronio.util.MemoryUtil;
 import de.hhu.bsinfo.hadronio.util.MemoryUtil.Alignment;
 import de.hhu.bsinfo.hadronio.util.MessageUtil;
 import de.hhu.bsinfo.hadronio.util.RingBuffer;
 import de.hhu.bsinfo.hadronio.util.TagUtil;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
@@ -17,7 +24,7 @@ import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.nio.channels.spi.SelectorProvider;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -28,25 +35,160 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HadronioSocketChannel.class);
 
-    static final long FLUSH_ANSWER = 0xC0FFEE00ADD1C7EDL;
-
-    private final UcxEndpoint endpoint;
+    /**
+     * Credits are returned to the remote channel with a separate message, as soon as this share of all
+     * receive buffer slices has been re-posted without having been piggybacked on an outgoing message.
+     */
+    private static final int CREDIT_MESSAGE_DIVISOR = 4;
+
+    /**
+     * Aligned length of a ring buffer record, which references a slice of the shared receive pool.
+     */
+    private static final int SHARED_RECORD_LENGTH = 16;
+
+    /**
+     * Without posted slices, a credit allows the remote channel to occupy this amount of bytes in the receive buffer.
+     * This way, small messages do not use up the window of a receive buffer, which could hold many more of them.
+     */
+    private static final int PROBE_CREDIT_LENGTH = 256;
+
+    static final int ZERO_COPY_MESSAGE_ID = 2;
+
+    /**
+     * Channels opened via {@link #HadronioSocketChannel(SelectorProvider, UcxProvider, UcxWorker)} only create their endpoint
+     * while connecting, so that multiplexed channels never create an endpoint and worker of their own.
+     */
+    private volatile UcxEndpoint endpoint;
+    private final UcxProvider ucxProvider;
+    private final UcxWorker sharedWorker;
+    private EndpointGroup endpointGroup;
     private final Configuration configuration;
-
-    private final RingBuffer sendBuffer;
-    private final RingBuffer receiveBuffer;
+    private final ChannelOptions options;
+
+    /**
+     * The maximum length of a sent message, which is the smaller one of both channels' slice lengths.
+     */
+    private int sendSliceLength;
+
+    /**
+     * The amount of bytes, which one credit of the remote channel stands for, or 0, if each credit stands for one message.
+     */
+    private int sendCreditLength;
+
+    /**
+     * The receive buffer length of the remote channel, which limits the length of sent out-of-band messages.
+     */
+    private int sendOutOfBandLength;
+
+    private final Object sendLock = new Object();
+    private final Object receiveLock = new Object();
+
+    /**
+     * Blocking reads and writes may wait concurrently, so each of them has its own strategy.
+     */
+    private final WaitStrategy.Signal waitSignal;
+    private final WaitStrategy readWait;
+    private final WaitStrategy writeWait;
+    private final ReadinessNotifier readinessNotifier = new ReadinessNotifier();
+    private volatile RingBuffer sendBuffer;
+    private volatile RingBuffer receiveBuffer;
     private final ByteBuffer[] singleBufferArray = new ByteBuffer[1];
+    private final ByteBuffer[] singleReadBufferArray = new ByteBuffer[1];
 
-    private final AtomicBuffer flushBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(Long.BYTES));
-    private final AtomicBoolean isFlushing = new AtomicBoolean();
+    private final AtomicBuffer creditBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(Long.BYTES));
+    private final AtomicInteger sendCredits = new AtomicInteger();
+    private final AtomicInteger pendingCredits = new AtomicInteger();
     private final AtomicInteger readableMessages = new AtomicInteger();
+    private int creditMessageThreshold;
+    private SendCallback sendCallback;
+    private ReceiveCallback receiveCallback;
+
+    /**
+     * If a shared receive pool is used, the receive buffer only holds references to slices of the pool.
+     */
+    private final SharedReceivePool sharedReceivePool;
+    private int releasedSlices;
+
+    /**
+     * A receive buffer, that has been replaced by a larger one, but still contains messages, which need to be read first.
+     */
+    private RingBuffer retiredReceiveBuffer;
+    private int retiredMessages;
+    private int receiveRecords;
+
+    /**
+     * Slices of a retired receive buffer are cancelled, if the buffer is shrunk. Cancellations are reported by the receive callback
+     * and collected while holding the receive lock. The remote channel still holds credits for cancelled slices,
+     * so the same amount of newly posted slices is not announced again.
+     */
+    private final AtomicInteger cancelledReceives = new AtomicInteger();
+    private int cancelledSlices;
+
     private int sendCounter;
+    private int receiveCounter;
+    private int lastSendCounter;
+    private int lastReceiveCounter;
+    private long lastSendActivity;
+    private long lastReceiveActivity;
+
+    /**
+     * The point in time, at which an idle ring buffer may be shrunk, or 0, if no ring buffer can be shrunk without a state change first.
+     */
+    private volatile long shrinkDeadline;
+
+    /**
+     * Set while a zero-copy send is in flight. Only blocking writes send data this way, waiting for the flag to be cleared
+     * before returning, so it is never observed by selectors, which only handle non-blocking channels.
+     */
+    private final AtomicBoolean zeroCopyInFlight = new AtomicBoolean();
+
+    /**
+     * Vectored zero-copy sends need arrays of exactly as many addresses and sizes, as there are source buffers.
+     * They are kept per buffer count, so that gathering writes do not allocate new arrays each time.
+     */
+    private long[][] zeroCopyAddresses = new long[0][];
+    private long[][] zeroCopySizes = new long[0][];
+
+    private volatile boolean noDelay;
+    private volatile int openSliceIndex = -1;
+    private int openSliceLength;
+    private int openSliceCapacity;
+    private long openSliceTime;
+
+    private UcxTagMessage probedMessage;
+
+    /**
+     * Out-of-band data, which is not received directly into the application's buffer, lands in this buffer.
+     * It is reused for all out-of-band messages and only replaced, if a larger message arrives.
+     */
+    private AtomicBuffer outOfBandBuffer;
+    private UcxMemory outOfBandMemory;
+    private boolean outOfBandPosted;
+    private volatile boolean outOfBandReceived;
+
+    /**
+     * Holds the handshake message sent or received by this channel, which must stay valid until the request has completed.
+     */
+    private final AtomicBuffer handshakeBuffer = MemoryUtil.allocateAligned(ConnectionCallback.MESSAGE_LENGTH, Alignment.CACHE);
+
     private long localTag;
+    private boolean localTagReserved = false;
     private long remoteTag;
 
     private boolean connectionPending = false;
-    private boolean connectionFailed = false;
+    private volatile boolean connectionFailed = false;
+
+    /**
+     * Set, if the remote channel has been closed, while the connection is still used by other multiplexed channels.
+     */
+    private volatile boolean remoteClosed = false;
     private boolean connected = false;
+
+    /**
+     * Accepted channels are connected right away, while their tags are still being exchanged in the background.
+     */
+    private boolean accepted = false;
+    private volatile boolean handshakeComplete = false;
     private boolean connectable = false;
     private boolean inputClosed = false;
     private boolean outputClosed = false;
@@ -54,12 +196,42 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
     private int readyOps;
 
     public HadronioSocketChannel(final SelectorProvider provider, final UcxEndpoint endpoint) {
+        this(provider, endpoint, new ChannelOptions(Configuration.getInstance()));
+    }
+
+    HadronioSocketChannel(final SelectorProvider provider, final UcxEndpoint endpoint, final ChannelOptions options) {
+        this(provider, endpoint, null, null, options);
+    }
+
+    /**
+     * Create a channel, whose endpoint is created by the given provider while connecting.
+     * If a shared worker is given, the endpoint is created on it.
+     */
+    HadronioSocketChannel(final SelectorProvider provider, final UcxProvider ucxProvider, final UcxWorker sharedWorker) {
+        this(provider, ucxProvider, sharedWorker, new ChannelOptions(Configuration.getInstance()));
+    }
+
+    HadronioSocketChannel(final SelectorProvider provider, final UcxProvider ucxProvider, final UcxWorker sharedWorker, final ChannelOptions options) {
+        this(provider, null, ucxProvider, sharedWorker, options);
+    }
+
+    private HadronioSocketChannel(final SelectorProvider provider, final UcxEndpoint endpoint, final UcxProvider ucxProvider, final UcxWorker sharedWorker, final ChannelOptions options) {
         super(provider);
 
-        this.endpoint = endpoint;
-        configuration = Configuration.getInstance();
-        sendBuffer = new RingBuffer(configuration.getSendBufferLength());
-        receiveBuffer = new RingBuffer(configuration.getReceiveBufferLength());
+        this.ucxProvider = ucxProvider;
+        this.sharedWorker = sharedWorker;
+        this.options = options;
+        configuration = options.getConfiguration();
+        waitSignal = new WaitStrategy.Signal(configuration);
+        readWait = new WaitStrategy(configuration, waitSignal);
+        writeWait = new WaitStrategy(configuration, waitSignal);
+        sharedReceivePool = configuration.isSharedReceivePool() ? SharedReceivePool.getInstance(endpoint != null ? endpoint.getWorker() : sharedWorker, configuration) : null;
+        sendSliceLength = options.getSliceLength();
+        noDelay = options.isNoDelay();
+
+        if (endpoint != null) {
+            setEndpoint(endpoint);
+        }
     }
 
     @Override
@@ -81,7 +253,24 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             throw new ClosedChannelException();
         }
 
-        throw new UnsupportedOperationException("Trying to set unsupported option " + socketOption.name() + "!");
+        if (ChannelOptions.isBufferOption(socketOption) && (connected || connectionPending)) {
+            // Buffer lengths have already been agreed upon with the remote channel
+            LOGGER.warn("Option [{}] can only be set before connecting, ignoring value [{}]", socketOption.name(), t);
+            return this;
+        }
+
+        options.set(socketOption, t);
+        if (ChannelOptions.isBufferOption(socketOption) && endpoint != null) {
+            // Channels without an endpoint create their buffers while connecting
+            replaceBuffers();
+        }
+
+        noDelay = options.isNoDelay();
+        if (noDelay) {
+            flush();
+        }
+
+        return this;
     }
 
     @Override
@@ -90,12 +279,12 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             throw new ClosedChannelException();
         }
 
-        throw new UnsupportedOperationException("Trying to set unsupported option " + socketOption.name() + "!");
+        return options.get(socketOption);
     }
 
     @Override
     public Set<SocketOption<?>> supportedOptions() {
-        return Collections.emptySet();
+        return ChannelOptions.SUPPORTED_OPTIONS;
     }
 
     @Override
@@ -126,6 +315,7 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
 
         LOGGER.info("Closing connection for output");
 
+        flush();
         outputClosed = true;
         return this;
     }
@@ -165,7 +355,15 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
 
         connectionPending = true;
         LOGGER.info("Connecting to [{}]", remoteAddress);
-        endpoint.connect((InetSocketAddress) remoteAddress);
+        if (configuration.isMultiplexConnections() && endpoint == null) {
+            connectMultiplexed((InetSocketAddress) remoteAddress);
+        } else {
+            if (endpoint == null) {
+                setEndpoint(sharedWorker != null ? ucxProvider.createEndpoint(sharedWorker) : ucxProvider.createEndpoint());
+            }
+
+            endpoint.connect((InetSocketAddress) remoteAddress);
+        }
         establishConnection();
 
         if (isBlocking()) {
@@ -186,10 +384,11 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
         }
 
         if (isBlocking()) {
+            writeWait.reset();
             while (!connected && !connectionFailed) {
-                endpoint.getWorker().progress();
+                writeWait.progress(endpoint.getWorker());
                 if (endpoint.getErrorState()) {
-                    onConnection(false, 0, 0);
+                    onConnection(false, 0, 0, 0, 0, 0);
                 }
             }
         }
@@ -225,12 +424,9 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             return -1;
         }
 
-        synchronized (receiveBuffer) {
-            if (isBlocking()) {
-                return readBlocking(buffer);
-            } else {
-                return readNonBlocking(buffer);
-            }
+        synchronized (receiveLock) {
+            singleReadBufferArray[0] = buffer;
+            return (int) read(singleReadBufferArray, 0, 1, isBlocking());
         }
     }
 
@@ -240,17 +436,8 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             return -1;
         }
 
-        synchronized (receiveBuffer) {
-            int readTotal = 0;
-
-            for (int i = 0; i < length; i++) {
-                readTotal += read(buffers[offset + i]);
-                if (buffers[offset + i].remaining() > 0) {
-                    break;
-                }
-            }
-
-            return readTotal;
+        synchronized (receiveLock) {
+            return read(buffers, offset, length, isBlocking());
         }
     }
 
@@ -260,7 +447,7 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             return 0;
         }
 
-        synchronized (sendBuffer) {
+        synchronized (sendLock) {
             singleBufferArray[0] = buffer;
             return (int) write(singleBufferArray, 0, 1);
         }
@@ -272,7 +459,7 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             return 0;
         }
 
-        synchronized (sendBuffer) {
+        synchronized (sendLock) {
             if (isBlocking()) {
                 // Calculate full message length
                 int totalLength = 0;
@@ -282,13 +469,24 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
 
                 // Call write repeatedly, until all bytes are written
                 long totalWritten = 0;
+                writeWait.reset();
                 while (totalWritten < totalLength) {
                     long written = write(buffers, offset, length, true);
                     if (written == 0) {
-                        endpoint.getWorker().progress();
+                        writeWait.progress(endpoint.getWorker());
                         if (endpoint.getErrorState()) {
                             throw new IOException("UCX endpoint has moved to error state!");
                         }
+
+                        if (connectionFailed) {
+                            throw new IOException("Failed to connect socket channel!");
+                        }
+
+                        if (remoteClosed) {
+                            throw new IOException("Connection has been closed by the remote channel!");
+                        }
+                    } else {
+                        writeWait.reset();
                     }
 
                     totalWritten += written;
@@ -296,7 +494,11 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
 
                 return totalWritten;
             } else {
-                return write(buffers, offset, length, false);
+                final int written = write(buffers, offset, length, false);
+
+                // Writing may have opened a slice for coalescing, which needs to be sent after a delay
+                readinessNotifier.notifyKeys();
+                return written;
             }
         }
     }
@@ -313,22 +515,89 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
     @Override
     protected void implCloseSelectableChannel() throws IOException {
         LOGGER.info("Closing socket channel");
+        if (isConnected()) {
+            flush();
+        }
+
+        if (configuration.isMultiplexConnections() && handshakeComplete && !remoteClosed) {
+            // The connection may stay open for other channels, so the remote channel would not notice us closing otherwise
+            endpoint.sendTaggedMessage(creditBuffer.addressOffset(), 0, getCloseTag(remoteTag), false, false);
+        }
+
         channelClosed = true;
         inputClosed = true;
         outputClosed = true;
         connected = false;
+        signalWaiters();
+
+        if (endpoint == null) {
+            // The channel has never been connected, so there are neither an endpoint nor any buffers
+            return;
+        }
 
+        if (sharedReceivePool != null) {
+            sharedReceivePool.unregister(localTag);
+            releaseSharedSlices();
+        }
+
+        // Closing the endpoint cancels all receive requests posted for this channel, which may be on a shared worker
         endpoint.close();
+        if (endpointGroup != null) {
+            endpointGroup.leave();
+        }
+
+        // Messages for this channel can no longer arrive, so its id may be used by another channel
+        if (localTagReserved) {
+            TagUtil.releaseId(localTag);
+        }
+
+        // The endpoint has been closed, so that there are no more requests using the ring buffers
+        // Their memory is not unmapped here, since other threads may still be inside read() or write(), but it is released once they are garbage collected
+        synchronized (receiveLock) {
+            receiveBuffer.deregister();
+            if (retiredReceiveBuffer != null) {
+                retiredReceiveBuffer.deregister();
+            }
+
+            if (outOfBandMemory != null) {
+                outOfBandMemory.close();
+                outOfBandMemory = null;
+            }
+        }
+
+        synchronized (sendLock) {
+            sendBuffer.deregister();
+            if (sendCallback != null) {
+                sendCallback.deregisterSendBuffers();
+            }
+        }
     }
 
     @Override
     protected void implConfigureBlocking(final boolean blocking) {
         LOGGER.info("Socket channel is now configured to be [{}]", blocking ? "BLOCKING" : "NON-BLOCKING");
+
+        // Blocking channels do not coalesce writes, since they are never selected and could thus not send delayed data
+        if (blocking && isConnected()) {
+            flush();
+        }
     }
 
     @Override
     public void select() {
+        if (endpoint == null) {
+            // The channel has not started connecting yet
+            this.readyOps = 0;
+            return;
+        }
+
         // Handle error cases
+        if (accepted && connectionFailed) {
+            // The handshake of an accepted channel has failed. Just like on errors, every call to read() will return -1.
+            this.readyOps = SelectionKey.OP_READ;
+            return;
+        }
+
         if (endpoint.getErrorState()) {
             if (isConnected()) {
                 // An error has occurred and the connection is no longer usable. To notify the application about this,
@@ -337,7 +606,7 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             } else {
                 // An error has occurred while connecting to a remote channel. The channel becomes connectable,
                 // but finishConnect() will throw an IOException to notify the application about the failed connection attempt.
-                onConnection(false, 0 ,0);
+                onConnection(false, 0, 0, 0, 0, 0);
                 this.readyOps = SelectionKey.OP_CONNECT;
             }
 
@@ -346,8 +615,10 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
 
 
         // If the connection is still valid, make sure the receiveBuffer is filled with requests
-        if (isConnected()) {
+        if (isConnected() && handshakeComplete) {
             fillReceiveBuffer();
+            sendExpiredSlice();
+            releaseIdleBuffers();
         }
 
         // Calculate ready operation set
@@ -357,12 +628,13 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             // Connection needs to be finished via finishConnect()
             readyOps |= SelectionKey.OP_CONNECT;
         }
-        if (isConnected() && !outputClosed && !isFlushing.get() && sendBuffer.maxMessageLength() > MessageUtil.HEADER_LENGTH) {
-            // Channel is writable, since there is place in the sendBuffer
+        if (isConnected() && !outputClosed && !remoteClosed && sendCredits.get() >= getRequiredSendCredits() && (sendBuffer.maxMessageLength() > MessageUtil.HEADER_LENGTH || canGrowSendBuffer())) {
+            // Channel is writable, since there is place in the sendBuffer (or it can be replaced by a larger one)
             readyOps |= SelectionKey.OP_WRITE;
         }
-        if (isConnected() && !inputClosed && readableMessages.get() > 0) {
+        if (isConnected() && !inputClosed && ((readableMessages.get() > 0 && !isWaitingForOutOfBandData()) || remoteClosed)) {
             // Channel is readable, since there are unread messages in the receiveBuffer
+            // After the remote channel has been closed, it stays readable, so that the application notices read() returning -1
             readyOps |= SelectionKey.OP_READ;
         }
 
@@ -374,74 +646,624 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
         return readyOps;
     }
 
+    private boolean isWaitingForOutOfBandData() {
+        // The next message can only be read, once its out-of-band data has arrived, which is signalled by the receive callback
+        return outOfBandPosted && !outOfBandReceived;
+    }
+
     @Override
     public UcxWorker getWorker() {
-        return endpoint.getWorker();
+        // Channels without an endpoint have no worker yet, which is reported to selectors once they have connected
+        final UcxEndpoint currentEndpoint = endpoint;
+        return currentEndpoint == null ? null : currentEndpoint.getWorker();
     }
 
-    private void flush() {
-        final long tag = TagUtil.setMessageType(localTag, TagUtil.MessageType.FLUSH);
-        isFlushing.set(true);
-        flushBuffer.putLong(0, 0);
-        endpoint.receiveTaggedMessage(flushBuffer.addressOffset(), flushBuffer.capacity(), tag, TagUtil.TAG_MASK_FULL,true, false);
+    @Override
+    public ReadinessNotifier getReadinessNotifier() {
+        return readinessNotifier;
     }
 
-    public void onConnection(final boolean success, long localTag, long remoteTag) {
-        if (success) {
-            this.localTag = localTag;
-            this.remoteTag = remoteTag;
+    @Override
+    public long getSelectDeadline() {
+        // Grown ring buffers need to be shrunk once the channel has been idle for long enough
+        long deadline = shrinkDeadline;
+
+        // Packed data needs to be sent once the coalescing delay has passed
+        // Without enough credits, it can only be sent after credits have arrived, which changes the channel's state anyway
+        if (openSliceIndex >= 0 && sendCredits.get() >= getRequiredSendCredits()) {
+            final long sliceDeadline = noDelay ? openSliceTime : openSliceTime + configuration.getCoalescingDelay() * 1000L;
+            deadline = deadline == 0 ? sliceDeadline : Math.min(deadline, sliceDeadline);
+        }
 
-            endpoint.setSendCallback(() -> {
-                LOGGER.debug("hadroNIO SendCallback called");
-                final AtomicBoolean padding = new AtomicBoolean(true);
-                int readFromBuffer;
+        return deadline;
+    }
 
-                do {
-                    readFromBuffer = sendBuffer.read((msgTypeId, buffer, index, length) -> {
-                        LOGGER.debug("Message type id: [{}], Index: [{}], Length: [{}]", msgTypeId, index, length);
-                        padding.set(false);
-                    }, 1);
+    @Override
+    public boolean needsSelectOnProgress() {
+        // Arrived messages are only noticed by probing for them, since UCX does not invoke any callback for them
+        // They can only have arrived, if the worker has made progress, so there is no need to probe while the worker is idle
+        return sharedReceivePool == null && configuration.isProbeReceives() && isConnected() && handshakeComplete;
+    }
 
-                    if (padding.get()) {
-                        LOGGER.debug("Read [{}] padding bytes from send buffer", readFromBuffer);
-                        sendBuffer.commitRead(readFromBuffer);
-                    }
-                } while (padding.get());
+    /**
+     * Send all data, that has been packed by previous writes, but not yet been sent.
+     * This is only necessary, if coalescing is enabled (i.e. {@link StandardSocketOptions#TCP_NODELAY} is disabled).
+     *
+     * @return Whether all data has been handed to UCX. If the remote channel has no free receive buffer slices left,
+     *         this returns false and the data is sent later on.
+     */
+    public boolean flush() {
+        synchronized (sendLock) {
+            return sendOpenSlice();
+        }
+    }
 
-                sendBuffer.commitRead(readFromBuffer);
-            });
+    private boolean isCoalescing() {
+        return !noDelay && !isBlocking();
+    }
 
-            endpoint.setReceiveCallback(new ReceiveCallback(this, readableMessages, isFlushing, configuration.getFlushIntervalSize()));
+    private void sendExpiredSlice() {
+        if (openSliceIndex < 0) {
+            return;
+        }
 
-            LOGGER.info("SocketChannel connected successfully (localTag: [0x{}], remoteTag: [0x{}])", Long.toHexString(localTag), Long.toHexString(remoteTag));
+        // Packed data is sent after the configured delay, or as soon as coalescing has been disabled
+        synchronized (sendLock) {
+            if (openSliceIndex >= 0 && (noDelay || System.nanoTime() - openSliceTime >= configuration.getCoalescingDelay() * 1000L)) {
+                sendOpenSlice();
+            }
+        }
+    }
+
+    void receiveCredits() {
+        // Credit messages carry no data, since the credits are encoded in their tag
+        final long tag = TagUtil.setMessageType(localTag, TagUtil.MessageType.CREDIT);
+        endpoint.receiveTaggedMessage(creditBuffer.addressOffset(), creditBuffer.capacity(), tag, TagUtil.TAG_MASK_IGNORE_CREDITS, true, false);
+    }
+
+    private void sendCredits() {
+        int credits = takeCredits();
+
+        while (credits > 0) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Sending [{}] credits", credits);
+            }
+
+            // Credit messages are not tracked by the send callback, since they do not occupy space in the send buffer
+            final long tag = TagUtil.setCredits(TagUtil.setMessageType(remoteTag, TagUtil.MessageType.CREDIT), credits);
+            endpoint.sendTaggedMessage(creditBuffer.addressOffset(), 0, tag, false, false);
+
+            credits = takeCredits();
+        }
+    }
+
+    private int takeCredits() {
+        // Only a limited amount of credits fits into a single tag
+        final int credits = pendingCredits.getAndSet(0);
+        if (credits > TagUtil.MAX_CREDITS) {
+            pendingCredits.addAndGet(credits - TagUtil.MAX_CREDITS);
+            return TagUtil.MAX_CREDITS;
+        }
+
+        return credits;
+    }
+
+    public void onConnection(final boolean success, long remoteTag, int remoteSliceLength, int remoteCreditLength, int remoteCredits, int remoteReceiveBufferLength) {
+        if (channelClosed) {
+            // The channel has been closed while its handshake was still running
+            return;
+        }
+
+        // Connecting channels have already reserved their id and posted their receive requests,
+        // while accepting channels choose their id now and post their receive requests before replying
+        if (success && (!accepted || adoptSliceLength(remoteSliceLength))) {
+            this.remoteTag = remoteTag;
+
+            // Sent messages must fit into the remote channel's slices, while received messages always fit into our own
+            synchronized (sendLock) {
+                sendSliceLength = Math.min(options.getSliceLength(), remoteSliceLength);
+                sendCreditLength = remoteCreditLength;
+                sendOutOfBandLength = remoteReceiveBufferLength;
+            }
+
+            if (accepted) {
+                // Generated ids are unique inside this process, so the connecting channel can never address another channel by mistake
+                localTag = TagUtil.generateId();
+                localTagReserved = true;
+                final int credits = prepareReceives();
+                sendHandshakeReply(remoteTag, localTag, options.getSliceLength(), getReceiveCreditLength(), credits, options.getReceiveBufferLength());
+            }
+
+            // The remote channel has announced its initial credits in its handshake message
+            sendCredits.addAndGet(remoteCredits);
+
+            LOGGER.info("SocketChannel connected successfully (localTag: [0x{}], remoteTag: [0x{}], sliceLength: [{}], creditLength: [{}])", Long.toHexString(localTag), Long.toHexString(remoteTag), sendSliceLength, sendCreditLength);
 
             if (isBlocking()) {
                 connected = true;
             }
 
-            fillReceiveBuffer();
+            handshakeComplete = true;
         } else {
+            if (accepted && success) {
+                // The connecting channel waits for our reply, so it needs to be told that the connection has been rejected
+                sendHandshakeReply(remoteTag, 0, 0, 0, 0, 0);
+            }
+
             connectionFailed = true;
         }
 
-        if (!isBlocking()) {
+        // Accepted channels are already connected, so they only need to report their new readiness
+        if (!isBlocking() && !accepted) {
             connectable = true;
         }
+
+        signalWaiters();
+    }
+
+    /**
+     * Wake up threads waiting inside a blocking operation and hand the channel to its selectors,
+     * since the channel's state has changed.
+     */
+    void signalWaiters() {
+        final UcxEndpoint currentEndpoint = endpoint;
+        if (currentEndpoint != null) {
+            waitSignal.signal(currentEndpoint.getWorker());
+        }
+
+        readinessNotifier.notifyKeys();
+    }
+
+    /**
+     * Called, if the remote channel has been closed, while the connection stays open for other multiplexed channels.
+     * Just like on errors, every call to read() returns -1, once all received messages have been read.
+     */
+    void onRemoteClose() {
+        LOGGER.info("Remote channel has been closed (localTag: [0x{}])", Long.toHexString(localTag));
+        remoteClosed = true;
+        signalWaiters();
+    }
+
+    /**
+     * Credit messages without any credits are never sent otherwise, so they are used to signal, that a channel has been closed.
+     */
+    static long getCloseTag(final long remoteTag) {
+        return TagUtil.setCredits(TagUtil.setMessageType(remoteTag, TagUtil.MessageType.CREDIT), 0);
+    }
+
+    /**
+     * Connect a channel created for an accepted connection request. The channel is reported as connected right away,
+     * but it can only send and receive data once the handshake message from the connecting channel has arrived.
+     */
+    void acceptConnection() {
+        accepted = true;
+        connected = true;
+
+        final ConnectionCallback connectionCallback = new ConnectionCallback(this, handshakeBuffer, false);
+        endpoint.setReceiveCallback(connectionCallback);
+
+        LOGGER.info("Waiting for tags to establish connection");
+        endpoint.receiveStream(handshakeBuffer.addressOffset(), ConnectionCallback.MESSAGE_LENGTH, true, false);
+    }
+
+    /**
+     * Connect a channel created for a multiplexed connection request, whose handshake message has already been received.
+     */
+    void acceptMultiplexedConnection(final long remoteTag, final int remoteSliceLength, final int remoteCreditLength, final int remoteCredits, final int remoteReceiveBufferLength) {
+        accepted = true;
+        connected = true;
+        onConnection(true, remoteTag, remoteSliceLength, remoteCreditLength, remoteCredits, remoteReceiveBufferLength);
+    }
+
+    private void sendHandshakeReply(final long connectorId, final long acceptorId, final int sliceLength, final int creditLength, final int credits, final int receiveBufferLength) {
+        // The reply is addressed to the connecting channel's id, which is the only id it can receive messages for yet
+        ConnectionCallback.writeMessage(handshakeBuffer, connectorId, acceptorId, sliceLength, creditLength, credits, receiveBufferLength);
+        endpoint.sendTaggedMessage(handshakeBuffer.addressOffset(), ConnectionCallback.MESSAGE_LENGTH, ConnectionCallback.getReplyTag(connectorId), false, false);
+    }
+
+    private boolean adoptSliceLength(final int remoteSliceLength) {
+        // The connecting channel can not know our slice length, so we use its slice length instead
+        if (remoteSliceLength == options.getSliceLength()) {
+            return true;
+        }
+
+        if (sharedReceivePool != null && remoteSliceLength > options.getSliceLength()) {
+            // Slices of the shared receive pool can not be enlarged, so that larger messages could not be received
+            LOGGER.error("Remote slice length [{}] exceeds the slice length of the shared receive pool [{}]!", remoteSliceLength, options.getSliceLength());
+            return false;
+        }
+
+        options.adoptSliceLength(remoteSliceLength);
+        replaceBuffers();
+        return true;
     }
 
     private void fillReceiveBuffer() {
+        if (!handshakeComplete) {
+            // Receive requests can only be posted, once the local tag has been agreed upon
+            return;
+        }
+
+        final int received;
+        synchronized (receiveLock) {
+            if (sharedReceivePool != null) {
+                // Every slice released back to the shared receive pool accounts for one consumed message
+                received = releasedSlices;
+                releasedSlices = 0;
+            } else {
+                received = configuration.isProbeReceives() ? receiveProbedMessages() : postReceiveBufferSlices();
+            }
+        }
+
+        // Every posted slice or received message allows the remote channel to send one more message (or as many bytes, as have been received)
+        // Credits are piggybacked on outgoing messages, but if there are not enough of those, we send them separately
+        if (received > 0 && pendingCredits.addAndGet(received) >= creditMessageThreshold) {
+            sendCredits();
+        }
+    }
+
+    private int getReceiveWindow() {
+        // The remote channel may send as many messages, as full slices fit into the receive buffer, unless a smaller window is set
+        final int creditLength = getReceiveCreditLength();
+        if (creditLength > 0) {
+            // Without posted slices, the window covers the bytes of the receive buffer instead, while a message window limits the bytes of as many full slices
+            final int window = options.getReceiveBufferLength() / creditLength;
+            return options.getCreditWindow() > 0 ? Math.min(window, options.getCreditWindow() * getRequiredCredits(options.getSliceLength(), creditLength)) : window;
+        }
+
+        final int window = options.getReceiveBufferLength() / options.getSliceLength();
+        return options.getCreditWindow() > 0 ? Math.min(window, options.getCreditWindow()) : window;
+    }
+
+    private int getReceiveCreditLength() {
+        // Only probed messages are received into exactly as much space, as they need
+        return sharedReceivePool == null && configuration.isProbeReceives() ? PROBE_CREDIT_LENGTH : 0;
+    }
+
+    /**
+     * The amount of credits, which a message of the given length (including its header) costs,
+     * if each credit stands for the given amount of bytes (or for one message, if the credit length is 0).
+     */
+    static int getRequiredCredits(final int messageLength, final int creditLength) {
+        if (creditLength == 0) {
+            return 1;
+        }
+
+        final int recordLength = RingBuffer.getRecordLength(messageLength);
+        return (recordLength + creditLength - 1) / creditLength;
+    }
+
+    private int getRequiredSendCredits() {
+        // An open slice can only be sent as a whole, while new messages may be shortened to the available credits
+        final int length = openSliceIndex >= 0 ? openSliceLength + MessageUtil.HEADER_LENGTH : MessageUtil.HEADER_LENGTH + 1;
+        return getRequiredCredits(length, sendCreditLength);
+    }
+
+    private int getCreditedMessageLength() {
+        // The longest message (including its header), which the remote channel has granted enough credits for
+        if (sendCreditLength == 0) {
+            return sendCredits.get() > 0 ? Integer.MAX_VALUE : 0;
+        }
+
+        final long space = (long) sendCredits.get() * sendCreditLength;
+        return RingBuffer.getMaxMessageLength((int) Math.min(space, Integer.MAX_VALUE));
+    }
+
+    private void updateCreditMessageThreshold() {
+        // Credits are sent separately, once a fraction of the window has been freed up
+        // Pre-posted slices are limited by the current receive buffer, which may still grow, so the threshold must never exceed its slices
+        int window = getReceiveWindow();
+        if (sharedReceivePool == null && !configuration.isProbeReceives()) {
+            window = Math.min(window, receiveBuffer.capacity() / options.getSliceLength());
+        }
+
+        creditMessageThreshold = Math.max(1, window / CREDIT_MESSAGE_DIVISOR);
+    }
+
+    private int getInitialBufferLength(final int bufferLength) {
+        // If an initial buffer length is configured, both buffers start small and grow on demand up to their configured length
+        final int initialBufferLength = configuration.getInitialBufferLength();
+        if (initialBufferLength == 0) {
+            return bufferLength;
+        }
+
+        return Math.min(Math.max(initialBufferLength, 2 * (options.getSliceLength() - MessageUtil.HEADER_LENGTH)), bufferLength);
+    }
+
+    private RingBuffer createReceiveBuffer() {
+        // With a shared receive pool, the receive buffer only needs to hold references for all messages in flight
+        return sharedReceivePool != null ?
+                new RingBuffer(BitUtil.findNextPositivePowerOfTwo(2 * getReceiveWindow() * SHARED_RECORD_LENGTH)) :
+                createRingBuffer(getInitialBufferLength(options.getReceiveBufferLength()));
+    }
+
+    private void replaceBuffers() {
+        // Only called before connecting, so there are no requests using the old buffers
+        synchronized (sendLock) {
+            sendBuffer.free();
+            sendBuffer = createRingBuffer(getInitialBufferLength(options.getSendBufferLength()));
+            sendSliceLength = options.getSliceLength();
+        }
+
+        synchronized (receiveLock) {
+            receiveBuffer.free();
+            receiveBuffer = createReceiveBuffer();
+        }
+    }
+
+    void onSharedMessageReceived(final int slice, final long tag) {
+        // The remote channel never sends more messages than allowed by its credits, so there is always space for a reference
+        final int index = receiveBuffer.tryClaim(Integer.BYTES);
+        if (index < 0) {
+            LOGGER.error("Unable to store reference to slice [{}] of the shared receive pool (Error: [{}])!", slice, index);
+            sharedReceivePool.release(slice);
+            return;
+        }
+
+        receiveBuffer.buffer().putInt(index, slice);
+        receiveBuffer.commitWrite(index);
+        receiveCallback.onMessageReceived(tag);
+    }
+
+    private void releaseSharedSlices() {
+        // Hand all received, but unread messages back to the shared receive pool
+        synchronized (receiveLock) {
+            int index = receiveBuffer.peek();
+            while (index != RingBuffer.NO_MESSAGE) {
+                sharedReceivePool.release(receiveBuffer.buffer().getInt(index));
+                receiveBuffer.skip();
+                index = receiveBuffer.peek();
+            }
+
+            receiveBuffer.commitSkipped();
+        }
+    }
+
+    private int postReceiveBufferSlices() {
+        collectCancelledReceives();
+
         final long tag = TagUtil.setMessageType(localTag, TagUtil.MessageType.DEFAULT);
-        int index = receiveBuffer.tryClaim(configuration.getBufferSliceLength());
+        final int sliceLength = options.getSliceLength();
+        final int window = getReceiveWindow();
+        int index = claimReceiveSlice(sliceLength, window);
+        int posted = 0;
+
+        // If the application lags behind, filling at least half of all posted slices, we post more slices in a larger buffer
+        if (index < 0 && receiveRecords + retiredMessages < window && readableMessages.get() >= receiveRecords / 2 && growReceiveBuffer()) {
+            index = claimReceiveSlice(sliceLength, window);
+        }
 
         while (index >= 0) {
-            LOGGER.debug("Claimed part of the receive buffer (Index: [{}], Length: [{}])", index, configuration.getBufferSliceLength());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Claimed part of the receive buffer (Index: [{}], Length: [{}])", index, sliceLength);
+            }
 
             receiveBuffer.commitWrite(index);
-            final boolean completed = endpoint.receiveTaggedMessage(receiveBuffer.memoryAddress() + index, configuration.getBufferSliceLength(), tag, TagUtil.TAG_MASK_FULL, true, false);
-            LOGGER.debug("Receive request completed instantly: [{}]", completed);
+            final boolean completed = endpoint.receiveTaggedMessage(receiveBuffer.memoryAddress() + index, sliceLength, tag, TagUtil.TAG_MASK_IGNORE_CREDITS, true, false);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Receive request completed instantly: [{}]", completed);
+            }
 
-            index = receiveBuffer.tryClaim(configuration.getBufferSliceLength());
+            posted++;
+            receiveRecords++;
+            index = claimReceiveSlice(sliceLength, window);
         }
+
+        // Slices replacing cancelled ones are still covered by credits, which the remote channel has not used yet
+        final int reposted = Math.min(posted, cancelledSlices);
+        cancelledSlices -= reposted;
+        return posted - reposted;
+    }
+
+    void onReceiveCancelled() {
+        cancelledReceives.incrementAndGet();
+    }
+
+    private void collectCancelledReceives() {
+        final int cancelled = cancelledReceives.getAndSet(0);
+        if (cancelled == 0 || retiredReceiveBuffer == null) {
+            // Receive requests of a closed channel are cancelled as well, which is of no interest anymore
+            return;
+        }
+
+        // Only slices of the retired buffer are cancelled, which have not been filled, while all slices in front of them have been
+        cancelledSlices += cancelled;
+        retiredMessages -= cancelled;
+        if (retiredMessages <= 0) {
+            LOGGER.debug("Released retired receive buffer");
+            retiredReceiveBuffer.free();
+            retiredReceiveBuffer = null;
+            retiredMessages = 0;
+        }
+    }
+
+    private int claimReceiveSlice(final int sliceLength, final int window) {
+        // Never post more slices, than allowed by the credit window
+        if (receiveRecords + retiredMessages >= window) {
+            return INSUFFICIENT_CAPACITY;
+        }
+
+        return receiveBuffer.tryClaim(sliceLength);
+    }
+
+    private int receiveProbedMessages() {
+        final long tag = TagUtil.setMessageType(localTag, TagUtil.MessageType.DEFAULT);
+        int received = 0;
+
+        while (true) {
+            // A probed message is kept, until there is enough space in the receive buffer to receive it
+            if (probedMessage == null) {
+                probedMessage = endpoint.probeTaggedMessage(tag, TagUtil.TAG_MASK_IGNORE_CREDITS);
+                if (probedMessage == null) {
+                    return received;
+                }
+            }
+
+            final int length = (int) probedMessage.getLength();
+            int index = receiveBuffer.tryClaim(length);
+            if (index < 0 && growReceiveBuffer()) {
+                index = receiveBuffer.tryClaim(length);
+            }
+
+            if (index < 0) {
+                return received;
+            }
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Claimed part of the receive buffer for probed message (Index: [{}], Length: [{}])", index, length);
+            }
+
+            receiveBuffer.commitWrite(index);
+            final boolean completed = endpoint.receiveTaggedMessage(receiveBuffer.memoryAddress() + index, length, probedMessage, true, false);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Receive request completed instantly: [{}]", completed);
+            }
+
+            probedMessage = null;
+            received += getRequiredCredits(length, PROBE_CREDIT_LENGTH);
+            receiveRecords++;
+        }
+    }
+
+    private RingBuffer createRingBuffer(final int length) {
+        // Ring buffers are registered once, so that UCX does not need to register their memory for each request
+        final RingBuffer ringBuffer = new RingBuffer(length, configuration.getHugePageDirectory());
+        if (configuration.supports(UcxCapability.MEMORY_MAPPING)) {
+            ringBuffer.register(endpoint.getWorker());
+        }
+        return ringBuffer;
+    }
+
+    private boolean growReceiveBuffer() {
+        // Only one retired buffer is kept at a time
+        final int capacity = receiveBuffer.capacity();
+        if (capacity >= options.getReceiveBufferLength() || retiredReceiveBuffer != null) {
+            return false;
+        }
+
+        LOGGER.info("Growing receive buffer to [{}] byte", capacity * 2);
+
+        // All records in the current buffer either already contain a message or will be filled before any slice in the new buffer
+        if (receiveRecords > 0) {
+            retiredReceiveBuffer = receiveBuffer;
+            retiredMessages = receiveRecords;
+        } else {
+            receiveBuffer.free();
+        }
+
+        receiveBuffer = createRingBuffer(capacity * 2);
+        receiveRecords = 0;
+        updateCreditMessageThreshold();
+        return true;
+    }
+
+    private boolean canGrowSendBuffer() {
+        // Only one replaced buffer is kept at a time, until all of its messages have been sent
+        return sendBuffer.capacity() < options.getSendBufferLength() && !sendCallback.isReplacingSendBuffer();
+    }
+
+    private void growSendBuffer() {
+        // Messages are written into the new buffer, when the application calls write() again
+        if (!canGrowSendBuffer()) {
+            return;
+        }
+
+        final int capacity = sendBuffer.capacity();
+        LOGGER.info("Growing send buffer to [{}] byte", capacity * 2);
+
+        sendBuffer = createRingBuffer(capacity * 2);
+        sendCallback.replaceSendBuffer(sendBuffer);
+    }
+
+    private void releaseIdleBuffers() {
+        final int initialBufferLength = configuration.getInitialBufferLength();
+        if (initialBufferLength == 0) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long timeout = configuration.getBufferShrinkTimeout() * 1000000L;
+        long deadline = 0;
+
+        synchronized (sendLock) {
+            if (sendCounter != lastSendCounter) {
+                lastSendCounter = sendCounter;
+                lastSendActivity = now;
+            } else if (now - lastSendActivity >= timeout && isSendBufferShrinkable(initialBufferLength)) {
+                LOGGER.info("Shrinking idle send buffer to [{}] byte", initialBufferLength);
+                sendBuffer = createRingBuffer(initialBufferLength);
+                sendCallback.replaceSendBuffer(sendBuffer);
+            }
+
+            // Buffers, which are still in use, are shrunk after they have been selected because of a state change
+            if (isSendBufferShrinkable(initialBufferLength)) {
+                deadline = lastSendActivity + timeout;
+            }
+        }
+
+        // With a shared receive pool, the receive buffer only holds references to slices of the pool
+        if (sharedReceivePool != null) {
+            shrinkDeadline = deadline;
+            return;
+        }
+
+        synchronized (receiveLock) {
+            if (receiveCounter != lastReceiveCounter) {
+                lastReceiveCounter = receiveCounter;
+                lastReceiveActivity = now;
+            } else if (now - lastReceiveActivity >= timeout && isReceiveBufferShrinkable(initialBufferLength)) {
+                if (!configuration.isProbeReceives()) {
+                    shrinkPostedReceiveBuffer(initialBufferLength);
+                } else {
+                    LOGGER.info("Shrinking idle receive buffer to [{}] byte", initialBufferLength);
+                    receiveBuffer.free();
+                    receiveBuffer = createRingBuffer(initialBufferLength);
+                }
+            }
+
+            if (isReceiveBufferShrinkable(initialBufferLength)) {
+                final long receiveDeadline = lastReceiveActivity + timeout;
+                deadline = deadline == 0 ? receiveDeadline : Math.min(deadline, receiveDeadline);
+            }
+        }
+
+        shrinkDeadline = deadline;
+    }
+
+    private boolean isSendBufferShrinkable(final int initialBufferLength) {
+        return sendBuffer.capacity() > initialBufferLength && sendBuffer.size() == 0 && !sendCallback.isReplacingSendBuffer();
+    }
+
+    private boolean isReceiveBufferShrinkable(final int initialBufferLength) {
+        // Posted slices can be cancelled, but unread messages and probed messages must be read from the current buffer first
+        // Without cancelling, posted slices stay in use until a message arrives, so the buffer is never shrunk
+        if (receiveBuffer.capacity() <= initialBufferLength || retiredReceiveBuffer != null ||
+                (!configuration.isProbeReceives() && !configuration.supports(UcxCapability.REQUEST_CANCEL))) {
+            return false;
+        }
+
+        return configuration.isProbeReceives() ? receiveRecords == 0 && probedMessage == null : readableMessages.get() == 0;
+    }
+
+    private void shrinkPostedReceiveBuffer(final int length) {
+        LOGGER.info("Shrinking idle receive buffer to [{}] byte", length);
+        if (receiveRecords == 0) {
+            receiveBuffer.free();
+            receiveBuffer = createRingBuffer(length);
+            updateCreditMessageThreshold();
+            return;
+        }
+
+        // The posted slices are cancelled and the buffer is retired, until all slices, which have been filled before cancelling, are read
+        // UCX fills posted slices in order, so all slices in front of the first cancelled one contain a message
+        retiredReceiveBuffer = receiveBuffer;
+        retiredMessages = receiveRecords;
+        receiveBuffer = createRingBuffer(length);
+        receiveRecords = 0;
+        updateCreditMessageThreshold();
+
+        endpoint.cancelTaggedReceives(TagUtil.setMessageType(localTag, TagUtil.MessageType.DEFAULT), TagUtil.TAG_MASK_IGNORE_CREDITS);
+        collectCancelledReceives();
     }
 
     long getRemoteTag() {
@@ -460,213 +1282,623 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
         return endpoint;
     }
 
-    void establishConnection() {
-        final AtomicBuffer sendBuffer = MemoryUtil.allocateAligned(2 * Long.BYTES, Alignment.PAGE);
-        final AtomicBuffer receiveBuffer = MemoryUtil.allocateAligned(2 * Long.BYTES, Alignment.PAGE);
+    private void connectMultiplexed(final InetSocketAddress remoteAddress) throws IOException {
+        // The connection is shared by all channels to the same address, so this channel only needs to send its handshake message
+        // Each channel uses its own multiplexed endpoint on the connection's worker and never creates an endpoint or worker of its own
+        endpointGroup = EndpointGroup.join(remoteAddress, ucxProvider, sharedWorker);
+        try {
+            setEndpoint(endpointGroup.multiplex());
+        } catch (IOException e) {
+            endpointGroup.leave();
+            endpointGroup = null;
+            throw e;
+        }
+    }
 
-        final long localId = TagUtil.generateId();
-        final long checksum = TagUtil.calculateChecksum(localId);
-        sendBuffer.putLong(0, localId);
-        sendBuffer.putLong(Long.BYTES, checksum);
+    private void setEndpoint(final UcxEndpoint endpoint) {
+        this.endpoint = endpoint;
 
-        final ConnectionCallback connectionCallback = new ConnectionCallback(this, receiveBuffer, localId);
-        endpoint.setSendCallback(connectionCallback);
-        endpoint.setReceiveCallback(connectionCallback);
+        // Ring buffers are registered with the endpoint's worker, so they are only created once the endpoint is known
+        sendBuffer = createRingBuffer(getInitialBufferLength(options.getSendBufferLength()));
+        receiveBuffer = createReceiveBuffer();
 
-        LOGGER.info("Exchanging tags to establish connection");
-        endpoint.sendStream(sendBuffer.addressOffset(), 2 * Long.BYTES, true, true);
-        endpoint.receiveStream(receiveBuffer.addressOffset(), 2 * Long.BYTES, true, false);
+        // Errors are only noticed when the channel is selected, which happens only after a state change
+        endpoint.setErrorCallback(this::signalWaiters);
+
+        // Selectors, which the channel has been registered with before connecting, need to progress the new worker
+        readinessNotifier.updateWorkers();
     }
 
-    private int readBlocking(final ByteBuffer target) throws IOException {
-        while (readableMessages.get() <= 0) {
-            fillReceiveBuffer();
-            endpoint.getWorker().progress();
+    private void establishConnection() {
+        // Each channel chooses its own id, so that ids never collide inside a process
+        // The slice length of the connecting channel is used by both channels
+        localTag = TagUtil.generateId();
+        localTagReserved = true;
 
-            if (endpoint.getErrorState()) {
-                throw new IOException("UCX endpoint has moved to error state!");
-            }
-        }
+        // Callbacks are bound to requests when they are posted, so the reply is received with the connection callback
+        final ConnectionCallback connectionCallback = new ConnectionCallback(this, handshakeBuffer, true);
+        endpoint.setReceiveCallback(connectionCallback);
+        endpoint.receiveTaggedMessage(handshakeBuffer.addressOffset(), ConnectionCallback.MESSAGE_LENGTH, ConnectionCallback.getReplyTag(localTag), TagUtil.TAG_MASK_FULL, true, false);
+
+        // Our receive requests are posted before sending the handshake message, so that it can carry our initial credits
+        // The reply can only arrive after the accepting channel has received our message, so it may overwrite the same buffer
+        // Neither operation waits for completion, so that many handshakes can run concurrently
+        final int credits = prepareReceives();
+        ConnectionCallback.writeMessage(handshakeBuffer, localTag, 0, options.getSliceLength(), getReceiveCreditLength(), credits, options.getReceiveBufferLength());
 
-        return readFromReceiveBuffer(target);
+        LOGGER.info("Sending tags to establish connection");
+        endpoint.sendStream(handshakeBuffer.addressOffset(), ConnectionCallback.MESSAGE_LENGTH, false, false);
     }
 
-    private int readNonBlocking(final ByteBuffer target) {
-        if (readableMessages.get() <= 0) {
-            return 0;
+    /**
+     * Install the callbacks for data and credit messages and post the initial receive requests.
+     *
+     * @return The initial credits, which are announced to the remote channel in the handshake message
+     */
+    private int prepareReceives() {
+        sendCallback = new SendCallback(this, sendBuffer, zeroCopyInFlight);
+        endpoint.setSendCallback(sendCallback);
+        receiveCallback = new ReceiveCallback(this, readableMessages, sendCredits);
+        endpoint.setReceiveCallback(receiveCallback);
+
+        // The remote channel may only send as many messages, as we have posted receive buffer slices
+        receiveCredits();
+        updateCreditMessageThreshold();
+        if (sharedReceivePool != null) {
+            // Slices are posted by the shared receive pool, which hands received messages to this channel
+            // The remote channel may still only send as many messages, as full slices would fit into the receive buffer
+            sharedReceivePool.register(localTag, this);
+            return getReceiveWindow();
         }
 
-        return readFromReceiveBuffer(target);
-    }
+        if (configuration.isProbeReceives()) {
+            // Messages are only received after they have arrived, so no slices are posted in advance
+            // Instead, the remote channel may send as many bytes, as fit into the receive buffer
+            return getReceiveWindow();
+        }
 
-    private int readFromReceiveBuffer(final ByteBuffer target) {
-        final AtomicBoolean padding = new AtomicBoolean(true);
-        final AtomicBoolean messageCompleted = new AtomicBoolean(false);
-        final AtomicInteger readBytes = new AtomicInteger();
-        int readFromBuffer;
+        synchronized (receiveLock) {
+            return postReceiveBufferSlices();
+        }
+    }
 
-        LOGGER.debug("Trying to read [{}] bytes (Readable messages: [{}])", target.remaining(), readableMessages.get());
+    private long read(final ByteBuffer[] targets, final int offset, final int length, final boolean blocking) throws IOException {
+        if (blocking) {
+            readWait.reset();
+            while (readableMessages.get() <= 0) {
+                fillReceiveBuffer();
+                releaseIdleBuffers();
+                readWait.progress(endpoint.getWorker());
 
-        do {
-            readFromBuffer = receiveBuffer.read((msgTypeId, sourceBuffer, sourceIndex, sourceBufferLength) -> {
-                final int read = MessageUtil.readMessage(sourceBuffer, sourceIndex, target);
-                final int remaining = MessageUtil.getRemainingBytes(sourceBuffer, sourceIndex);
-                LOGGER.debug("Message type id: [{}], Index: [{}], Buffer Length: [{}], Read: [{}], Remaining: [{}]", msgTypeId, sourceIndex, sourceBufferLength, read, remaining);
+                if (endpoint.getErrorState()) {
+                    throw new IOException("UCX endpoint has moved to error state!");
+                }
 
-                padding.set(false);
-                readBytes.set(read);
-                messageCompleted.set(remaining == 0);
-            }, 1);
+                if (connectionFailed) {
+                    throw new IOException("Failed to connect socket channel!");
+                }
 
-            if (padding.get()) {
-                LOGGER.debug("Read [{}] padding bytes from receive buffer", readFromBuffer);
-                receiveBuffer.commitRead(readFromBuffer);
+                if (remoteClosed && readableMessages.get() <= 0) {
+                    return -1;
+                }
             }
-        } while (padding.get());
+        } else if (readableMessages.get() <= 0) {
+            return 0;
+        }
 
-        if (messageCompleted.get()) {
-            final int readable = readableMessages.decrementAndGet();
-            LOGGER.debug("Readable messages left: [{}]", readable);
-            receiveBuffer.commitRead(readFromBuffer);
+        final long read = readFromReceiveBuffer(targets, offset, length, blocking);
+        if (blocking) {
+            // Blocking channels are never selected, so consumed slices are posted again right away to return credits early
+            fillReceiveBuffer();
+        } else {
+            // Consumed slices are posted again, once the channel is selected
+            readinessNotifier.notifyKeys();
         }
 
-        return readBytes.get();
+        return read;
     }
 
-    private int writeBlocking(final ByteBuffer source) throws IOException {
-        int written = 0;
+    private long readFromReceiveBuffer(final ByteBuffer[] targets, final int offset, final int length, final boolean blocking) throws IOException {
+        // Only messages counted as readable have actually been received, even if the ring buffer contains more records
+        final int readable = readableMessages.get();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Trying to read into [{}] buffers (Readable messages: [{}])", length, readable);
+        }
 
-        do {
-            while (isFlushing.get()) {
-                endpoint.getWorker().progress();
+        // Messages left in a retired receive buffer have been received before all messages in the current one
+        // Cancelled slices of the retired buffer never contain a message, so they must be accounted for first
+        collectCancelledReceives();
+        RingBuffer ringBuffer = retiredReceiveBuffer != null ? retiredReceiveBuffer : receiveBuffer;
+        final int end = offset + length;
+        int targetIndex = offset;
+        int consumed = 0;
+        long readTotal = 0;
+
+        // Keep reading until either all received messages are consumed or all target buffers are full
+        while (consumed < readable && targetIndex < end) {
+            final ByteBuffer target = targets[targetIndex];
+            if (!target.hasRemaining()) {
+                targetIndex++;
+                continue;
             }
 
-            final int length = Math.min(Math.min(source.remaining() + MessageUtil.HEADER_LENGTH, sendBuffer.maxMessageLength()), configuration.getBufferSliceLength());
-            if (length <= MessageUtil.HEADER_LENGTH) {
-                LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", INSUFFICIENT_CAPACITY);
-                endpoint.getWorker().progress();
+            // Find the next message, skipping any padding in front of it
+            final int index = ringBuffer.peek();
+            if (index == RingBuffer.NO_MESSAGE) {
+                break;
+            }
 
-                if (endpoint.getErrorState()) {
-                    throw new IOException("UCX endpoint has moved to error state!");
-                }
+            // With a shared receive pool, the record only references the slice, which holds the actual message
+            final int slice = sharedReceivePool != null ? ringBuffer.buffer().getInt(index) : -1;
+            final AtomicBuffer sourceBuffer = sharedReceivePool != null ? sharedReceivePool.buffer() : ringBuffer.buffer();
+            final int sourceIndex = sharedReceivePool != null ? sharedReceivePool.getSliceIndex(slice) : index;
 
-                continue;
+            final int read = MessageUtil.isOutOfBand(sourceBuffer, sourceIndex) ?
+                    readOutOfBandMessage(sourceBuffer, sourceIndex, target, blocking) : MessageUtil.readMessage(sourceBuffer, sourceIndex, target);
+            if (read < 0) {
+                // The out-of-band data has not arrived yet, so neither this nor any following message can be read
+                break;
             }
 
-            final int index = sendBuffer.tryClaim(length);
+            final int remaining = MessageUtil.getRemainingBytes(sourceBuffer, sourceIndex);
+            readTotal += read;
 
-            if (index < 0) {
-                LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", index);
-                endpoint.getWorker().progress();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Index: [{}], Read: [{}], Remaining: [{}]", sourceIndex, read, remaining);
+            }
 
-                if (endpoint.getErrorState()) {
-                    throw new IOException("UCX endpoint has moved to error state!");
+            if (endpoint.getErrorState()) {
+                break;
+            }
+
+            if (remaining == 0) {
+                // Move past the message, but release it later together with all other messages consumed by this call
+                ringBuffer.skip();
+                consumed++;
+
+                if (sharedReceivePool != null) {
+                    sharedReceivePool.release(slice);
+                    releasedSlices++;
                 }
 
-                continue;
+                if (ringBuffer != retiredReceiveBuffer) {
+                    receiveRecords--;
+                } else if (--retiredMessages == 0) {
+                    // The retired buffer is no longer needed, so it does not need to be committed
+                    LOGGER.debug("Released retired receive buffer");
+                    retiredReceiveBuffer.free();
+                    retiredReceiveBuffer = null;
+                    ringBuffer = receiveBuffer;
+                }
             }
+        }
 
-            MessageUtil.writeMessage(sendBuffer.buffer(), index, source, length - MessageUtil.HEADER_LENGTH);
-            source.position(source.position() + length - MessageUtil.HEADER_LENGTH);
-            sendBuffer.commitWrite(index);
+        if (consumed > 0) {
+            ringBuffer.commitSkipped();
+            receiveCounter += consumed;
 
-            final long tag = TagUtil.setMessageType(remoteTag, TagUtil.MessageType.DEFAULT);
-            final boolean blocking = isBlocking() && !source.hasRemaining();
-            endpoint.sendTaggedMessage(sendBuffer.memoryAddress() + index, length, tag, true, blocking);
+            final int readableLeft = readableMessages.addAndGet(-consumed);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Consumed [{}] messages (Readable messages left: [{}])", consumed, readableLeft);
+            }
+        }
 
+        if (endpoint.getErrorState()) {
+            throw new IOException("UCX endpoint has moved to error state!");
+        }
+
+        return readTotal;
+    }
+
+    private int readOutOfBandMessage(final MutableDirectBuffer sourceBuffer, final int sourceIndex, final ByteBuffer target, final boolean blocking) throws IOException {
+        final int dataLength = MessageUtil.getDataLength(sourceBuffer, sourceIndex);
+        final long tag = TagUtil.setMessageType(localTag, TagUtil.MessageType.DIRECT);
+
+        if (!outOfBandPosted && blocking && target.isDirect() && target.remaining() >= dataLength) {
+            // Nothing is buffered in front of this message and the target buffer is large enough to hold all of its data
+            // Thus, we can receive the data directly into the target buffer, without copying it afterwards
+            // This is only done by blocking reads, since the target buffer must not be handed to UCX beyond this call
+            // Only messages, which the remote channel has sent out-of-band (see ZERO_COPY_THRESHOLD), can be received this way
+            endpoint.receiveTaggedMessage(BufferUtil.address(target) + target.position(), dataLength, tag, TagUtil.TAG_MASK_FULL, false, true);
             if (endpoint.getErrorState()) {
-                throw new IOException("UCX endpoint has moved to error state!");
+                return 0;
             }
 
-            if (++sendCounter % configuration.getFlushIntervalSize() == 0) {
-                flush();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Received out-of-band message directly into target buffer (Length: [{}])", dataLength);
             }
 
-            written += length - MessageUtil.HEADER_LENGTH;
-        } while (source.hasRemaining());
+            target.position(target.position() + dataLength);
+            MessageUtil.setReadBytes(sourceBuffer, sourceIndex, dataLength);
+
+            return dataLength;
+        }
 
-        return written;
+        if (!outOfBandPosted) {
+            // The sender has not copied the data into its send buffer, but sent it directly as a separate message
+            // The data is received into the landing buffer in the background and the receive callback notifies us, once it has arrived
+            ensureOutOfBandCapacity(dataLength);
+            outOfBandPosted = true;
+            outOfBandReceived = false;
+
+            final boolean completed = endpoint.receiveTaggedMessage(outOfBandBuffer.addressOffset(), dataLength, tag, TagUtil.TAG_MASK_FULL, true, false);
+            if (completed) {
+                outOfBandReceived = true;
+            }
+        }
+
+        if (!outOfBandReceived) {
+            if (!blocking) {
+                return -1;
+            }
+
+            readWait.reset();
+            while (!outOfBandReceived) {
+                readWait.progress(endpoint.getWorker());
+                if (endpoint.getErrorState()) {
+                    return 0;
+                }
+            }
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading out-of-band message (Length: [{}])", dataLength);
+        }
+
+        final int offset = MessageUtil.getReadBytes(sourceBuffer, sourceIndex);
+        final int length = Math.min(target.remaining(), dataLength - offset);
+
+        outOfBandBuffer.getBytes(offset, target, length);
+        MessageUtil.setReadBytes(sourceBuffer, sourceIndex, offset + length);
+
+        if (offset + length == dataLength) {
+            outOfBandPosted = false;
+            outOfBandReceived = false;
+        }
+
+        return length;
     }
 
-    private int write(final ByteBuffer[] sources, final int offset, final int length, final boolean blocking) {
-        // Do not send anything, while flushing; Too many dangling messages cause high memory usage by UCX
-        if (isFlushing.get()) {
+    void onOutOfBandReceived() {
+        outOfBandReceived = true;
+    }
+
+    private void ensureOutOfBandCapacity(final int length) {
+        if (outOfBandBuffer != null && outOfBandBuffer.capacity() >= length) {
+            return;
+        }
+
+        // No receive request uses the old buffer anymore, since only one out-of-band message is received at a time
+        if (outOfBandMemory != null) {
+            outOfBandMemory.close();
+            outOfBandMemory = null;
+        }
+
+        // The landing buffer is registered once, so that UCX does not need to register its memory for each message
+        outOfBandBuffer = MemoryUtil.allocateAligned(BitUtil.findNextPositivePowerOfTwo(length), Alignment.PAGE);
+        if (!configuration.supports(UcxCapability.MEMORY_MAPPING)) {
+            return;
+        }
+
+        try {
+            outOfBandMemory = endpoint.getWorker().mapMemory(outOfBandBuffer.addressOffset(), outOfBandBuffer.capacity());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to register out-of-band buffer with a capacity of [{}] byte", outOfBandBuffer.capacity(), e);
+        }
+    }
+
+    private int write(final ByteBuffer[] sources, final int offset, final int length, final boolean blocking) throws IOException {
+        // Do not send anything without credits, since the remote channel has no free receive buffer slices left
+        // Otherwise, dangling messages would cause high memory usage by UCX
+        if (sendCredits.get() <= 0) {
             return 0;
         }
 
         // Calculate full message length
         int sourcesLength = 0;
+        int firstSourceIndex = -1;
         for (int i = 0; i < length; i++) {
             sourcesLength += sources[offset + i].remaining();
+            if (firstSourceIndex < 0 && sources[offset + i].hasRemaining()) {
+                firstSourceIndex = offset + i;
+            }
         }
 
         if (sourcesLength == 0) {
             return 0;
         }
 
+        // Small writes are packed into a single message, if coalescing is enabled
+        if (isCoalescing() && sourcesLength < sendSliceLength - MessageUtil.HEADER_LENGTH) {
+            return writeCoalesced(sources, firstSourceIndex, offset + length, sourcesLength);
+        }
+
+        // Data packed by previous writes must be sent first, to keep all messages in order
+        if (!sendOpenSlice()) {
+            return 0;
+        }
+
+        // Large direct buffers are sent directly from the application's memory, without copying them into the send buffer
+        // Consecutive direct buffers are gathered into a single message
+        // Written buffers may be reused as soon as write() returns, so only blocking writes, which wait for the send to complete, can do this
+        final int zeroCopyThreshold = configuration.getZeroCopyThreshold();
+        if (zeroCopyThreshold > 0 && blocking) {
+            final int directEnd = getDirectSourcesEnd(sources, firstSourceIndex, offset + length);
+            final int directLength = getSourcesLength(sources, firstSourceIndex, directEnd);
+            if (directLength >= zeroCopyThreshold) {
+                return writeZeroCopy(sources, firstSourceIndex, directEnd, directLength);
+            }
+        }
+
+        // If the remote channel counts credits in bytes, the message must not be longer than its credits allow
+        final int creditedLength = getCreditedMessageLength();
+        if (creditedLength <= MessageUtil.HEADER_LENGTH) {
+            return 0;
+        }
+
         // Claim space in send buffer
         // If the message is larger than a single buffer slice, we only claim a buffer slice and do not send the full message
-        final int messageLength = Math.min(Math.min(sourcesLength + MessageUtil.HEADER_LENGTH, sendBuffer.maxMessageLength()), configuration.getBufferSliceLength());
+        final int messageLength = Math.min(Math.min(Math.min(sourcesLength + MessageUtil.HEADER_LENGTH, sendBuffer.maxMessageLength()), sendSliceLength), creditedLength);
         if (messageLength <= MessageUtil.HEADER_LENGTH) {
             LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", INSUFFICIENT_CAPACITY);
+            growSendBuffer();
             return 0;
         }
 
         final int index = sendBuffer.tryClaim(messageLength);
 
         if (index < 0) {
-            LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", index);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", index);
+            }
+            growSendBuffer();
             return 0;
         }
 
-        // Write message header
+        // Write message header and copy message data from source buffers into send buffer
         MessageUtil.setMessageLength(sendBuffer.buffer(), index, messageLength - MessageUtil.HEADER_LENGTH);
         MessageUtil.setReadBytes(sendBuffer.buffer(), index, 0);
+        copySources(sources, firstSourceIndex, offset + length, index + MessageUtil.MESSAGE_OFFSET_DATA, messageLength - MessageUtil.HEADER_LENGTH);
+        sendBuffer.commitWrite(index);
 
-        // Copy message data from source buffers into send buffer
-        int remaining = messageLength - MessageUtil.HEADER_LENGTH;
-        int targetIndex = index + MessageUtil.MESSAGE_OFFSET_DATA;
-        int lastBufferIndex = 0;
-        int lastBufferPosition = 0;
+        sendMessage(index, messageLength, blocking);
+        return messageLength - MessageUtil.HEADER_LENGTH;
+    }
 
-        for (int i = 0; remaining > 0; i++) {
-            final ByteBuffer sourceBuffer = sources[offset + i];
-            final int currentLength = Math.min(sourceBuffer.remaining(), remaining);
-            if (sourceBuffer.remaining() == 0) {
+    private int writeCoalesced(final ByteBuffer[] sources, final int start, final int end, final int sourcesLength) {
+        // Send the open slice first, if it cannot hold the data
+        if (openSliceIndex >= 0 && openSliceLength + sourcesLength > openSliceCapacity && !sendOpenSlice()) {
+            return 0;
+        }
+
+        if (openSliceIndex < 0) {
+            final int messageLength = Math.min(sendBuffer.maxMessageLength(), sendSliceLength);
+            if (messageLength < sourcesLength + MessageUtil.HEADER_LENGTH) {
+                LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", INSUFFICIENT_CAPACITY);
+                growSendBuffer();
+                return 0;
+            }
+
+            final int index = sendBuffer.tryClaim(messageLength);
+            if (index < 0) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", index);
+                }
+                growSendBuffer();
+                return 0;
+            }
+
+            // The slice is not committed until it is sent, so that the data can be appended by subsequent writes
+            openSliceIndex = index;
+            openSliceLength = 0;
+            openSliceCapacity = messageLength - MessageUtil.HEADER_LENGTH;
+            openSliceTime = System.nanoTime();
+        }
+
+        copySources(sources, start, end, openSliceIndex + MessageUtil.MESSAGE_OFFSET_DATA + openSliceLength, sourcesLength);
+        openSliceLength += sourcesLength;
+
+        if (openSliceLength == openSliceCapacity) {
+            sendOpenSlice();
+        }
+
+        return sourcesLength;
+    }
+
+    private boolean sendOpenSlice() {
+        if (openSliceIndex < 0) {
+            return true;
+        }
+
+        if (sendCredits.get() < getRequiredCredits(openSliceLength + MessageUtil.HEADER_LENGTH, sendCreditLength)) {
+            return false;
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Sending coalesced message (Index: [{}], Length: [{}])", openSliceIndex, openSliceLength);
+        }
+
+        final int index = openSliceIndex;
+        MessageUtil.setMessageLength(sendBuffer.buffer(), index, openSliceLength);
+        MessageUtil.setReadBytes(sendBuffer.buffer(), index, 0);
+        sendBuffer.commitWrite(index);
+        openSliceIndex = -1;
+
+        // Only the used part of the slice is sent, while the whole slice is released on completion
+        sendMessage(index, openSliceLength + MessageUtil.HEADER_LENGTH, false);
+        return true;
+    }
+
+    private void sendMessage(final int index, final int messageLength, final boolean blocking) {
+        // Send message via endpoint, piggybacking all credits for the remote channel
+        sendCredits.addAndGet(-getRequiredCredits(messageLength, sendCreditLength));
+        sendCounter++;
+        final long tag = TagUtil.setCredits(TagUtil.setMessageType(remoteTag, TagUtil.MessageType.DEFAULT), takeCredits());
+        final boolean completed = endpoint.sendTaggedMessage(sendBuffer.memoryAddress() + index, messageLength, tag, true, blocking);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Send request completed instantly: [{}]", completed);
+        }
+    }
+
+    private void copySources(final ByteBuffer[] sources, final int start, final int end, final int targetIndex, final int length) {
+        int remaining = length;
+        int currentIndex = targetIndex;
+        int lastBufferIndex = start;
+        int lastBufferPosition = sources[start].position();
+
+        for (int i = start; i < end && remaining > 0; i++) {
+            final ByteBuffer sourceBuffer = sources[i];
+            if (!sourceBuffer.hasRemaining()) {
                 continue;
             }
 
-            LOGGER.debug("Copying source buffer into send buffer (Buffer: [{}/{}], Position: [{}/{}], Length: [{}], Remaining: [{}])",
-                offset + i + 1, length, sourceBuffer.position(), sourceBuffer.limit(), currentLength, remaining);
-            sendBuffer.buffer().putBytes(targetIndex, sourceBuffer, sourceBuffer.position(), currentLength);
+            final int currentLength = Math.min(sourceBuffer.remaining(), remaining);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Copying source buffer into send buffer (Buffer: [{}/{}], Position: [{}/{}], Length: [{}], Remaining: [{}])",
+                    i + 1, end, sourceBuffer.position(), sourceBuffer.limit(), currentLength, remaining);
+            }
+
+            sendBuffer.buffer().putBytes(currentIndex, sourceBuffer, sourceBuffer.position(), currentLength);
 
             lastBufferIndex = i;
             lastBufferPosition = sourceBuffer.position() + currentLength;
-            targetIndex += currentLength;
+            currentIndex += currentLength;
             remaining -= currentLength;
         }
 
-        sendBuffer.commitWrite(index);
-
         // Update source buffer positions afterwards
         // We cannot do it inside the copy loop, because it is possible, that the array contains the same buffer multiple times
-        for (int i = 0; i < lastBufferIndex; i++) {
-            final ByteBuffer buffer = sources[offset + i];
+        for (int i = start; i < lastBufferIndex; i++) {
+            final ByteBuffer buffer = sources[i];
             buffer.position(buffer.limit());
         }
         sources[lastBufferIndex].position(lastBufferPosition);
+    }
 
-        // Send message via endpoint
-        final long tag = TagUtil.setMessageType(remoteTag, TagUtil.MessageType.DEFAULT);
-        final boolean completed = endpoint.sendTaggedMessage(sendBuffer.memoryAddress() + index, messageLength, tag, true, blocking);
-        LOGGER.debug("Send request completed instantly: [{}]", completed);
+    private int writeZeroCopy(final ByteBuffer[] sources, final int start, final int end, final int sourcesLength) throws IOException {
+        // The receiver needs to buffer out-of-band data, if it does not read it directly into a large enough buffer
+        // Thus, a single message may not be larger than the remote channel's receive buffer, as announced in its handshake message
+        // Without vectored messages, only the first buffer is sent, while the following ones are sent by the next write
+        final int sendLength = configuration.supports(UcxCapability.VECTORED_SEND) ? sourcesLength : sources[start].remaining();
+        final int dataLength = Math.min(sendLength, sendOutOfBandLength);
 
-        // Flush, if necessary
-        if (++sendCounter % configuration.getFlushIntervalSize() == 0) {
-            flush();
+        // Claim space for the message header, which is sent in-order with all other messages
+        final int index = sendBuffer.tryClaim(MessageUtil.HEADER_LENGTH, ZERO_COPY_MESSAGE_ID);
+        if (index < 0) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Unable to claim space in the send buffer (Error: [{}])", index);
+            }
+            growSendBuffer();
+            return 0;
         }
 
-        return messageLength - MessageUtil.HEADER_LENGTH;
+        MessageUtil.writeOutOfBandHeader(sendBuffer.buffer(), index, dataLength);
+        sendBuffer.commitWrite(index);
+        zeroCopyInFlight.set(true);
+
+        // Send header and data as two separate messages, which are both tracked by the send callback
+        // Only the header occupies a slice of the remote receive buffer and thus needs a credit
+        final long dataTag = TagUtil.setMessageType(remoteTag, TagUtil.MessageType.DIRECT);
+        sendMessage(index, MessageUtil.HEADER_LENGTH, false);
+
+        final boolean completed;
+        if (sources[start].remaining() >= dataLength) {
+            completed = endpoint.sendTaggedMessage(BufferUtil.address(sources[start]) + sources[start].position(), dataLength, dataTag, true, false);
+        } else {
+            // The data is spread across multiple buffers, which are sent as a single vectored message
+            final int count = getSourcesCount(sources, start, end, dataLength);
+            final long[] addresses = getZeroCopyAddresses(count);
+            final long[] sizes = zeroCopySizes[count];
+            int remaining = dataLength;
+
+            for (int i = start, j = 0; j < count; i++) {
+                final ByteBuffer source = sources[i];
+                if (!source.hasRemaining()) {
+                    continue;
+                }
+
+                addresses[j] = BufferUtil.address(source) + source.position();
+                sizes[j] = Math.min(source.remaining(), remaining);
+                remaining -= sizes[j++];
+            }
+
+            completed = endpoint.sendTaggedMessage(addresses, sizes, dataTag, true, false);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Zero-copy send request completed instantly: [{}] (Length: [{}])", completed, dataLength);
+        }
+
+        // The source buffers may not be altered, until the data has been sent, so we wait for this to happen
+        writeWait.reset();
+        while (zeroCopyInFlight.get()) {
+            writeWait.progress(endpoint.getWorker());
+            if (endpoint.getErrorState()) {
+                throw new IOException("UCX endpoint has moved to error state!");
+            }
+
+            if (remoteClosed) {
+                throw new IOException("Connection has been closed by the remote channel!");
+            }
+        }
+
+        // Only now, the data has actually been consumed
+        int remaining = dataLength;
+        for (int i = start; i < end && remaining > 0; i++) {
+            final ByteBuffer source = sources[i];
+            final int length = Math.min(source.remaining(), remaining);
+
+            source.position(source.position() + length);
+            remaining -= length;
+        }
+
+        return dataLength;
+    }
+
+    private long[] getZeroCopyAddresses(final int count) {
+        if (count >= zeroCopyAddresses.length) {
+            zeroCopyAddresses = Arrays.copyOf(zeroCopyAddresses, count + 1);
+            zeroCopySizes = Arrays.copyOf(zeroCopySizes, count + 1);
+        }
+
+        if (zeroCopyAddresses[count] == null) {
+            zeroCopyAddresses[count] = new long[count];
+            zeroCopySizes[count] = new long[count];
+        }
+
+        return zeroCopyAddresses[count];
+    }
+
+    private static int getDirectSourcesEnd(final ByteBuffer[] sources, final int start, final int end) {
+        int i = start;
+        while (i < end && sources[i].isDirect()) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int getSourcesLength(final ByteBuffer[] sources, final int start, final int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            length += sources[i].remaining();
+        }
+
+        return length;
+    }
+
+    private static int getSourcesCount(final ByteBuffer[] sources, final int start, final int end, final int length) {
+        int count = 0;
+        int remaining = length;
+
+        for (int i = start; i < end && remaining > 0; i++) {
+            if (sources[i].hasRemaining()) {
+                remaining -= sources[i].remaining();
+                count++;
+            }
+        }
+
+        return count;
     }
 
     private boolean isNotReadable() throws ClosedChannelException {
@@ -678,14 +1910,14 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             throw new NotYetConnectedException();
         }
 
-        if (endpoint.getErrorState() && readableMessages.get() == 0) {
+        if ((endpoint.getErrorState() || remoteClosed || (accepted && connectionFailed)) && readableMessages.get() == 0) {
             return true;
         }
 
         return inputClosed;
     }
 
-    private boolean isNotWriteable() throws ClosedChannelException {
+    private boolean isNotWriteable() throws IOException {
         if (channelClosed) {
             throw new ClosedChannelException();
         }
@@ -694,6 +1926,10 @@ public class HadronioSocketChannel extends SocketChannel implements HadronioSele
             throw new NotYetConnectedException();
         }
 
+        if (remoteClosed) {
+            throw new IOException("Connection has been closed by the remote channel!");
+        }
+
         return outputClosed;
     }
 }
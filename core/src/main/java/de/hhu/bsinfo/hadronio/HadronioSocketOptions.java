@@ -0,0 +1,82 @@
+package de.hhu.bsinfo.hadronio;
+
+import java.net.SocketOption;
+
+/**
+ * hadroNIO-specific socket options, which may be set per channel in addition to
+ * {@link java.net.StandardSocketOptions#SO_SNDBUF}, {@link java.net.StandardSocketOptions#SO_RCVBUF}
+ * and {@link java.net.StandardSocketOptions#TCP_NODELAY}.
+ * Options set on a server socket channel are inherited by all channels accepted from it.
+ */
+public final class HadronioSocketOptions {
+
+    /**
+     * Predefined sets of buffer lengths and coalescing behaviour.
+     */
+    public enum Profile {
+        /**
+         * Use the values from the global configuration (i.e. system properties).
+         */
+        DEFAULT,
+        /**
+         * Small buffers and immediate sending, suited for connections exchanging few small messages (e.g. control traffic).
+         */
+        LATENCY,
+        /**
+         * Large buffers and slices with coalescing of small writes, suited for transferring large amounts of data.
+         */
+        BULK
+    }
+
+    /**
+     * The maximum amount of data in byte, that is sent within a single message.
+     * The remote channel's slice length is used instead, if it is smaller.
+     */
+    public static final SocketOption<Integer> BUFFER_SLICE_LENGTH = new HadronioSocketOption<>("BUFFER_SLICE_LENGTH", Integer.class);
+
+    /**
+     * The maximum number of messages, that the remote channel may send without waiting for credits (0 means no limit
+     * apart from the receive buffer's length).
+     */
+    public static final SocketOption<Integer> CREDIT_WINDOW = new HadronioSocketOption<>("CREDIT_WINDOW", Integer.class);
+
+    /**
+     * Set all buffer related options, as well as {@link java.net.StandardSocketOptions#TCP_NODELAY}, at once.
+     */
+    public static final SocketOption<Profile> PROFILE = new HadronioSocketOption<>("PROFILE", Profile.class);
+
+    /**
+     * Allow multiple server socket channels to bind to the same address (similar to SO_REUSEPORT), which share a single
+     * UCX listener. Incoming connections are distributed round-robin across all these channels.
+     * Only supported by server socket channels and must be set before binding. Not inherited by accepted channels.
+     */
+    public static final SocketOption<Boolean> REUSE_PORT = new HadronioSocketOption<>("REUSE_PORT", Boolean.class);
+
+    private HadronioSocketOptions() {}
+
+    private static final class HadronioSocketOption<T> implements SocketOption<T> {
+
+        private final String name;
+        private final Class<T> type;
+
+        private HadronioSocketOption(final String name, final Class<T> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Class<T> type() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil.Alignment;
+import org.agrona.concurrent.AtomicBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Receives handshake messages of further channels, which the remote process multiplexes over an accepted connection.
+ * The first handshake message belongs to the channel accepted together with the connection, so the listener must be
+ * started after that channel has posted its own receive request. Each further handshake message is handed to the
+ * server socket channel as a {@link MultiplexedConnectionRequest}.
+ */
+class HandshakeListener implements UcxReceiveCallback {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandshakeListener.class);
+
+    private final HadronioServerSocketChannel serverSocket;
+    private final UcxEndpoint endpoint;
+    private final AtomicBuffer buffer = MemoryUtil.allocateAligned(ConnectionCallback.MESSAGE_LENGTH, Alignment.CACHE);
+
+    private HandshakeListener(final HadronioServerSocketChannel serverSocket, final UcxEndpoint endpoint) {
+        this.serverSocket = serverSocket;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Start listening on a multiplexed endpoint of the given connection, which is closed together with the connection.
+     */
+    static void listen(final HadronioServerSocketChannel serverSocket, final UcxEndpoint connection) throws IOException {
+        final UcxEndpoint endpoint = connection.multiplex();
+        final HandshakeListener listener = new HandshakeListener(serverSocket, endpoint);
+        endpoint.setReceiveCallback(listener);
+        endpoint.setErrorCallback(listener::close);
+        listener.receiveHandshake();
+    }
+
+    @Override
+    public void onMessageReceived(final long tag) {
+        if (!ConnectionCallback.checkMessage(buffer)) {
+            // Handshake messages are not framed in any other way, so all following ones are unusable as well
+            close();
+            return;
+        }
+
+        final MultiplexedConnectionRequest connectionRequest = new MultiplexedConnectionRequest(endpoint,
+                buffer.getLong(ConnectionCallback.OFFSET_CONNECTOR_ID),
+                (int) buffer.getLong(ConnectionCallback.OFFSET_SLICE_LENGTH),
+                (int) buffer.getLong(ConnectionCallback.OFFSET_CREDIT_LENGTH),
+                (int) buffer.getLong(ConnectionCallback.OFFSET_CREDITS),
+                (int) buffer.getLong(ConnectionCallback.OFFSET_RECEIVE_BUFFER_LENGTH));
+
+        if (!serverSocket.offerConnectionRequest(connectionRequest)) {
+            LOGGER.error("Discarding multiplexed connection request, because the server socket channel can not take it");
+            connectionRequest.reject();
+        }
+
+        receiveHandshake();
+    }
+
+    private void receiveHandshake() {
+        endpoint.receiveStream(buffer.addressOffset(), ConnectionCallback.MESSAGE_LENGTH, true, false);
+    }
+
+    private void close() {
+        try {
+            endpoint.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close handshake listener", e);
+        }
+    }
+}
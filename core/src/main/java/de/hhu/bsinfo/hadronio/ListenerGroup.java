@@ -0,0 +1,114 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxConnectionRequest;
+import de.hhu.bsinfo.hadronio.binding.UcxListener;
+import de.hhu.bsinfo.hadronio.binding.UcxListenerCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single UCX listener, which is shared by all server socket channels bound to the same address with
+ * {@link HadronioSocketOptions#REUSE_PORT} enabled (similar to SO_REUSEPORT).
+ * Incoming connection requests are distributed round-robin across the channels of the group,
+ * so that each channel can be accepted from by its own thread (e.g. with its own selector).
+ * UCX can only bind a single listener per address, so the listener's worker is progressed by all threads accepting from the group.
+ * The worker is thread-safe, which serializes the delivery of connection requests, while accepting and creating endpoints happens in parallel.
+ */
+class ListenerGroup implements UcxListenerCallback {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListenerGroup.class);
+    private static final HadronioServerSocketChannel[] NO_MEMBERS = new HadronioServerSocketChannel[0];
+
+    private static final Map<InetSocketAddress, ListenerGroup> groups = new HashMap<>();
+
+    private final InetSocketAddress address;
+    private final UcxListener listener;
+    private final AtomicInteger nextMember = new AtomicInteger();
+
+    // Replaced on every change, so that distributing connection requests does not need any lock
+    private volatile HadronioServerSocketChannel[] members = NO_MEMBERS;
+
+    private ListenerGroup(final InetSocketAddress address, final UcxListener listener) {
+        this.address = address;
+        this.listener = listener;
+    }
+
+    /**
+     * Join the group bound to the given address. If there is no such group yet, it is created and bound via the
+     * channel's own listener, which is then used by all further channels joining the group.
+     */
+    static synchronized ListenerGroup join(final InetSocketAddress address, final HadronioServerSocketChannel channel, final UcxListener listener) throws IOException {
+        ListenerGroup group = groups.get(address);
+        if (group == null) {
+            group = new ListenerGroup(address, listener);
+            listener.bind(address, group);
+            groups.put(address, group);
+            LOGGER.info("Created listener group for [{}]", address);
+        }
+
+        group.addMember(channel);
+        return group;
+    }
+
+    UcxListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Leave the group. The shared listener is closed, once the last channel has left.
+     */
+    void leave(final HadronioServerSocketChannel channel) throws IOException {
+        synchronized (ListenerGroup.class) {
+            removeMember(channel);
+            if (members.length > 0) {
+                return;
+            }
+
+            groups.remove(address);
+        }
+
+        LOGGER.info("Closing listener group for [{}]", address);
+        listener.close();
+    }
+
+    @Override
+    public void onConnectionRequest(final UcxConnectionRequest connectionRequest) {
+        final HadronioServerSocketChannel[] currentMembers = members;
+        final int start = currentMembers.length == 0 ? 0 : (nextMember.getAndIncrement() & Integer.MAX_VALUE) % currentMembers.length;
+
+        // Channels with a full backlog are skipped, so that a request is only rejected if all channels are busy
+        for (int i = 0; i < currentMembers.length; i++) {
+            if (currentMembers[(start + i) % currentMembers.length].offerConnectionRequest(connectionRequest)) {
+                return;
+            }
+        }
+
+        LOGGER.error("Discarding connection request, because no channel in the listener group for [{}] can take it", address);
+        connectionRequest.reject();
+    }
+
+    private void addMember(final HadronioServerSocketChannel channel) {
+        final HadronioServerSocketChannel[] newMembers = new HadronioServerSocketChannel[members.length + 1];
+        System.arraycopy(members, 0, newMembers, 0, members.length);
+        newMembers[members.length] = channel;
+        members = newMembers;
+    }
+
+    private void removeMember(final HadronioServerSocketChannel channel) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] == channel) {
+                final HadronioServerSocketChannel[] newMembers = new HadronioServerSocketChannel[members.length - 1];
+                System.arraycopy(members, 0, newMembers, 0, i);
+                System.arraycopy(members, i + 1, newMembers, i, members.length - i - 1);
+                members = newMembers;
+                return;
+            }
+        }
+    }
+}
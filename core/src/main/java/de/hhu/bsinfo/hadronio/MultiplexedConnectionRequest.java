@@ -0,0 +1,94 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxConnectionRequest;
+import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil.Alignment;
+import org.agrona.concurrent.AtomicBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * A request for a new channel on top of an existing connection, which has been announced by a handshake message
+ * received by a {@link HandshakeListener}. Accepting it only creates a multiplexed endpoint, since the connection
+ * has already been established. The accepted channel then replies to the handshake message with its own id.
+ */
+class MultiplexedConnectionRequest implements UcxConnectionRequest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiplexedConnectionRequest.class);
+
+    private final UcxEndpoint endpoint;
+    private final long connectorId;
+    private final int sliceLength;
+    private final int creditLength;
+    private final int credits;
+    private final int receiveBufferLength;
+
+    MultiplexedConnectionRequest(final UcxEndpoint endpoint, final long connectorId, final int sliceLength, final int creditLength, final int credits, final int receiveBufferLength) {
+        this.endpoint = endpoint;
+        this.connectorId = connectorId;
+        this.sliceLength = sliceLength;
+        this.creditLength = creditLength;
+        this.credits = credits;
+        this.receiveBufferLength = receiveBufferLength;
+    }
+
+    UcxEndpoint createEndpoint() throws IOException {
+        return endpoint.multiplex();
+    }
+
+    void accept(final HadronioSocketChannel socket) {
+        socket.acceptMultiplexedConnection(connectorId, sliceLength, creditLength, credits, receiveBufferLength);
+    }
+
+    @Override
+    public void reject() {
+        // The connecting channel waits for a reply, which rejects the connection by carrying no slice length
+        // Requests are rejected inside the handshake listener's receive callback, so the reply must not block
+        // It is sent via an endpoint of its own, whose send callback keeps the buffer alive until the request has completed
+        LOGGER.info("Rejecting multiplexed connection request (Tag: [0x{}])", Long.toHexString(connectorId));
+        final UcxEndpoint replyEndpoint;
+        try {
+            replyEndpoint = endpoint.multiplex();
+        } catch (IOException e) {
+            // The connection has already been closed, which the connecting channel notices anyway
+            LOGGER.warn("Unable to reject multiplexed connection request", e);
+            return;
+        }
+
+        new RejectReply(replyEndpoint).send(connectorId);
+    }
+
+    private static final class RejectReply implements UcxSendCallback {
+
+        private final UcxEndpoint endpoint;
+        private final AtomicBuffer buffer = MemoryUtil.allocateAligned(ConnectionCallback.MESSAGE_LENGTH, Alignment.CACHE);
+
+        private RejectReply(final UcxEndpoint endpoint) {
+            this.endpoint = endpoint;
+            endpoint.setSendCallback(this);
+            endpoint.setErrorCallback(this::close);
+        }
+
+        private void send(final long connectorId) {
+            ConnectionCallback.writeMessage(buffer, connectorId, 0, 0, 0, 0, 0);
+            endpoint.sendTaggedMessage(buffer.addressOffset(), ConnectionCallback.MESSAGE_LENGTH, ConnectionCallback.getReplyTag(connectorId), true, false);
+        }
+
+        @Override
+        public void onMessageSent() {
+            close();
+        }
+
+        private void close() {
+            try {
+                endpoint.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close endpoint of rejected connection request", e);
+            }
+        }
+    }
+}
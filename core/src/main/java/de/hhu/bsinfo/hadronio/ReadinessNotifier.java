@@ -0,0 +1,48 @@
+package de.hhu.bsinfo.hadronio;
+
+/**
+ * Keeps track of the selection keys a channel is registered with.
+ * Whenever the channel's state changes, its keys are handed to their selectors, which then select the channel again.
+ * This way, a selector only needs to look at channels, which have actually been active.
+ */
+class ReadinessNotifier {
+
+    private static final HadronioSelectionKey[] NO_KEYS = new HadronioSelectionKey[0];
+
+    // Replaced on every change, so that notifying the keys does not need any lock
+    private volatile HadronioSelectionKey[] keys = NO_KEYS;
+
+    synchronized void add(final HadronioSelectionKey key) {
+        final HadronioSelectionKey[] newKeys = new HadronioSelectionKey[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, keys.length);
+        newKeys[keys.length] = key;
+        keys = newKeys;
+    }
+
+    synchronized void remove(final HadronioSelectionKey key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key) {
+                final HadronioSelectionKey[] newKeys = new HadronioSelectionKey[keys.length - 1];
+                System.arraycopy(keys, 0, newKeys, 0, i);
+                System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+                keys = newKeys;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Must be called, if the channel's worker has changed, so that selectors progress the new worker instead.
+     */
+    void updateWorkers() {
+        for (final HadronioSelectionKey key : keys) {
+            key.updateWorker();
+        }
+    }
+
+    void notifyKeys() {
+        for (final HadronioSelectionKey key : keys) {
+            key.markReady();
+        }
+    }
+}
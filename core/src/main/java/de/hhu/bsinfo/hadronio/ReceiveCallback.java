@@ -2,13 +2,9 @@ package de.hhu.bsinfo.hadronio;
 
 import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
 import de.hhu.bsinfo.hadronio.util.TagUtil;
-import org.agrona.concurrent.AtomicBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class ReceiveCallback implements UcxReceiveCallback {
@@ -17,41 +13,56 @@ class ReceiveCallback implements UcxReceiveCallback {
 
     private final HadronioSocketChannel socket;
     private final AtomicInteger readableMessages;
-    private final AtomicBoolean isFlushing;
-    private final AtomicBuffer flushBuffer;
-    private final int flushIntervalSize;
+    private final AtomicInteger sendCredits;
 
-    private int receiveCounter = 0;
-
-    ReceiveCallback(final HadronioSocketChannel socket, final AtomicInteger readableMessages, final AtomicBoolean isFlushing, final int flushIntervalSize) {
+    ReceiveCallback(final HadronioSocketChannel socket, final AtomicInteger readableMessages, final AtomicInteger sendCredits) {
         this.socket = socket;
         this.readableMessages = readableMessages;
-        this.isFlushing = isFlushing;
-        this.flushIntervalSize = flushIntervalSize;
-
-        flushBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(Long.BYTES));
-        flushBuffer.putLong(0, HadronioSocketChannel.FLUSH_ANSWER);
+        this.sendCredits = sendCredits;
     }
 
     @Override
     public void onMessageReceived(long tag) {
         final long id = TagUtil.getTargetId(tag);
         final TagUtil.MessageType messageType = TagUtil.getMessageType(tag);
-        LOGGER.debug("hadroNIO ReceiveCallback called (id: [0x{}], messageType: [{}])", Long.toHexString(id), messageType);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("hadroNIO ReceiveCallback called (id: [0x{}], messageType: [{}])", Long.toHexString(id), messageType);
+        }
+
+        // Every message may carry credits, which allow us to send more messages to the remote channel
+        final int credits = TagUtil.getCredits(tag);
+        if (credits > 0) {
+            final int available = sendCredits.addAndGet(credits);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Received [{}] credits (Available credits: [{}])", credits, available);
+            }
+        }
 
-        if (messageType == TagUtil.MessageType.FLUSH) {
-            LOGGER.debug("Received flush answer");
-            isFlushing.set(false);
+        if (messageType == TagUtil.MessageType.CREDIT && credits == 0) {
+            // Credit messages without credits are only sent by multiplexed channels, which have been closed
+            socket.onRemoteClose();
             return;
         }
 
-        if (++receiveCounter % flushIntervalSize == 0) {
-            LOGGER.debug("Sending flush answer");
-            final long flushTag = TagUtil.setMessageType(socket.getRemoteTag(), TagUtil.MessageType.FLUSH);
-            socket.getSocketChannelImplementation().sendTaggedMessage(flushBuffer.addressOffset(), flushBuffer.capacity(), flushTag, false, true);
+        if (messageType == TagUtil.MessageType.DIRECT) {
+            // Out-of-band data belongs to a message, which has already been counted as readable
+            socket.onOutOfBandReceived();
+        } else if (messageType == TagUtil.MessageType.CREDIT) {
+            // Credit messages do not occupy a slice of the receive buffer, so we only need to wait for the next one
+            socket.receiveCredits();
+        } else {
+            int readable = readableMessages.incrementAndGet();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Readable messages: [{}]", readable);
+            }
         }
 
-        int readable = readableMessages.incrementAndGet();
-        LOGGER.debug("Readable messages: [{}]", readable);
+        // New messages or credits may allow a blocked reader or writer to continue
+        socket.signalWaiters();
+    }
+
+    @Override
+    public void onCancelled() {
+        socket.onReceiveCancelled();
     }
 }
@@ -0,0 +1,152 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil;
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A pool of direct byte buffers, whose memory is registered with UCX in advance.
+ * Sending such a buffer with zero-copy (see ZERO_COPY_THRESHOLD) does not require UCX to register its memory first.
+ * Buffers are carved from large registered chunks and grouped by their capacity, which is always a power of two.
+ */
+public class RegisteredBufferPool implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegisteredBufferPool.class);
+
+    private static final int MIN_BUFFER_LENGTH = 1024;
+    private static final int CHUNK_LENGTH = 4 * 1024 * 1024;
+    private static final int MAX_BUFFER_LENGTH = 1 << 30;
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_BUFFER_LENGTH) - Integer.numberOfTrailingZeros(MIN_BUFFER_LENGTH) + 1;
+
+    private final UcxProvider provider;
+    private final String hugePageDirectory;
+    private final Queue<ByteBuffer>[] freeBuffers;
+    private final List<UcxMemory> memoryRegions = new ArrayList<>();
+    private final Long2ObjectHashMap<ByteBuffer> leasedBuffers = new Long2ObjectHashMap<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RegisteredBufferPool(final UcxProvider provider) {
+        this.provider = provider;
+        hugePageDirectory = Configuration.getInstance().getHugePageDirectory();
+
+        freeBuffers = new Queue[SIZE_CLASSES];
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Get a registered direct buffer with at least the given capacity.
+     * The buffer's limit is set to the requested capacity.
+     */
+    public ByteBuffer allocate(final int capacity) throws IOException {
+        if (capacity > MAX_BUFFER_LENGTH) {
+            throw new IllegalArgumentException("Buffer capacity must not exceed " + MAX_BUFFER_LENGTH + " byte!");
+        }
+
+        final int length = BitUtil.findNextPositivePowerOfTwo(Math.max(capacity, MIN_BUFFER_LENGTH));
+        final Queue<ByteBuffer> queue = freeBuffers[getSizeClass(length)];
+        ByteBuffer buffer = queue.poll();
+        if (buffer == null && length > CHUNK_LENGTH) {
+            // Buffers larger than a chunk get their own memory region
+            buffer = allocateMemory(length);
+            register(buffer);
+        } else if (buffer == null) {
+            refill(queue, length);
+            buffer = queue.poll();
+        }
+
+        synchronized (leasedBuffers) {
+            leasedBuffers.put(BufferUtil.address(buffer), buffer);
+        }
+
+        buffer.clear().limit(capacity);
+        return buffer;
+    }
+
+    /**
+     * Return a buffer, that has been acquired via {@link #allocate(int)}, to the pool.
+     * The buffer must not be used afterwards.
+     * Buffers, which have not been allocated by this pool or have already been released, are rejected.
+     */
+    public void release(final ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Buffer has not been allocated by this pool!");
+        }
+
+        final ByteBuffer pooledBuffer;
+        synchronized (leasedBuffers) {
+            pooledBuffer = leasedBuffers.remove(BufferUtil.address(buffer));
+        }
+
+        if (pooledBuffer == null) {
+            throw new IllegalArgumentException("Buffer has not been allocated by this pool or has already been released!");
+        }
+
+        // Buffers are never freed, since their memory must stay valid as long as it is registered
+        freeBuffers[getSizeClass(pooledBuffer.capacity())].offer(pooledBuffer);
+    }
+
+    private void refill(final Queue<ByteBuffer> queue, final int length) throws IOException {
+        // Split a new chunk into buffers of the requested size class
+        final ByteBuffer chunk = allocateMemory(CHUNK_LENGTH);
+        register(chunk);
+
+        LOGGER.info("Allocated registered chunk of [{}] byte for buffers of [{}] byte", CHUNK_LENGTH, length);
+
+        for (int offset = 0; offset < CHUNK_LENGTH; offset += length) {
+            chunk.limit(offset + length).position(offset);
+            queue.offer(chunk.slice());
+        }
+    }
+
+    private ByteBuffer allocateMemory(final int length) {
+        // With huge pages, each registration covers fewer, larger pages
+        return hugePageDirectory != null ?
+                MemoryUtil.allocateHugePageBuffer(length, hugePageDirectory) :
+                BufferUtil.allocateDirectAligned(length, MemoryUtil.Alignment.PAGE.value());
+    }
+
+    private void register(final ByteBuffer buffer) throws IOException {
+        // Without memory mapping, the buffers are still usable, but UCX registers them on demand
+        if (!Configuration.getInstance().supports(UcxCapability.MEMORY_MAPPING)) {
+            return;
+        }
+
+        final UcxMemory memory = provider.mapMemory(BufferUtil.address(buffer), buffer.capacity());
+        if (memory != null) {
+            synchronized (memoryRegions) {
+                memoryRegions.add(memory);
+            }
+        }
+    }
+
+    private static int getSizeClass(final int length) {
+        return Integer.numberOfTrailingZeros(length) - Integer.numberOfTrailingZeros(MIN_BUFFER_LENGTH);
+    }
+
+    @Override
+    public void close() {
+        synchronized (memoryRegions) {
+            for (final UcxMemory memory : memoryRegions) {
+                memory.close();
+            }
+
+            memoryRegions.clear();
+        }
+    }
+}
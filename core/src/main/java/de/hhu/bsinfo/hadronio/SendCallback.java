@@ -0,0 +1,90 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
+import de.hhu.bsinfo.hadronio.util.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class SendCallback implements UcxSendCallback {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SendCallback.class);
+
+    private final HadronioSocketChannel socket;
+    private final AtomicBoolean zeroCopyInFlight;
+
+    /**
+     * The send buffer, from which completed messages are released.
+     */
+    private RingBuffer sendBuffer;
+
+    /**
+     * The send buffer, that replaces the current one, as soon as all of its messages have been released.
+     */
+    private volatile RingBuffer nextSendBuffer;
+
+    private boolean zeroCopyPartiallySent = false;
+
+    SendCallback(final HadronioSocketChannel socket, final RingBuffer sendBuffer, final AtomicBoolean zeroCopyInFlight) {
+        this.socket = socket;
+        this.sendBuffer = sendBuffer;
+        this.zeroCopyInFlight = zeroCopyInFlight;
+    }
+
+    void replaceSendBuffer(final RingBuffer sendBuffer) {
+        nextSendBuffer = sendBuffer;
+    }
+
+    boolean isReplacingSendBuffer() {
+        return nextSendBuffer != null;
+    }
+
+    void deregisterSendBuffers() {
+        sendBuffer.deregister();
+        if (nextSendBuffer != null) {
+            nextSendBuffer.deregister();
+        }
+    }
+
+    @Override
+    public void onMessageSent() {
+        LOGGER.debug("hadroNIO SendCallback called");
+        releaseMessage();
+
+        // Released space or a completed zero-copy write may allow a blocked writer to continue
+        socket.signalWaiters();
+    }
+
+    private void releaseMessage() {
+        // Each completed request releases the oldest message in the send buffer, skipping any padding in front of it
+        int index = sendBuffer.peek();
+        if (index == RingBuffer.NO_MESSAGE && nextSendBuffer != null) {
+            // All messages from the previous send buffer have been released, so we continue with its replacement
+            sendBuffer.free();
+            sendBuffer = nextSendBuffer;
+            nextSendBuffer = null;
+            index = sendBuffer.peek();
+        }
+
+        if (index == RingBuffer.NO_MESSAGE) {
+            LOGGER.warn("SendCallback called, but the send buffer is empty");
+            return;
+        }
+
+        if (sendBuffer.messageTypeId(index) == HadronioSocketChannel.ZERO_COPY_MESSAGE_ID) {
+            // A zero-copy message consists of its header and its separately sent data
+            // The header's space may only be freed, once both requests have been completed
+            if (!zeroCopyPartiallySent) {
+                zeroCopyPartiallySent = true;
+                return;
+            }
+
+            zeroCopyPartiallySent = false;
+            zeroCopyInFlight.set(false);
+        }
+
+        sendBuffer.skip();
+        sendBuffer.commitSkipped();
+    }
+}
@@ -0,0 +1,172 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil.Alignment;
+import de.hhu.bsinfo.hadronio.util.TagUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.AtomicBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A pool of receive buffer slices, which is shared by all socket channels using the same worker.
+ * Receive requests are posted for all channels at once, matching only the message type of incoming messages.
+ * Completed slices are handed to the channel owning the message, which releases them after it has been read.
+ * Each pool exists until its worker is closed, which must call {@link #close(UcxWorker)} beforehand.
+ */
+class SharedReceivePool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedReceivePool.class);
+
+    private static final Map<UcxWorker, SharedReceivePool> pools = new IdentityHashMap<>();
+
+    private final UcxWorker worker;
+    private final AtomicBuffer buffer;
+    private final int sliceLength;
+    private final SliceCallback[] callbacks;
+    private final boolean cancelSupported;
+    private UcxMemory memory;
+    private volatile boolean closed;
+
+    /**
+     * Maps channel ids to channels. Channels are only registered and unregistered while connecting and closing,
+     * so the map is copied on each change, while looking up the channel for a received message does not need a lock.
+     */
+    private volatile Long2ObjectHashMap<HadronioSocketChannel> channels = new Long2ObjectHashMap<>();
+
+    private SharedReceivePool(final UcxWorker worker, final Configuration configuration) {
+        this.worker = worker;
+        sliceLength = configuration.getBufferSliceLength();
+        cancelSupported = configuration.supports(UcxCapability.REQUEST_CANCEL);
+
+        final int sliceCount = configuration.getSharedReceivePoolLength() / sliceLength;
+        final String hugePageDirectory = configuration.getHugePageDirectory();
+        buffer = hugePageDirectory != null ?
+                MemoryUtil.allocateHugePages(sliceCount * sliceLength, hugePageDirectory) :
+                MemoryUtil.allocateAligned(sliceCount * sliceLength, Alignment.PAGE);
+        try {
+            // The pool's memory stays registered, until its worker is closed
+            if (configuration.supports(UcxCapability.MEMORY_MAPPING)) {
+                memory = worker.mapMemory(buffer.addressOffset(), buffer.capacity());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to register shared receive pool", e);
+        }
+
+        callbacks = new SliceCallback[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            callbacks[i] = new SliceCallback(i);
+            release(i);
+        }
+
+        LOGGER.info("Created shared receive pool with [{}] slices", sliceCount);
+    }
+
+    static synchronized SharedReceivePool getInstance(final UcxWorker worker, final Configuration configuration) {
+        SharedReceivePool pool = pools.get(worker);
+        if (pool == null) {
+            pool = new SharedReceivePool(worker, configuration);
+            pools.put(worker, pool);
+        }
+
+        return pool;
+    }
+
+    /**
+     * Remove the pool of the given worker, cancelling all of its receive requests. Must be called before the worker is closed.
+     * The pool's memory is released once it is garbage collected, since channels may still hold received slices.
+     */
+    static void close(final UcxWorker worker) {
+        final SharedReceivePool pool;
+        synchronized (SharedReceivePool.class) {
+            pool = pools.remove(worker);
+        }
+
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private void close() {
+        LOGGER.info("Closing shared receive pool with [{}] slices", callbacks.length);
+        closed = true;
+
+        // Without cancelling, the outstanding requests are released together with the worker
+        if (cancelSupported) {
+            worker.cancelTaggedReceives(TagUtil.setMessageType(0, TagUtil.MessageType.DEFAULT), TagUtil.TAG_MASK_MESSAGE_TYPE);
+        }
+
+        if (memory != null) {
+            memory.close();
+            memory = null;
+        }
+    }
+
+    AtomicBuffer buffer() {
+        return buffer;
+    }
+
+    int getSliceIndex(final int slice) {
+        return slice * sliceLength;
+    }
+
+    synchronized void register(final long id, final HadronioSocketChannel channel) {
+        final Long2ObjectHashMap<HadronioSocketChannel> copy = new Long2ObjectHashMap<>(channels);
+        copy.put(id, channel);
+        channels = copy;
+    }
+
+    synchronized void unregister(final long id) {
+        final Long2ObjectHashMap<HadronioSocketChannel> copy = new Long2ObjectHashMap<>(channels);
+        copy.remove(id);
+        channels = copy;
+    }
+
+    void release(final int slice) {
+        if (closed) {
+            // Slices, which are released after the worker has been closed, can not be posted again
+            return;
+        }
+
+        final long tag = TagUtil.setMessageType(0, TagUtil.MessageType.DEFAULT);
+        worker.receiveTaggedMessage(buffer.addressOffset() + getSliceIndex(slice), sliceLength, tag, TagUtil.TAG_MASK_MESSAGE_TYPE, callbacks[slice]);
+    }
+
+    private void onSliceReceived(final int slice, final long tag) {
+        final HadronioSocketChannel channel = channels.get(TagUtil.getTargetId(tag));
+
+        if (channel == null) {
+            // The channel has already been closed, so the message can be discarded
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Discarding message for unknown channel (id: [0x{}])", Long.toHexString(TagUtil.getTargetId(tag)));
+            }
+
+            release(slice);
+            return;
+        }
+
+        channel.onSharedMessageReceived(slice, tag);
+    }
+
+    private final class SliceCallback implements UcxReceiveCallback {
+
+        private final int slice;
+
+        private SliceCallback(final int slice) {
+            this.slice = slice;
+        }
+
+        @Override
+        public void onMessageReceived(final long tag) {
+            onSliceReceived(slice, tag);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+import org.agrona.hints.ThreadHints;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Determines how a thread waits inside a blocking operation, while progressing a worker.
+ * Initially, the thread busy polls. If no events arrive for the configured spin duration, it starts yielding
+ * and after the configured yield duration, it sleeps until the worker receives an event.
+ * Each instance must only be used by one thread at a time.
+ */
+class WaitStrategy {
+
+    private final Signal signal;
+    private final boolean sleepEnabled;
+    private final long spinDuration;
+    private final long yieldDuration;
+
+    private boolean idle;
+    private long idleStart;
+    private long lastEpoch;
+
+    WaitStrategy(final Configuration configuration, final Signal signal) {
+        this.signal = signal;
+        sleepEnabled = configuration.isSleepEnabled();
+        spinDuration = configuration.getSpinDuration() * 1000L;
+        yieldDuration = configuration.getYieldDuration() * 1000L;
+    }
+
+    /**
+     * Must be called before a thread starts waiting for a new condition.
+     */
+    void reset() {
+        idle = false;
+        lastEpoch = signal.epoch.get();
+    }
+
+    /**
+     * Progress the worker once and idle according to the strategy, if there were no events to handle.
+     * The caller needs to check its wait condition afterwards.
+     */
+    void progress(final UcxWorker worker) {
+        if (worker.progress()) {
+            reset();
+            return;
+        }
+
+        if (!sleepEnabled) {
+            ThreadHints.onSpinWait();
+            return;
+        }
+
+        final long now = System.nanoTime();
+        if (!idle) {
+            idle = true;
+            idleStart = now;
+        }
+
+        final long idleTime = now - idleStart;
+        if (idleTime < spinDuration) {
+            ThreadHints.onSpinWait();
+        } else if (idleTime < spinDuration + yieldDuration) {
+            Thread.yield();
+        } else {
+            sleep(worker);
+        }
+    }
+
+    private void sleep(final UcxWorker worker) {
+        signal.sleepingThreads.incrementAndGet();
+        try {
+            // The events we are waiting for may have been handled by another thread, since the caller last checked its condition
+            if (signal.epoch.get() == lastEpoch) {
+                worker.waitForEvents();
+            }
+        } finally {
+            signal.sleepingThreads.decrementAndGet();
+        }
+
+        lastEpoch = signal.epoch.get();
+    }
+
+    /**
+     * Shared by all threads waiting on the same channel. Callbacks changing the channel's state must call
+     * {@link #signal(UcxWorker)}, since they may be executed by any thread progressing the channel's worker.
+     */
+    static class Signal {
+
+        private final AtomicLong epoch = new AtomicLong();
+        private final AtomicInteger sleepingThreads = new AtomicInteger();
+        private final boolean sleepEnabled;
+
+        Signal(final Configuration configuration) {
+            sleepEnabled = configuration.isSleepEnabled();
+        }
+
+        void signal(final UcxWorker worker) {
+            if (!sleepEnabled) {
+                return;
+            }
+
+            epoch.incrementAndGet();
+            if (sleepingThreads.get() > 0) {
+                worker.interrupt();
+            }
+        }
+    }
+}
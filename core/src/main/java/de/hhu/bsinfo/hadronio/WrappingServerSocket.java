@@ -9,6 +9,7 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
 import java.nio.channels.ServerSocketChannel;
 
 public class WrappingServerSocket extends ServerSocket {
@@ -58,7 +59,11 @@ public class WrappingServerSocket extends ServerSocket {
 
     @Override
     public int getReceiveBufferSize() {
-        return Configuration.getInstance().getReceiveBufferLength();
+        try {
+            return channel.getOption(StandardSocketOptions.SO_RCVBUF);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
@@ -88,7 +93,11 @@ public class WrappingServerSocket extends ServerSocket {
 
     @Override
     public void setReceiveBufferSize(int size) {
-        LOGGER.warn("Trying to set receive buffer size to [{}], but setting socket options is not supported!", size);
+        try {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, size);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
@@ -10,6 +10,8 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.SocketChannel;
 
 public class WrappingSocket extends Socket {
@@ -116,7 +118,7 @@ public class WrappingSocket extends Socket {
 
     @Override
     public int getReceiveBufferSize() {
-        return Configuration.getInstance().getBufferSliceLength();
+        return getChannelOption(StandardSocketOptions.SO_RCVBUF);
     }
 
     @Override
@@ -135,7 +137,7 @@ public class WrappingSocket extends Socket {
 
     @Override
     public int getSendBufferSize() {
-        return Configuration.getInstance().getBufferSliceLength();
+        return getChannelOption(StandardSocketOptions.SO_SNDBUF);
     }
 
     @Override
@@ -150,7 +152,7 @@ public class WrappingSocket extends Socket {
 
     @Override
     public boolean getTcpNoDelay() {
-        return false;
+        return getChannelOption(StandardSocketOptions.TCP_NODELAY);
     }
 
     @Override
@@ -205,7 +207,7 @@ public class WrappingSocket extends Socket {
 
     @Override
     public void setReceiveBufferSize(int size) {
-        LOGGER.warn("Trying to set receive buffer size to [{}], but setting socket options is not supported!", size);
+        setChannelOption(StandardSocketOptions.SO_RCVBUF, size);
     }
 
     @Override
@@ -215,7 +217,7 @@ public class WrappingSocket extends Socket {
 
     @Override
     public void setSendBufferSize(int size) {
-        LOGGER.warn("Trying to set send buffer size to [{}], but setting socket options is not supported!", size);
+        setChannelOption(StandardSocketOptions.SO_SNDBUF, size);
     }
 
     @Override
@@ -230,7 +232,7 @@ public class WrappingSocket extends Socket {
 
     @Override
     public void setTcpNoDelay(boolean on) {
-        LOGGER.warn("Trying to set tcp no delay to [{}], but setting socket options is not supported!", on);
+        setChannelOption(StandardSocketOptions.TCP_NODELAY, on);
     }
 
     @Override
@@ -252,4 +254,20 @@ public class WrappingSocket extends Socket {
     public String toString() {
         return channel.toString();
     }
+
+    private <T> T getChannelOption(final SocketOption<T> option) {
+        try {
+            return channel.getOption(option);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> void setChannelOption(final SocketOption<T> option, final T value) {
+        try {
+            channel.setOption(option, value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
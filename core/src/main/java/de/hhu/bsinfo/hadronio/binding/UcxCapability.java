@@ -0,0 +1,41 @@
+package de.hhu.bsinfo.hadronio.binding;
+
+/**
+ * Optional features of a {@link UcxProvider}. Features, which a provider does not support, are disabled by hadroNIO,
+ * so that the corresponding methods of the binding are never called.
+ */
+public enum UcxCapability {
+
+    /**
+     * Sending vectored messages via {@link UcxEndpoint#sendTaggedMessage(long[], long[], long, boolean, boolean)}.
+     */
+    VECTORED_SEND,
+
+    /**
+     * Probing for arrived messages via {@link UcxEndpoint#probeTaggedMessage(long, long)}
+     * and receiving them via {@link UcxEndpoint#receiveTaggedMessage(long, long, UcxTagMessage, boolean, boolean)}.
+     */
+    TAG_PROBE,
+
+    /**
+     * Cancelling posted receive requests via {@link UcxEndpoint#cancelTaggedReceives(long, long)} and {@link UcxWorker#cancelTaggedReceives(long, long)}.
+     */
+    REQUEST_CANCEL,
+
+    /**
+     * Creating workers, which are shared by multiple endpoints and listeners, via {@link UcxProvider#createWorker()},
+     * {@link UcxProvider#createEndpoint(UcxWorker)} and {@link UcxProvider#createListener(UcxWorker)},
+     * as well as receiving messages for any endpoint via {@link UcxWorker#receiveTaggedMessage(long, long, long, long, UcxReceiveCallback)}.
+     */
+    SHARED_WORKER,
+
+    /**
+     * Creating further endpoints on the connection of an existing one via {@link UcxEndpoint#multiplex()}.
+     */
+    MULTIPLEX,
+
+    /**
+     * Registering memory in advance via {@link UcxProvider#mapMemory(long, long)} and {@link UcxWorker#mapMemory(long, long)}.
+     */
+    MEMORY_MAPPING
+}
@@ -9,17 +9,46 @@ public interface UcxEndpoint extends UcxProgressable {
 
     boolean sendTaggedMessage(long address, long size, long tag, boolean useCallback, boolean blocking);
 
+    boolean sendTaggedMessage(long[] addresses, long[] sizes, long tag, boolean useCallback, boolean blocking);
+
     boolean receiveTaggedMessage(long address, long size, long tag, long tagMask, boolean useCallback, boolean blocking);
 
+    /**
+     * Cancel all receive requests posted via {@link #receiveTaggedMessage(long, long, long, long, boolean, boolean)},
+     * whose tag matches the given tag under the given mask and which have not been matched to a message yet.
+     * {@link UcxReceiveCallback#onCancelled()} is called for each cancelled request before this method returns.
+     */
+    void cancelTaggedReceives(long tag, long tagMask);
+
+    UcxTagMessage probeTaggedMessage(long tag, long tagMask);
+
+    boolean receiveTaggedMessage(long address, long size, UcxTagMessage message, boolean useCallback, boolean blocking);
+
     boolean sendStream(long address, long size, boolean useCallback, boolean blocking);
 
     boolean receiveStream(long address, long size, boolean useCallback, boolean blocking);
 
+    /**
+     * Create another endpoint, which shares this endpoint's UCX endpoint and worker, but has its own callbacks.
+     * The UCX endpoint is closed, once all endpoints sharing it have been closed.
+     * Only connected endpoints can be multiplexed.
+     */
+    UcxEndpoint multiplex() throws IOException;
+
     void setSendCallback(UcxSendCallback sendCallback);
 
     void setReceiveCallback(UcxReceiveCallback receiveCallback);
 
+    void setErrorCallback(UcxErrorCallback errorCallback);
+
     boolean getErrorState();
 
     InetSocketAddress getRemoteAddress();
+
+    /**
+     * Close this endpoint. Receive requests, which have been posted via this endpoint and have not completed yet, are cancelled,
+     * since they would otherwise stay posted on a worker, that may be shared with other endpoints.
+     */
+    @Override
+    void close() throws IOException;
 }
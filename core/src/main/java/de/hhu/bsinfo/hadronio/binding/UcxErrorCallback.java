@@ -0,0 +1,7 @@
+package de.hhu.bsinfo.hadronio.binding;
+
+@FunctionalInterface
+public interface UcxErrorCallback {
+
+    void onError();
+}
@@ -0,0 +1,13 @@
+package de.hhu.bsinfo.hadronio.binding;
+
+import java.io.Closeable;
+
+public interface UcxMemory extends Closeable {
+
+    long getAddress();
+
+    long getLength();
+
+    @Override
+    void close();
+}
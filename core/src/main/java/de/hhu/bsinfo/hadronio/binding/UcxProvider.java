@@ -2,10 +2,27 @@ package de.hhu.bsinfo.hadronio.binding;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Set;
 
 public interface UcxProvider extends Closeable {
 
     UcxListener createListener() throws IOException;
 
     UcxEndpoint createEndpoint() throws IOException;
+
+    /**
+     * Create a worker, which may be shared by multiple endpoints and must thus be safe to progress from multiple threads.
+     */
+    UcxWorker createWorker() throws IOException;
+
+    UcxListener createListener(UcxWorker worker) throws IOException;
+
+    UcxEndpoint createEndpoint(UcxWorker worker) throws IOException;
+
+    UcxMemory mapMemory(long address, long length) throws IOException;
+
+    /**
+     * The optional features supported by this provider. Methods belonging to other features are never called.
+     */
+    Set<UcxCapability> getCapabilities();
 }
@@ -4,4 +4,9 @@ package de.hhu.bsinfo.hadronio.binding;
 public interface UcxReceiveCallback {
 
     void onMessageReceived(long tag);
+
+    /**
+     * Called for a receive request, which has been cancelled before any message has been received into it.
+     */
+    default void onCancelled() {}
 }
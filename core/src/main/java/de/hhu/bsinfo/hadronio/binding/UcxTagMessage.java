@@ -0,0 +1,8 @@
+package de.hhu.bsinfo.hadronio.binding;
+
+public interface UcxTagMessage {
+
+    long getLength();
+
+    long getSenderTag();
+}
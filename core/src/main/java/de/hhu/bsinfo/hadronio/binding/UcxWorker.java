@@ -1,11 +1,23 @@
 package de.hhu.bsinfo.hadronio.binding;
 
 import java.io.Closeable;
+import java.io.IOException;
 
 public interface UcxWorker extends Closeable {
 
     boolean progress();
 
+    boolean receiveTaggedMessage(long address, long size, long tag, long tagMask, UcxReceiveCallback callback);
+
+    /**
+     * Cancel all receive requests posted via {@link #receiveTaggedMessage(long, long, long, long, UcxReceiveCallback)},
+     * whose tag matches the given tag under the given mask and which have not been matched to a message yet.
+     * {@link UcxReceiveCallback#onCancelled()} is called for each cancelled request before this method returns.
+     */
+    void cancelTaggedReceives(long tag, long tagMask);
+
+    UcxMemory mapMemory(long address, long length) throws IOException;
+
     void waitForEvents();
 
     void interrupt();
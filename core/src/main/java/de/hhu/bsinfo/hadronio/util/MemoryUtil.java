@@ -1,15 +1,30 @@
 package de.hhu.bsinfo.hadronio.util;
 
 import org.agrona.BufferUtil;
+import org.agrona.IoUtil;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class MemoryUtil {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryUtil.class);
+
+    private static volatile boolean hugePagesWarned = false;
+
     public enum Alignment {
-        TYPE    (0x0008),
-        CACHE   (0x0040),
-        PAGE    (0x1000);
+        TYPE        (0x0008),
+        CACHE       (0x0040),
+        PAGE        (0x1000),
+        HUGE_PAGE   (0x200000);
 
         private final int alignment;
 
@@ -25,5 +40,73 @@ public class MemoryUtil {
     public static AtomicBuffer allocateAligned(final int size, final Alignment alignment) {
         return new UnsafeBuffer(BufferUtil.allocateDirectAligned(size, alignment.value()));
     }
-}
 
+    public static AtomicBuffer allocateHugePages(final int size, final String directory) {
+        return new UnsafeBuffer(allocateHugePageBuffer(size, directory));
+    }
+
+    /**
+     * Allocate a direct buffer backed by huge pages, by mapping a file on a hugetlbfs mount.
+     * If the file cannot be mapped (e.g. because it is smaller than a huge page, or no huge pages are available), a buffer backed by regular pages is returned.
+     * The mapping is released, once the buffer is garbage collected.
+     */
+    public static ByteBuffer allocateHugePageBuffer(final int size, final String directory) {
+        final MappedByteBuffer mapping = mapHugePages(size, directory);
+        if (mapping == null) {
+            return BufferUtil.allocateDirectAligned(size, Alignment.PAGE.value());
+        }
+
+        mapping.limit(size);
+        return mapping.slice();
+    }
+
+    /**
+     * Map a file on a hugetlbfs mount, which is rounded up to a multiple of the huge page size.
+     * Buffers smaller than a single huge page are not mapped, since they would waste most of the huge page.
+     * Each allocation tries again, since huge pages may become available after a previous allocation has failed.
+     *
+     * @return The mapping, which may be released via {@link #unmap(MappedByteBuffer)}, or null if no huge pages could be mapped
+     */
+    public static MappedByteBuffer mapHugePages(final int size, final String directory) {
+        if (size < Alignment.HUGE_PAGE.value()) {
+            LOGGER.debug("Backing buffer of [{}] byte with regular pages, since it is smaller than a huge page", size);
+            return null;
+        }
+
+        final long mappingLength = ((long) size + Alignment.HUGE_PAGE.value() - 1) & ~((long) Alignment.HUGE_PAGE.value() - 1);
+        File file = null;
+
+        try {
+            file = File.createTempFile("hadronio-", ".buffer", new File(directory));
+            try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                randomAccessFile.setLength(mappingLength);
+
+                // The mapping stays valid after the file has been closed and deleted, until it is unmapped
+                final MappedByteBuffer mapping = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, mappingLength);
+                LOGGER.debug("Backing buffer of [{}] byte with huge pages from [{}]", size, directory);
+                return mapping;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Only warn once, since failures are usually caused by an exhausted huge page pool and would be repeated by every allocation
+            if (!hugePagesWarned) {
+                hugePagesWarned = true;
+                LOGGER.warn("Unable to allocate huge pages in [{}], backing buffer of [{}] byte with regular pages", directory, size, e);
+            } else {
+                LOGGER.debug("Unable to allocate huge pages in [{}], backing buffer of [{}] byte with regular pages", directory, size);
+            }
+
+            return null;
+        } finally {
+            if (file != null && !file.delete()) {
+                LOGGER.warn("Unable to delete huge page file [{}]", file);
+            }
+        }
+    }
+
+    /**
+     * Release a mapping created by {@link #mapHugePages(int, String)}. The mapping must not be accessed afterwards.
+     */
+    public static void unmap(final MappedByteBuffer mapping) {
+        IoUtil.unmap(mapping);
+    }
+}
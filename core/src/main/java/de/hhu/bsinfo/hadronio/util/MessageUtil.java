@@ -23,8 +23,17 @@ public class MessageUtil {
         sourceBuffer.getBytes(sourceIndex + offset + MESSAGE_OFFSET_DATA, targetBuffer, length);
     }
 
+    public static int getDataLength(final MutableDirectBuffer buffer, final int index) {
+        final int messageLength = getMessageLength(buffer, index);
+        return messageLength < 0 ? -messageLength : messageLength;
+    }
+
+    public static boolean isOutOfBand(final MutableDirectBuffer buffer, final int index) {
+        return getMessageLength(buffer, index) < 0;
+    }
+
     public static int getRemainingBytes(final MutableDirectBuffer buffer, final int index) {
-        return getMessageLength(buffer, index) - getReadBytes(buffer, index);
+        return getDataLength(buffer, index) - getReadBytes(buffer, index);
     }
 
     public static int readMessage(final MutableDirectBuffer sourceBuffer, final int sourceIndex, final ByteBuffer targetBuffer) {
@@ -56,4 +65,10 @@ public class MessageUtil {
         setMessageData(targetBuffer, targetIndex, sourceBuffer, messageLength);
     }
 
+    public static void writeOutOfBandHeader(final MutableDirectBuffer targetBuffer, final int targetIndex, final int dataLength) {
+        // A negative length signals, that the data is not part of this message, but follows in a separate one
+        setMessageLength(targetBuffer, targetIndex, -dataLength);
+        setReadBytes(targetBuffer, targetIndex, 0);
+    }
+
 }
@@ -1,9 +1,17 @@
 package de.hhu.bsinfo.hadronio.util;
 
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import org.agrona.BitUtil;
 import org.agrona.UnsafeAccess;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
 
 import static org.agrona.BitUtil.align;
 import static org.agrona.concurrent.broadcast.RecordDescriptor.PADDING_MSG_TYPE_ID;
@@ -17,7 +25,11 @@ import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.*;
  */
 public class RingBuffer {
 
-    private static final int REQUEST_MESSAGE_ID = 1;
+    private static final Logger LOGGER = LoggerFactory.getLogger(RingBuffer.class);
+
+    public static final int REQUEST_MESSAGE_ID = 1;
+
+    public static final int NO_MESSAGE = -1;
 
     /**
      * This buffer's maximum capacity in bytes.
@@ -25,45 +37,111 @@ public class RingBuffer {
     private final int capacity;
 
     /**
-     * The index within our backing buffer at which the head position is stored.
+     * The index within our trailer buffer at which the head position is stored.
      */
-    private final int headPositionIndex;
+    private final int headPositionIndex = HEAD_POSITION_OFFSET;
 
     /**
-     * The index within our backing buffer at which the cached head position is stored.
+     * The index within our trailer buffer at which the cached head position is stored.
      */
-    private final int headCachePositionIndex;
+    private final int headCachePositionIndex = HEAD_CACHE_POSITION_OFFSET;
 
     /**
-     * The index within our backing buffer at which the tail position is stored.
+     * The index within our trailer buffer at which the tail position is stored.
      */
-    private final int tailPositionIndex;
+    private final int tailPositionIndex = TAIL_POSITION_OFFSET;
 
     /**
      * The underlying buffer used for storing data.
      */
     private final AtomicBuffer buffer;
 
+    /**
+     * The buffer holding the head and tail positions. It is kept apart from the data, so that the data buffer's size is a power of two,
+     * which fits exactly into huge pages, and so that only the data buffer needs to be registered with UCX.
+     */
+    private final AtomicBuffer trailer = MemoryUtil.allocateAligned(TRAILER_LENGTH, MemoryUtil.Alignment.CACHE);
+
+    /**
+     * The huge page mapping backing the data buffer, or null if it is backed by regular pages.
+     */
+    private MappedByteBuffer mapping;
+
     /**
      * Bitmask used to keep indices within the buffer's bounds.
      */
     private final int indexMask;
 
+    /**
+     * The amount of bytes, that have been passed by the read cursor, but not yet been committed.
+     */
+    private int cursorOffset;
+
+    /**
+     * The aligned length of the record, that has last been returned by peek().
+     */
+    private int cursorRecordLength;
+
+    /**
+     * The memory region, with which the underlying buffer has been registered, or null if it is not registered.
+     */
+    private UcxMemory memory;
+
     public RingBuffer(final int size) {
+        this(size, null);
+    }
+
+    /**
+     * Create a ring buffer, which is backed by huge pages from the given hugetlbfs directory.
+     * If the directory is null, or no huge pages are available, the buffer is backed by regular pages.
+     */
+    public RingBuffer(final int size, final String hugePageDirectory) {
         // Allocate a new page-aligned buffer
-        buffer = MemoryUtil.allocateAligned(size + TRAILER_LENGTH, MemoryUtil.Alignment.PAGE);
+        mapping = hugePageDirectory != null ? MemoryUtil.mapHugePages(size, hugePageDirectory) : null;
+        buffer = mapping != null ?
+                new UnsafeBuffer(mapping, 0, size) :
+                MemoryUtil.allocateAligned(size, MemoryUtil.Alignment.PAGE);
 
         // Store the buffer's actual capacity
-        capacity = buffer.capacity() - TRAILER_LENGTH;
+        capacity = buffer.capacity();
         indexMask = capacity - 1;
 
         // Verify the buffer is correctly aligned
         buffer.verifyAlignment();
+    }
 
-        // Remember positions at which indices are stored
-        headPositionIndex = capacity + HEAD_POSITION_OFFSET;
-        headCachePositionIndex = capacity + HEAD_CACHE_POSITION_OFFSET;
-        tailPositionIndex = capacity + TAIL_POSITION_OFFSET;
+    /**
+     * Register the underlying buffer with UCX, so that it does not need to be registered again for each operation.
+     * If the registration fails, the buffer is still usable, but UCX registers it on demand.
+     */
+    public void register(final UcxWorker worker) {
+        try {
+            memory = worker.mapMemory(buffer.addressOffset(), buffer.capacity());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to register ring buffer with a capacity of [{}] byte", capacity, e);
+        }
+    }
+
+    /**
+     * Release the memory registration. Must only be called, once no more UCX requests use the underlying buffer.
+     */
+    public void deregister() {
+        if (memory != null) {
+            memory.close();
+            memory = null;
+        }
+    }
+
+    /**
+     * Release the memory registration and unmap the huge pages backing the buffer, instead of waiting for the garbage collector.
+     * Must only be called, once neither UCX requests nor any thread use the underlying buffer anymore.
+     */
+    public void free() {
+        deregister();
+        if (mapping != null) {
+            MemoryUtil.unmap(mapping);
+            mapping = null;
+        }
     }
 
     public int read(final MessageHandler handler, final int limit) {
@@ -73,7 +151,7 @@ public class RingBuffer {
         // Retrieve our current position within the buffer
         final AtomicBuffer buffer = this.buffer;
         final int headPositionIndex = this.headPositionIndex;
-        final long head = buffer.getLong(headPositionIndex);
+        final long head = trailer.getLong(headPositionIndex);
         final int capacity = this.capacity;
         final int headIndex = (int) head & indexMask;
         final int maxBlockLength = capacity - headIndex;
@@ -106,15 +184,65 @@ public class RingBuffer {
         return bytesRead;
     }
 
+    public int peek() {
+        final AtomicBuffer buffer = this.buffer;
+        final long head = trailer.getLong(headPositionIndex);
+        final long tail = trailer.getLongVolatile(tailPositionIndex);
+
+        while (head + cursorOffset < tail) {
+            final int recordIndex = (int) (head + cursorOffset) & indexMask;
+            final int recordLength = buffer.getIntVolatile(lengthOffset(recordIndex));
+
+            // If this record has not been committed yet, there is nothing to read
+            if (recordLength <= 0) {
+                return NO_MESSAGE;
+            }
+
+            // Move the cursor past this record if it represents padding
+            if (buffer.getInt(typeOffset(recordIndex)) == PADDING_MSG_TYPE_ID) {
+                cursorOffset += align(recordLength, ALIGNMENT);
+                continue;
+            }
+
+            // Return the index of the message at the cursor's position, without moving the cursor
+            cursorRecordLength = align(recordLength, ALIGNMENT);
+            return encodedMsgOffset(recordIndex);
+        }
+
+        return NO_MESSAGE;
+    }
+
+    public int messageTypeId(final int index) {
+        return buffer.getInt(typeOffset(computeRecordIndex(index)));
+    }
+
+    public void skip() {
+        // Move the cursor past the message, that has last been returned by peek()
+        cursorOffset += cursorRecordLength;
+        cursorRecordLength = 0;
+    }
+
+    public void commitSkipped() {
+        // Release all messages the cursor has been moved past
+        if (cursorOffset > 0) {
+            commitRead(cursorOffset);
+            cursorOffset = 0;
+        }
+    }
+
     public void commitRead(final int bytes) {
         final AtomicBuffer buffer = this.buffer;
         final int headPositionIndex = this.headPositionIndex;
-        final long head = buffer.getLong(headPositionIndex);
+        final long head = trailer.getLong(headPositionIndex);
 
-        buffer.putLongOrdered(headPositionIndex, head + bytes);
+        trailer.putLongOrdered(headPositionIndex, head + bytes);
     }
 
     public int tryClaim(final int length) {
+        return tryClaim(length, REQUEST_MESSAGE_ID);
+    }
+
+    public int tryClaim(final int length, final int messageTypeId) {
         final AtomicBuffer buffer = this.buffer;
 
         // Calculate the required size in bytes
@@ -131,7 +259,7 @@ public class RingBuffer {
         // Block claimed space
         buffer.putIntOrdered(lengthOffset(recordIndex), -recordLength);
         UnsafeAccess.UNSAFE.storeFence();
-        buffer.putInt(typeOffset(recordIndex), REQUEST_MESSAGE_ID);
+        buffer.putInt(typeOffset(recordIndex), messageTypeId);
 
         // Return the index at which the producer may write its request
         return encodedMsgOffset(recordIndex);
@@ -161,13 +289,13 @@ public class RingBuffer {
         // Mask used to keep indices within bounds
         final int mask = indexMask;
 
-        long head = buffer.getLongVolatile(headCachePosition);
-        final long tail = buffer.getLongVolatile(tailPositionIndex);
+        long head = trailer.getLongVolatile(headCachePosition);
+        final long tail = trailer.getLongVolatile(tailPositionIndex);
         final int available = total - (int) (tail - head);
 
         if (required > available) { // If the required size is less than the cached available space left
             // Calculate available space using the head position
-            head = buffer.getLongVolatile(headPositionIndex);
+            head = trailer.getLongVolatile(headPositionIndex);
 
             if (required > (total - (int) (tail - head))) {
                 // If the required size is less than the current available space left
@@ -175,7 +303,7 @@ public class RingBuffer {
             }
 
             // Update the cached head position
-            buffer.putLongOrdered(headCachePosition, head);
+            trailer.putLongOrdered(headCachePosition, head);
         }
 
         // At this point we know that there is a chunk of memory at least the size we requested
@@ -191,20 +319,20 @@ public class RingBuffer {
 
             if (required > headIndex) {  // If there is not enough space at the beginning of our buffer
                 // Update our head index for one last try
-                head = buffer.getLongVolatile(headPositionIndex);
+                head = trailer.getLongVolatile(headPositionIndex);
                 headIndex = (int) head & mask;
                 if (required > headIndex) {
                     return INSUFFICIENT_CAPACITY;
                 }
 
                 // Update the cached head position
-                buffer.putLongOrdered(headCachePosition, head);
+                trailer.putLongOrdered(headCachePosition, head);
             }
 
             padding = remaining;
         }
 
-        buffer.putLongOrdered(tailPositionIndex, tail + required + padding);
+        trailer.putLongOrdered(tailPositionIndex, tail + required + padding);
 
         if (padding != 0) {
             buffer.putIntOrdered(lengthOffset(tailIndex), -padding);
@@ -228,12 +356,12 @@ public class RingBuffer {
 
         long headBefore;
         long tail;
-        long headAfter = buffer.getLongVolatile(headPositionIndex);
+        long headAfter = trailer.getLongVolatile(headPositionIndex);
 
         do {
             headBefore = headAfter;
-            tail = buffer.getLongVolatile(tailPositionIndex);
-            headAfter = buffer.getLongVolatile(headPositionIndex);
+            tail = trailer.getLongVolatile(tailPositionIndex);
+            headAfter = trailer.getLongVolatile(headPositionIndex);
         } while (headAfter != headBefore);
 
         final long size = tail - headAfter;
@@ -247,6 +375,24 @@ public class RingBuffer {
         return (int) size;
     }
 
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * The amount of buffer space occupied by a message of the given length, including its header and alignment.
+     */
+    public static int getRecordLength(final int length) {
+        return align(length + HEADER_LENGTH, ALIGNMENT);
+    }
+
+    /**
+     * The maximum length of a message, whose record fits into the given amount of buffer space.
+     */
+    public static int getMaxMessageLength(final int space) {
+        return Math.max((space & ~(ALIGNMENT - 1)) - HEADER_LENGTH, 0);
+    }
+
     public int maxMessageLength() {
         final int remaining = capacity - size();
         final int alignmentAddend = remaining - BitUtil.align(remaining, ALIGNMENT);
@@ -1,7 +1,8 @@
 package de.hhu.bsinfo.hadronio.util;
 
-import java.util.PrimitiveIterator;
-import java.util.Random;
+import org.agrona.collections.LongHashSet;
+
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.zip.CRC32;
 import java.util.zip.Checksum;
 
@@ -9,7 +10,9 @@ public class TagUtil {
 
     public enum MessageType {
         DEFAULT((byte) 0),
-        FLUSH((byte) 1);
+        CREDIT((byte) 1),
+        DIRECT((byte) 2),
+        HANDSHAKE((byte) 3);
 
         private final byte value;
 
@@ -26,7 +29,11 @@ public class TagUtil {
                 case 0:
                     return DEFAULT;
                 case 1:
-                    return FLUSH;
+                    return CREDIT;
+                case 2:
+                    return DIRECT;
+                case 3:
+                    return HANDSHAKE;
                 default:
                     throw new IllegalArgumentException("Invalid message type value " + value + "!");
             }
@@ -35,23 +42,66 @@ public class TagUtil {
 
     public static final long TAG_MASK_FULL = 0xffffffffffffffffL;
 
-    private static final long TAG_MASK_TARGET_ID = 0x00ffffffffffffffL;
-    private static final long TAG_MASK_MESSAGE_TYPE = 0xff00000000000000L;
+    private static final long TAG_MASK_TARGET_ID = 0x000000ffffffffffL;
+    private static final long TAG_MASK_CREDITS = 0x00ffff0000000000L;
+
+    /**
+     * Matches only the message type, which allows receiving messages for any target id.
+     */
+    public static final long TAG_MASK_MESSAGE_TYPE = 0xff00000000000000L;
+
+    /**
+     * Matches message type and target id, while ignoring any credits piggybacked by the sender.
+     */
+    public static final long TAG_MASK_IGNORE_CREDITS = ~TAG_MASK_CREDITS;
+
+    public static final int MAX_CREDITS = (int) (TAG_MASK_CREDITS >>> 40);
 
-    private static final PrimitiveIterator.OfLong tagIterator = new Random().longs(0, TAG_MASK_TARGET_ID).distinct().iterator();
+    /**
+     * Ids of all open channels in this process, which makes ids unique per process and thus also per worker.
+     * Ids are removed, once their channel is closed, so that the set only grows with the number of open channels.
+     * It is only accessed when opening and closing channels, so a lock is sufficient and ids are stored without boxing.
+     */
+    private static final LongHashSet usedIds = new LongHashSet();
 
     private TagUtil() {}
 
-    public static synchronized long generateId() {
-        return tagIterator.nextLong();
+    /**
+     * Generate and reserve a random id. With 40 bit ids, collisions with open channels are rare,
+     * so that a new id is found after a single attempt in almost all cases.
+     */
+    public static long generateId() {
+        synchronized (usedIds) {
+            long id;
+            do {
+                id = randomId();
+            } while (!usedIds.add(id));
+
+            return id;
+        }
+    }
+
+    /**
+     * Release the id of a closed channel, so that it may be used again.
+     */
+    public static void releaseId(final long id) {
+        synchronized (usedIds) {
+            usedIds.remove(id);
+        }
     }
 
-    public static long calculateChecksum(final long tag) {
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong() & TAG_MASK_TARGET_ID;
+    }
+
+    public static long calculateChecksum(final long... tags) {
         final Checksum checksum = new CRC32();
 
-        for (int i = 0; i < Long.BYTES; i++) {
-            final byte currentByte = (byte) (tag >> (i * 8));
-            checksum.update(currentByte);
+        for (final long tag : tags) {
+            for (int i = 0; i < Long.BYTES; i++) {
+                final byte currentByte = (byte) (tag >> (i * 8));
+                checksum.update(currentByte);
+            }
         }
 
         return checksum.getValue();
@@ -65,6 +115,10 @@ public class TagUtil {
         return MessageType.fromByte((byte) ((tag & TAG_MASK_MESSAGE_TYPE) >> 56));
     }
 
+    public static int getCredits(final long tag) {
+        return (int) ((tag & TAG_MASK_CREDITS) >>> 40);
+    }
+
     public static long setTargetId(final long tag, final long targetId) {
         return (tag & ~TAG_MASK_TARGET_ID) | targetId;
     }
@@ -72,4 +126,8 @@ public class TagUtil {
     public static long setMessageType(final long tag, final MessageType messageType) {
         return (tag & ~TAG_MASK_MESSAGE_TYPE) | ((long) messageType.value << 56);
     }
+
+    public static long setCredits(final long tag, final int credits) {
+        return (tag & ~TAG_MASK_CREDITS) | ((long) credits << 40);
+    }
 }
@@ -0,0 +1,81 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.loopback.LoopbackWorker;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationTest {
+
+    private static final int MESSAGE_LENGTH = 1024;
+    private static final int WARMUP_MESSAGES = 100_000;
+    private static final int MESSAGES = 10_000;
+
+    private LoopbackSelectorProvider provider;
+    private HadronioSocketChannel sender;
+    private HadronioSocketChannel receiver;
+    private LoopbackWorker senderWorker;
+    private LoopbackWorker receiverWorker;
+
+    private final ByteBuffer source = ByteBuffer.allocateDirect(MESSAGE_LENGTH);
+    private final ByteBuffer target = ByteBuffer.allocateDirect(MESSAGE_LENGTH);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = new LoopbackSelectorProvider("BUFFER_SLICE_LENGTH=4096");
+        final HadronioSocketChannel[] pair = provider.connectPair(provider.listen(0));
+        sender = pair[0];
+        receiver = pair[1];
+        senderWorker = (LoopbackWorker) sender.getWorker();
+        receiverWorker = (LoopbackWorker) receiver.getWorker();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void sendingAndReceivingDoesNotAllocate() throws IOException {
+        // HotSpot only stops allocating on this path, once the involved methods have been compiled
+        transfer(WARMUP_MESSAGES);
+
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long startAllocatedBytes = threadBean.getThreadAllocatedBytes(threadId);
+        transfer(MESSAGES);
+        final long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+
+        // Send completions, receive completions and credit messages are all handled by this thread
+        assertEquals(0L, allocatedBytes);
+    }
+
+    private void transfer(final int messages) throws IOException {
+        for (int i = 0; i < messages; i++) {
+            source.clear();
+            while (source.hasRemaining()) {
+                sender.write(source);
+                progress();
+            }
+
+            target.clear();
+            while (target.hasRemaining()) {
+                progress();
+                receiver.read(target);
+            }
+        }
+    }
+
+    private void progress() {
+        senderWorker.progress();
+        receiverWorker.progress();
+        sender.select();
+        receiver.select();
+    }
+}
@@ -0,0 +1,134 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.HadronioSocketOptions.Profile;
+import de.hhu.bsinfo.hadronio.util.MessageUtil;
+import java.net.StandardSocketOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelOptionsTest {
+
+    private Configuration configuration;
+    private ChannelOptions options;
+
+    @BeforeEach
+    void setUp() {
+        configuration = Configuration.getInstance();
+        options = new ChannelOptions(configuration);
+    }
+
+    @Test
+    void defaultsAreTakenFromConfiguration() {
+        assertEquals(Profile.DEFAULT, options.get(HadronioSocketOptions.PROFILE));
+        assertEquals(configuration.getSendBufferLength(), options.getSendBufferLength());
+        assertEquals(configuration.getReceiveBufferLength(), options.getReceiveBufferLength());
+        assertEquals(configuration.getBufferSliceLength(), options.getSliceLength());
+        assertEquals(!configuration.isCoalescing(), options.isNoDelay());
+        assertEquals(0, options.getCreditWindow());
+    }
+
+    @Test
+    void sliceLengthExcludesHeaderInOptionOnly() {
+        options.set(HadronioSocketOptions.BUFFER_SLICE_LENGTH, 4096);
+
+        assertEquals(4096, (int) options.get(HadronioSocketOptions.BUFFER_SLICE_LENGTH));
+        assertEquals(4096 + MessageUtil.HEADER_LENGTH, options.getSliceLength());
+    }
+
+    @Test
+    void bufferLengthsAreValidated() {
+        options.set(StandardSocketOptions.SO_SNDBUF, 1024 * 1024);
+        options.set(StandardSocketOptions.SO_RCVBUF, 2 * 1024 * 1024);
+
+        assertEquals(1024 * 1024, (int) options.get(StandardSocketOptions.SO_SNDBUF));
+        assertEquals(2 * 1024 * 1024, options.getReceiveBufferLength());
+
+        assertThrows(IllegalArgumentException.class, () -> options.set(StandardSocketOptions.SO_SNDBUF, 1000 * 1000));
+        assertThrows(IllegalArgumentException.class, () -> options.set(StandardSocketOptions.SO_RCVBUF, 64));
+        assertThrows(IllegalArgumentException.class, () -> options.set(HadronioSocketOptions.BUFFER_SLICE_LENGTH, 1024 * 1024));
+        assertEquals(1024 * 1024, options.getSendBufferLength());
+    }
+
+    @Test
+    void creditWindowMustNotBeNegative() {
+        options.set(HadronioSocketOptions.CREDIT_WINDOW, 8);
+
+        assertEquals(8, options.getCreditWindow());
+        assertThrows(IllegalArgumentException.class, () -> options.set(HadronioSocketOptions.CREDIT_WINDOW, -1));
+        assertEquals(8, (int) options.get(HadronioSocketOptions.CREDIT_WINDOW));
+    }
+
+    @Test
+    void latencyProfileUsesSmallBuffers() {
+        options.set(HadronioSocketOptions.CREDIT_WINDOW, 8);
+        options.set(HadronioSocketOptions.PROFILE, Profile.LATENCY);
+
+        assertEquals(Profile.LATENCY, options.get(HadronioSocketOptions.PROFILE));
+        assertEquals(128 * 1024, options.getSendBufferLength());
+        assertEquals(128 * 1024, options.getReceiveBufferLength());
+        assertEquals(8 * 1024, (int) options.get(HadronioSocketOptions.BUFFER_SLICE_LENGTH));
+        assertTrue(options.isNoDelay());
+        assertEquals(0, options.getCreditWindow());
+    }
+
+    @Test
+    void bulkProfileUsesLargeBuffers() {
+        options.set(HadronioSocketOptions.PROFILE, Profile.BULK);
+
+        assertEquals(32 * 1024 * 1024, options.getSendBufferLength());
+        assertEquals(32 * 1024 * 1024, options.getReceiveBufferLength());
+        assertEquals(512 * 1024, (int) options.get(HadronioSocketOptions.BUFFER_SLICE_LENGTH));
+        assertFalse(options.isNoDelay());
+    }
+
+    @Test
+    void defaultProfileRestoresConfiguration() {
+        options.set(HadronioSocketOptions.PROFILE, Profile.BULK);
+        options.set(HadronioSocketOptions.PROFILE, Profile.DEFAULT);
+
+        assertEquals(configuration.getSendBufferLength(), options.getSendBufferLength());
+        assertEquals(configuration.getBufferSliceLength(), options.getSliceLength());
+    }
+
+    @Test
+    void noDelayIsNoBufferOption() {
+        options.set(StandardSocketOptions.TCP_NODELAY, true);
+
+        assertTrue(options.get(StandardSocketOptions.TCP_NODELAY));
+        assertFalse(ChannelOptions.isBufferOption(StandardSocketOptions.TCP_NODELAY));
+        assertTrue(ChannelOptions.isBufferOption(StandardSocketOptions.SO_SNDBUF));
+        assertTrue(ChannelOptions.isBufferOption(HadronioSocketOptions.PROFILE));
+    }
+
+    @Test
+    void unsupportedOptionIsRejected() {
+        assertThrows(UnsupportedOperationException.class, () -> options.set(StandardSocketOptions.SO_REUSEADDR, true));
+        assertThrows(UnsupportedOperationException.class, () -> options.get(StandardSocketOptions.SO_LINGER));
+    }
+
+    @Test
+    void adoptedSliceLengthEnlargesBuffers() {
+        options.set(HadronioSocketOptions.PROFILE, Profile.LATENCY);
+
+        final int sliceLength = 256 * 1024 + MessageUtil.HEADER_LENGTH;
+        options.adoptSliceLength(sliceLength);
+
+        assertEquals(sliceLength, options.getSliceLength());
+        assertEquals(2 * (sliceLength - MessageUtil.HEADER_LENGTH), options.getSendBufferLength());
+        assertEquals(2 * (sliceLength - MessageUtil.HEADER_LENGTH), options.getReceiveBufferLength());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        options.set(HadronioSocketOptions.CREDIT_WINDOW, 4);
+
+        final ChannelOptions copy = new ChannelOptions(options);
+        copy.set(HadronioSocketOptions.CREDIT_WINDOW, 16);
+
+        assertEquals(4, options.getCreditWindow());
+        assertEquals(16, copy.getCreditWindow());
+        assertEquals(options.getSliceLength(), copy.getSliceLength());
+    }
+}
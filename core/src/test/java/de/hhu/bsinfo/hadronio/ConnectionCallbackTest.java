@@ -0,0 +1,93 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.util.MemoryUtil;
+import de.hhu.bsinfo.hadronio.util.TagUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionCallbackTest {
+
+    private static final long CONNECTOR_ID = 0x0000001234567890L;
+    private static final long ACCEPTOR_ID = 0x000000fedcba0987L;
+    private static final int SLICE_LENGTH = 64 * 1024;
+    private static final int CREDIT_LENGTH = 256;
+    private static final int CREDITS = 1024;
+    private static final int RECEIVE_BUFFER_LENGTH = 8 * 1024 * 1024;
+
+    private AtomicBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = MemoryUtil.allocateAligned(ConnectionCallback.MESSAGE_LENGTH, MemoryUtil.Alignment.CACHE);
+    }
+
+    @Test
+    void writtenMessageIsValid() {
+        ConnectionCallback.writeMessage(buffer, CONNECTOR_ID, ACCEPTOR_ID, SLICE_LENGTH, CREDIT_LENGTH, CREDITS, RECEIVE_BUFFER_LENGTH);
+
+        assertTrue(ConnectionCallback.checkMessage(buffer));
+        assertEquals(CONNECTOR_ID, buffer.getLong(ConnectionCallback.OFFSET_CONNECTOR_ID));
+        assertEquals(ACCEPTOR_ID, buffer.getLong(ConnectionCallback.OFFSET_ACCEPTOR_ID));
+        assertEquals(SLICE_LENGTH, buffer.getLong(ConnectionCallback.OFFSET_SLICE_LENGTH));
+        assertEquals(CREDIT_LENGTH, buffer.getLong(ConnectionCallback.OFFSET_CREDIT_LENGTH));
+        assertEquals(CREDITS, buffer.getLong(ConnectionCallback.OFFSET_CREDITS));
+        assertEquals(RECEIVE_BUFFER_LENGTH, buffer.getLong(ConnectionCallback.OFFSET_RECEIVE_BUFFER_LENGTH));
+    }
+
+    @Test
+    void messageFitsIntoBuffer() {
+        assertTrue(ConnectionCallback.OFFSET_RECEIVE_BUFFER_LENGTH + Long.BYTES <= ConnectionCallback.MESSAGE_LENGTH);
+        assertTrue(ConnectionCallback.OFFSET_CREDITS + Long.BYTES <= ConnectionCallback.MESSAGE_LENGTH);
+        assertTrue(ConnectionCallback.OFFSET_CREDIT_LENGTH + Long.BYTES <= ConnectionCallback.MESSAGE_LENGTH);
+        assertTrue(ConnectionCallback.OFFSET_SLICE_LENGTH + Long.BYTES <= ConnectionCallback.MESSAGE_LENGTH);
+    }
+
+    @Test
+    void rejectionIsValid() {
+        ConnectionCallback.writeMessage(buffer, CONNECTOR_ID, 0, 0, 0, 0, 0);
+
+        assertTrue(ConnectionCallback.checkMessage(buffer));
+        assertEquals(0, buffer.getLong(ConnectionCallback.OFFSET_SLICE_LENGTH));
+    }
+
+    @Test
+    void corruptedChecksumIsDetected() {
+        ConnectionCallback.writeMessage(buffer, CONNECTOR_ID, ACCEPTOR_ID, SLICE_LENGTH, CREDIT_LENGTH, CREDITS, RECEIVE_BUFFER_LENGTH);
+        buffer.putLong(ConnectionCallback.OFFSET_CHECKSUM, buffer.getLong(ConnectionCallback.OFFSET_CHECKSUM) ^ 1);
+
+        assertFalse(ConnectionCallback.checkMessage(buffer));
+    }
+
+    @Test
+    void corruptedFieldsAreDetected() {
+        final int[] offsets = { ConnectionCallback.OFFSET_CONNECTOR_ID, ConnectionCallback.OFFSET_ACCEPTOR_ID,
+                ConnectionCallback.OFFSET_SLICE_LENGTH, ConnectionCallback.OFFSET_CREDIT_LENGTH, ConnectionCallback.OFFSET_CREDITS,
+                ConnectionCallback.OFFSET_RECEIVE_BUFFER_LENGTH };
+
+        for (final int offset : offsets) {
+            ConnectionCallback.writeMessage(buffer, CONNECTOR_ID, ACCEPTOR_ID, SLICE_LENGTH, CREDIT_LENGTH, CREDITS, RECEIVE_BUFFER_LENGTH);
+            buffer.putLong(offset, buffer.getLong(offset) + 1);
+
+            assertFalse(ConnectionCallback.checkMessage(buffer));
+        }
+    }
+
+    @Test
+    void emptyBufferIsInvalid() {
+        buffer.setMemory(0, ConnectionCallback.MESSAGE_LENGTH, (byte) 0);
+
+        assertFalse(ConnectionCallback.checkMessage(buffer));
+    }
+
+    @Test
+    void replyTagIsHandshakeForConnector() {
+        final long tag = ConnectionCallback.getReplyTag(CONNECTOR_ID);
+
+        assertEquals(TagUtil.MessageType.HANDSHAKE, TagUtil.getMessageType(tag));
+        assertEquals(CONNECTOR_ID, TagUtil.getTargetId(tag));
+        assertEquals(0, TagUtil.getCredits(tag));
+    }
+}
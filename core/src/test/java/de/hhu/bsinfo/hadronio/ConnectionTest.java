@@ -0,0 +1,130 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.loopback.LoopbackWorker;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionTest {
+
+    private LoopbackSelectorProvider provider;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void acceptedChannelCanWriteBeforeConnectorProgresses() throws IOException {
+        assertAcceptorWritableAfterHandshake("BUFFER_SLICE_LENGTH=4096");
+    }
+
+    @Test
+    void acceptedChannelCanWriteBeforeConnectorProgressesWithProbedReceives() throws IOException {
+        assertAcceptorWritableAfterHandshake("BUFFER_SLICE_LENGTH=4096", "PROBE_RECEIVES=true");
+    }
+
+    @Test
+    void acceptedChannelCanWriteBeforeConnectorProgressesWithSharedReceivePool() throws IOException {
+        assertAcceptorWritableAfterHandshake("BUFFER_SLICE_LENGTH=4096", "SHARED_RECEIVE_POOL_LENGTH=262144");
+    }
+
+    @Test
+    void connectorCanWriteOnceConnected() throws IOException {
+        provider = new LoopbackSelectorProvider("BUFFER_SLICE_LENGTH=4096");
+        final HadronioServerSocketChannel serverChannel = provider.listen(0);
+        final HadronioSocketChannel[] pair = provider.connectPair(serverChannel);
+
+        // The reply has carried the accepting channel's credits, so no further message is needed
+        pair[0].select();
+        assertEquals(SelectionKey.OP_WRITE, pair[0].readyOps() & SelectionKey.OP_WRITE);
+
+        transfer(pair[0], pair[1]);
+        transfer(pair[1], pair[0]);
+    }
+
+    @Test
+    void connectingToUnboundAddressFails() throws IOException {
+        provider = new LoopbackSelectorProvider();
+        final HadronioSocketChannel channel = provider.openSocketChannel();
+        channel.configureBlocking(false);
+        channel.connect(new InetSocketAddress(provider.address.getAddress(), provider.address.getPort() + 10000));
+
+        provider.await(() -> (channel.readyOps() & SelectionKey.OP_CONNECT) != 0, channel);
+        assertThrows(IOException.class, channel::finishConnect);
+    }
+
+    @Test
+    void connectionIsRejectedIfBacklogIsFull() throws IOException {
+        provider = new LoopbackSelectorProvider();
+        provider.listen(1);
+
+        final HadronioSocketChannel first = provider.connect();
+        final HadronioSocketChannel second = provider.connect();
+        provider.await(() -> (second.readyOps() & SelectionKey.OP_CONNECT) != 0, first, second);
+        assertThrows(IOException.class, second::finishConnect);
+    }
+
+    private void assertAcceptorWritableAfterHandshake(final String... properties) throws IOException {
+        provider = new LoopbackSelectorProvider(properties);
+        final HadronioServerSocketChannel serverChannel = provider.listen(0);
+        final HadronioSocketChannel connector = provider.connect();
+        final HadronioSocketChannel acceptor = provider.accept(serverChannel);
+
+        // Only the accepting side is progressed, so credits can only come from the connecting channel's handshake message
+        final LoopbackWorker acceptorWorker = (LoopbackWorker) acceptor.getWorker();
+        final long deadline = System.nanoTime() + 5_000_000_000L;
+        while ((acceptor.readyOps() & SelectionKey.OP_WRITE) == 0) {
+            assertTrue(System.nanoTime() < deadline, "Accepted channel has not become writable in time!");
+            acceptorWorker.progress();
+            acceptor.select();
+        }
+
+        final ByteBuffer source = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+        assertEquals(4, acceptor.write(source));
+
+        provider.await(() -> LoopbackSelectorProvider.finishConnect(connector), connector, acceptor);
+        final ByteBuffer target = ByteBuffer.allocate(4);
+        provider.await(() -> {
+            try {
+                connector.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, connector, acceptor);
+
+        assertArrayEquals(source.array(), target.array());
+    }
+
+    private void transfer(final HadronioSocketChannel sender, final HadronioSocketChannel receiver) throws IOException {
+        final ByteBuffer source = ByteBuffer.allocate(64);
+        for (int i = 0; i < source.capacity(); i++) {
+            source.put((byte) i);
+        }
+
+        source.flip();
+        provider.await(() -> (sender.readyOps() & SelectionKey.OP_WRITE) != 0, sender, receiver);
+        assertEquals(64, sender.write(source));
+
+        final ByteBuffer target = ByteBuffer.allocate(64);
+        provider.await(() -> {
+            try {
+                receiver.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, sender, receiver);
+
+        assertArrayEquals(source.array(), target.array());
+    }
+}
@@ -0,0 +1,107 @@
+package de.hhu.bsinfo.hadronio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditTest {
+
+    private static final int CREDIT_WINDOW = 8;
+    private static final int CREDIT_MESSAGE_THRESHOLD = CREDIT_WINDOW / 4;
+
+    private LoopbackSelectorProvider provider;
+    private HadronioSocketChannel sender;
+    private HadronioSocketChannel receiver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = new LoopbackSelectorProvider("BUFFER_SLICE_LENGTH=4096");
+        final HadronioServerSocketChannel serverChannel = provider.listen(0);
+        receiver = provider.openSocketChannel();
+        receiver.configureBlocking(false);
+        receiver.setOption(HadronioSocketOptions.CREDIT_WINDOW, CREDIT_WINDOW);
+        receiver.connect(provider.address);
+
+        sender = provider.accept(serverChannel);
+        provider.await(() -> LoopbackSelectorProvider.finishConnect(receiver), receiver, sender);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void senderIsLimitedToCreditWindow() throws IOException {
+        // The receiver does not read, so it never returns any credits
+        assertEquals(CREDIT_WINDOW, writeMessages());
+        assertEquals(0, writeMessages());
+
+        final ByteBuffer target = ByteBuffer.allocate(CREDIT_WINDOW);
+        read(target);
+        for (int i = 0; i < CREDIT_WINDOW; i++) {
+            assertEquals((byte) i, target.get(i));
+        }
+    }
+
+    @Test
+    void creditsAreSentOnceThresholdIsReached() throws IOException {
+        assertEquals(CREDIT_WINDOW, writeMessages());
+
+        // There is no traffic in the other direction, so credits need to be sent in separate credit messages,
+        // which are only sent for a quarter of the window at once
+        for (int i = 0; i < CREDIT_MESSAGE_THRESHOLD - 1; i++) {
+            read(ByteBuffer.allocate(1));
+            assertEquals(0, writeMessages());
+        }
+
+        read(ByteBuffer.allocate(1));
+        assertEquals(CREDIT_MESSAGE_THRESHOLD, writeMessages());
+    }
+
+    @Test
+    void creditsArePiggybackedOnMessages() throws IOException {
+        assertEquals(CREDIT_WINDOW, writeMessages());
+        read(ByteBuffer.allocate(1));
+
+        // The read slice is posted again, once the receiver is selected, which yields a single credit below the threshold
+        assertEquals(0, writeMessages());
+
+        // A message from the receiver carries that credit
+        assertEquals(1, receiver.write(ByteBuffer.wrap(new byte[] { 0 })));
+        assertEquals(1, writeMessages());
+    }
+
+    /**
+     * Write single byte messages, until the sender has run out of credits.
+     *
+     * @return The amount of messages written
+     */
+    private int writeMessages() throws IOException {
+        int messages = 0;
+        for (int i = 0; i < 100; i++) {
+            provider.progress(sender, receiver);
+            if (sender.write(ByteBuffer.wrap(new byte[] { (byte) messages })) > 0) {
+                messages++;
+            }
+        }
+
+        return messages;
+    }
+
+    private void read(final ByteBuffer target) {
+        provider.await(() -> {
+            try {
+                receiver.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, sender, receiver);
+    }
+}
@@ -0,0 +1,109 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.loopback.LoopbackWorker;
+import de.hhu.bsinfo.hadronio.util.MessageUtil;
+import de.hhu.bsinfo.hadronio.util.RingBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElasticBufferTest {
+
+    private static final int INITIAL_BUFFER_LENGTH = 16 * 1024;
+    private static final int SHRINK_TIMEOUT = 100;
+    private static final int SLICE_LENGTH = 4096;
+
+    private static final int INITIAL_SLICES = INITIAL_BUFFER_LENGTH / RingBuffer.getRecordLength(SLICE_LENGTH + MessageUtil.HEADER_LENGTH);
+
+    // Besides its slices, each channel keeps a single receive request for credit messages posted
+    private static final int INITIAL_RECEIVES = INITIAL_SLICES + 1;
+
+    private LoopbackSelectorProvider provider;
+    private HadronioSocketChannel sender;
+    private HadronioSocketChannel receiver;
+    private LoopbackWorker receiverWorker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = new LoopbackSelectorProvider("INITIAL_BUFFER_LENGTH=" + INITIAL_BUFFER_LENGTH, "BUFFER_SHRINK_TIMEOUT=" + SHRINK_TIMEOUT,
+                "SEND_BUFFER_LENGTH=131072", "RECEIVE_BUFFER_LENGTH=131072", "BUFFER_SLICE_LENGTH=" + SLICE_LENGTH);
+        final HadronioSocketChannel[] pair = provider.connectPair(provider.listen(0));
+        sender = pair[0];
+        receiver = pair[1];
+        receiverWorker = (LoopbackWorker) receiver.getWorker();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void receiveBufferGrowsWhileApplicationLagsBehind() throws IOException {
+        assertEquals(INITIAL_RECEIVES, receiverWorker.getPostedReceives());
+
+        // The receiver does not read, so it posts slices in a larger buffer, once half of its slices have been filled
+        final int firstRound = transfer();
+        assertTrue(firstRound > INITIAL_SLICES);
+
+        // The larger buffer stays in use and grows again, if the application still lags behind
+        assertTrue(receiverWorker.getPostedReceives() > INITIAL_RECEIVES);
+        assertTrue(transfer() > firstRound);
+    }
+
+    @Test
+    void idleReceiveBufferShrinks() throws IOException, InterruptedException {
+        transfer();
+        transfer();
+        assertTrue(receiverWorker.getPostedReceives() > INITIAL_RECEIVES);
+
+        // The posted slices of the grown buffer are cancelled and replaced by the slices of a buffer with the initial length
+        Thread.sleep(2 * SHRINK_TIMEOUT);
+        provider.await(() -> receiverWorker.getPostedReceives() == INITIAL_RECEIVES, sender, receiver);
+
+        // The shrunk buffer grows again on demand
+        assertTrue(transfer() > INITIAL_SLICES);
+    }
+
+    /**
+     * Write messages of a full slice, until the sender has run out of credits, and read all of them afterwards.
+     *
+     * @return The amount of messages written before the sender ran out of credits
+     */
+    private int transfer() throws IOException {
+        int messages = 0;
+        for (int i = 0; i < 100; i++) {
+            provider.progress(sender, receiver);
+
+            final ByteBuffer source = ByteBuffer.allocate(SLICE_LENGTH);
+            source.put(0, (byte) messages);
+            if (sender.write(source) > 0) {
+                messages++;
+            }
+        }
+
+        final ByteBuffer target = ByteBuffer.allocate(messages * SLICE_LENGTH);
+        provider.await(() -> {
+            try {
+                receiver.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, sender, receiver);
+
+        for (int i = 0; i < messages; i++) {
+            assertEquals((byte) i, target.get(i * SLICE_LENGTH));
+        }
+
+        // Read slices are posted again, once the receiver is selected
+        provider.progress(sender, receiver);
+        return messages;
+    }
+}
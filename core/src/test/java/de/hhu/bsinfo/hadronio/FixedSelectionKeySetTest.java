@@ -0,0 +1,168 @@
+package de.hhu.bsinfo.hadronio;
+
+import java.nio.channels.SelectionKey;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedSelectionKeySetTest {
+
+    private HadronioSelector.FixedSelectionKeySet keySet;
+
+    @BeforeEach
+    void setUp() {
+        keySet = new HadronioSelector.FixedSelectionKeySet();
+    }
+
+    private HadronioSelectionKey[] addKeys(final int count) {
+        final HadronioSelectionKey[] keys = new HadronioSelectionKey[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = new HadronioSelectionKey(null, null);
+            keySet.addKey(keys[i]);
+        }
+
+        return keys;
+    }
+
+    @Test
+    void addKeyStoresIndex() {
+        final HadronioSelectionKey[] keys = addKeys(3);
+
+        assertEquals(3, keySet.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, keys[i].getSelectedIndex());
+            assertTrue(keySet.contains(keys[i]));
+        }
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        final HadronioSelectionKey[] keys = addKeys(100);
+
+        assertEquals(100, keySet.size());
+        for (final HadronioSelectionKey key : keys) {
+            assertTrue(keySet.contains(key));
+        }
+    }
+
+    @Test
+    void containsRejectsForeignKeys() {
+        addKeys(2);
+
+        assertFalse(keySet.contains(new HadronioSelectionKey(null, null)));
+        assertFalse(keySet.contains(new Object()));
+        assertFalse(keySet.contains(null));
+    }
+
+    @Test
+    void addIsUnsupported() {
+        assertThrows(UnsupportedOperationException.class, () -> keySet.add(new HadronioSelectionKey(null, null)));
+        assertThrows(UnsupportedOperationException.class, () -> keySet.addAll(new HashSet<>()));
+    }
+
+    @Test
+    void removeMovesLastKeyIntoPlace() {
+        final HadronioSelectionKey[] keys = addKeys(3);
+
+        assertTrue(keySet.remove(keys[0]));
+        assertFalse(keySet.remove(keys[0]));
+
+        assertEquals(2, keySet.size());
+        assertEquals(-1, keys[0].getSelectedIndex());
+        assertEquals(0, keys[2].getSelectedIndex());
+        assertEquals(1, keys[1].getSelectedIndex());
+        assertFalse(keySet.contains(keys[0]));
+        assertTrue(keySet.contains(keys[1]));
+        assertTrue(keySet.contains(keys[2]));
+    }
+
+    @Test
+    void clearResetsIndices() {
+        final HadronioSelectionKey[] keys = addKeys(4);
+
+        keySet.clear();
+
+        assertEquals(0, keySet.size());
+        for (final HadronioSelectionKey key : keys) {
+            assertEquals(-1, key.getSelectedIndex());
+            assertFalse(keySet.contains(key));
+        }
+    }
+
+    @Test
+    void iteratorVisitsAllKeys() {
+        final HadronioSelectionKey[] keys = addKeys(5);
+        final Set<SelectionKey> visited = new HashSet<>();
+
+        for (final SelectionKey key : keySet) {
+            assertTrue(visited.add(key));
+        }
+
+        assertEquals(keys.length, visited.size());
+    }
+
+    @Test
+    void iteratorRemoveVisitsEveryKey() {
+        addKeys(5);
+        final Set<SelectionKey> visited = new HashSet<>();
+
+        final Iterator<SelectionKey> iterator = keySet.iterator();
+        while (iterator.hasNext()) {
+            assertTrue(visited.add(iterator.next()));
+            iterator.remove();
+        }
+
+        assertEquals(5, visited.size());
+        assertEquals(0, keySet.size());
+    }
+
+    @Test
+    void iteratorRemoveRequiresNext() {
+        addKeys(1);
+
+        final Iterator<SelectionKey> iterator = keySet.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+
+        iterator.next();
+        iterator.remove();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void iteratorIsReused() {
+        addKeys(2);
+
+        final Iterator<SelectionKey> first = keySet.iterator();
+        while (first.hasNext()) {
+            first.next();
+        }
+
+        assertSame(first, keySet.iterator());
+    }
+
+    @Test
+    void iterationRestartsAfterEarlyExit() {
+        addKeys(3);
+
+        // Stop after the first key, like a select loop leaving via break or an exception
+        final Iterator<SelectionKey> abandoned = keySet.iterator();
+        abandoned.next();
+
+        final Set<SelectionKey> visited = new HashSet<>();
+        final Iterator<SelectionKey> iterator = keySet.iterator();
+        assertSame(abandoned, iterator);
+        assertThrows(IllegalStateException.class, iterator::remove);
+
+        while (iterator.hasNext()) {
+            assertTrue(visited.add(iterator.next()));
+        }
+
+        assertEquals(3, visited.size());
+    }
+}
@@ -0,0 +1,190 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
+import de.hhu.bsinfo.hadronio.loopback.LoopbackProvider;
+import de.hhu.bsinfo.hadronio.loopback.LoopbackWorker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Opens channels and selectors like {@link HadronioProvider}, but connects them via a {@link LoopbackProvider}, using its own configuration.
+ * Each instance listens on an address of its own, since listener and endpoint groups are shared by all channels using the same address.
+ */
+class LoopbackSelectorProvider extends SelectorProvider implements Closeable {
+
+    private static final String PROPERTY_PREFIX = "de.hhu.bsinfo.hadronio.Configuration.";
+    private static final AtomicInteger nextPort = new AtomicInteger(20000);
+    private static final long TIMEOUT = 5_000_000_000L;
+
+    final LoopbackProvider ucxProvider;
+    final Configuration configuration;
+    final LoopbackWorker sharedWorker;
+    final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), nextPort.getAndIncrement());
+
+    private final List<Closeable> closeables = new ArrayList<>();
+
+    /**
+     * @param properties Configuration values as 'KEY=value', with KEY being the name of the property without its prefix
+     */
+    LoopbackSelectorProvider(final String... properties) {
+        this(EnumSet.allOf(UcxCapability.class), properties);
+    }
+
+    LoopbackSelectorProvider(final Set<UcxCapability> capabilities, final String... properties) {
+        final Properties configurationProperties = new Properties();
+        configurationProperties.setProperty(PROPERTY_PREFIX + "PROVIDER_CLASS", LoopbackProvider.class.getName());
+        for (final String property : properties) {
+            final String[] keyValue = property.split("=", 2);
+            configurationProperties.setProperty(PROPERTY_PREFIX + keyValue[0], keyValue[1]);
+        }
+
+        ucxProvider = new LoopbackProvider(capabilities);
+        configuration = Configuration.fromProperties(configurationProperties);
+        configuration.applyCapabilities(ucxProvider.getCapabilities());
+        sharedWorker = configuration.isSharedReceivePool() ? ucxProvider.createWorker() : null;
+    }
+
+    @Override
+    public DatagramChannel openDatagramChannel() {
+        throw new UnsupportedOperationException("Operation not supported!");
+    }
+
+    @Override
+    public DatagramChannel openDatagramChannel(final ProtocolFamily protocolFamily) {
+        throw new UnsupportedOperationException("Operation not supported!");
+    }
+
+    @Override
+    public Pipe openPipe() {
+        throw new UnsupportedOperationException("Operation not supported!");
+    }
+
+    @Override
+    public HadronioSelector openSelector() {
+        return track(new HadronioSelector(this, configuration));
+    }
+
+    @Override
+    public HadronioServerSocketChannel openServerSocketChannel() {
+        return track(new HadronioServerSocketChannel(this, sharedWorker != null ? ucxProvider.createListener(sharedWorker) : ucxProvider.createListener(), configuration));
+    }
+
+    @Override
+    public HadronioSocketChannel openSocketChannel() {
+        return track(new HadronioSocketChannel(this, ucxProvider, sharedWorker, new ChannelOptions(configuration)));
+    }
+
+    HadronioServerSocketChannel listen(final int backlog) throws IOException {
+        final HadronioServerSocketChannel serverChannel = openServerSocketChannel();
+        serverChannel.bind(address, backlog);
+        serverChannel.configureBlocking(false);
+        return serverChannel;
+    }
+
+    /**
+     * Start connecting a non-blocking channel to this provider's address.
+     */
+    HadronioSocketChannel connect() throws IOException {
+        final HadronioSocketChannel channel = openSocketChannel();
+        channel.configureBlocking(false);
+        channel.connect(address);
+        return channel;
+    }
+
+    /**
+     * Accept the next connection request, progressing all workers until it has arrived.
+     * The accepted channel is configured to be non-blocking.
+     */
+    HadronioSocketChannel accept(final HadronioServerSocketChannel serverChannel) throws IOException {
+        final long deadline = System.nanoTime() + TIMEOUT;
+        while (System.nanoTime() < deadline) {
+            serverChannel.select();
+            final HadronioSocketChannel channel = (HadronioSocketChannel) serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                return track(channel);
+            }
+
+            ucxProvider.progress();
+        }
+
+        throw new AssertionError("No connection request has arrived in time!");
+    }
+
+    /**
+     * Connect a new channel to a channel accepted via the given server channel and wait for both handshakes to complete.
+     *
+     * @return The connecting channel at index 0 and the accepted channel at index 1
+     */
+    HadronioSocketChannel[] connectPair(final HadronioServerSocketChannel serverChannel) throws IOException {
+        final HadronioSocketChannel connector = connect();
+        final HadronioSocketChannel acceptor = accept(serverChannel);
+        await(() -> finishConnect(connector), connector, acceptor);
+        return new HadronioSocketChannel[] { connector, acceptor };
+    }
+
+    static boolean finishConnect(final HadronioSocketChannel channel) {
+        try {
+            return channel.finishConnect();
+        } catch (IOException e) {
+            throw new AssertionError("Failed to connect channel!", e);
+        }
+    }
+
+    /**
+     * Progress all workers once and select all given channels afterwards, like a selector would do.
+     */
+    void progress(final HadronioSelectableChannel... channels) {
+        ucxProvider.progress();
+        for (final HadronioSelectableChannel channel : channels) {
+            channel.select();
+        }
+    }
+
+    /**
+     * Progress all workers and select all given channels, until the condition is fulfilled.
+     */
+    void await(final BooleanSupplier condition, final HadronioSelectableChannel... channels) {
+        final long deadline = System.nanoTime() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition has not been fulfilled in time!");
+            }
+
+            progress(channels);
+        }
+    }
+
+    <T extends Closeable> T track(final T closeable) {
+        closeables.add(closeable);
+        return closeable;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (int i = closeables.size() - 1; i >= 0; i--) {
+            closeables.get(i).close();
+        }
+
+        if (sharedWorker != null) {
+            SharedReceivePool.close(sharedWorker);
+            sharedWorker.close();
+        }
+
+        ucxProvider.close();
+    }
+}
@@ -0,0 +1,96 @@
+package de.hhu.bsinfo.hadronio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiplexedConnectionTest {
+
+    private LoopbackSelectorProvider provider;
+    private HadronioServerSocketChannel serverChannel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = new LoopbackSelectorProvider("MULTIPLEX_CONNECTIONS=true", "SEND_BUFFER_LENGTH=65536", "RECEIVE_BUFFER_LENGTH=65536", "BUFFER_SLICE_LENGTH=4096");
+        serverChannel = provider.listen(1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void channelsShareOneEndpointWorker() throws IOException {
+        final HadronioSocketChannel[] first = provider.connectPair(serverChannel);
+        final HadronioSocketChannel[] second = provider.connectPair(serverChannel);
+
+        assertSame(first[0].getWorker(), second[0].getWorker());
+        assertSame(first[1].getWorker(), second[1].getWorker());
+    }
+
+    @Test
+    void rejectedChannelFailsToConnect() throws IOException {
+        final HadronioSocketChannel[] first = provider.connectPair(serverChannel);
+
+        // The second channel fills the backlog, so the third one is rejected by the handshake listener
+        final HadronioSocketChannel second = provider.connect();
+        final HadronioSocketChannel third = provider.connect();
+        provider.await(() -> (third.readyOps() & SelectionKey.OP_CONNECT) != 0, first[0], first[1], second, third);
+        assertThrows(IOException.class, third::finishConnect);
+
+        // The listener keeps receiving handshake messages after rejecting one
+        final HadronioSocketChannel secondAccepted = provider.accept(serverChannel);
+        provider.await(() -> LoopbackSelectorProvider.finishConnect(second), second, secondAccepted);
+        final HadronioSocketChannel[] fourth = provider.connectPair(serverChannel);
+
+        transfer(second, secondAccepted);
+        transfer(fourth[0], fourth[1]);
+    }
+
+    @Test
+    void closedChannelIsReadAsEndOfStream() throws IOException {
+        final HadronioSocketChannel[] first = provider.connectPair(serverChannel);
+        final HadronioSocketChannel[] second = provider.connectPair(serverChannel);
+
+        second[0].close();
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        provider.await(() -> (second[1].readyOps() & SelectionKey.OP_READ) != 0, first[0], first[1], second[1]);
+        assertEquals(-1, second[1].read(buffer));
+
+        // The connection stays open for the other channel
+        transfer(first[0], first[1]);
+        transfer(first[1], first[0]);
+    }
+
+    private void transfer(final HadronioSocketChannel sender, final HadronioSocketChannel receiver) throws IOException {
+        provider.await(() -> (sender.readyOps() & SelectionKey.OP_WRITE) != 0, sender, receiver);
+
+        final ByteBuffer source = ByteBuffer.allocate(64);
+        for (int i = 0; i < source.capacity(); i++) {
+            source.put((byte) i);
+        }
+
+        source.flip();
+        assertEquals(64, sender.write(source));
+
+        final ByteBuffer target = ByteBuffer.allocate(64);
+        provider.await(() -> {
+            try {
+                receiver.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, sender, receiver);
+
+        target.flip();
+        assertEquals(source.flip(), target);
+    }
+}
@@ -0,0 +1,88 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.util.MessageUtil;
+import de.hhu.bsinfo.hadronio.util.RingBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProbeReceiveTest {
+
+    private static final int RECEIVE_BUFFER_LENGTH = 16 * 1024;
+    private static final int MESSAGE_LENGTH = 1000;
+
+    // In probe mode, each credit stands for 256 bytes of the receive buffer
+    private static final int CREDIT_LENGTH = 256;
+    private static final int WINDOW = RECEIVE_BUFFER_LENGTH / CREDIT_LENGTH;
+    private static final int RECORD_LENGTH = RingBuffer.getRecordLength(MESSAGE_LENGTH + MessageUtil.HEADER_LENGTH);
+    private static final int MESSAGE_CREDITS = HadronioSocketChannel.getRequiredCredits(MESSAGE_LENGTH + MessageUtil.HEADER_LENGTH, CREDIT_LENGTH);
+
+    private LoopbackSelectorProvider provider;
+    private HadronioSocketChannel sender;
+    private HadronioSocketChannel receiver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = new LoopbackSelectorProvider("PROBE_RECEIVES=true", "SEND_BUFFER_LENGTH=1048576", "RECEIVE_BUFFER_LENGTH=" + RECEIVE_BUFFER_LENGTH, "BUFFER_SLICE_LENGTH=4096");
+        final HadronioSocketChannel[] pair = provider.connectPair(provider.listen(0));
+        sender = pair[0];
+        receiver = pair[1];
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void messagesOccupyOnlyTheirLength() throws IOException {
+        // The receiver does not read, so the receive buffer fills up with probed messages,
+        // while the credits returned for them allow as many further messages to wait inside UCX, as fit into the window
+        assertEquals(RECEIVE_BUFFER_LENGTH / RECORD_LENGTH + WINDOW / MESSAGE_CREDITS, writeMessages());
+        assertEquals(0, writeMessages());
+    }
+
+    @Test
+    void readBytesAreCredited() throws IOException {
+        writeMessages();
+
+        // Reading frees space for as many waiting messages, which are then probed and credited in turn
+        final int readMessages = RECEIVE_BUFFER_LENGTH / RECORD_LENGTH / 2;
+        read(ByteBuffer.allocate(readMessages * MESSAGE_LENGTH));
+        assertEquals(readMessages, writeMessages());
+    }
+
+    /**
+     * Write messages, until the sender has run out of credits.
+     *
+     * @return The amount of messages written
+     */
+    private int writeMessages() throws IOException {
+        int messages = 0;
+        for (int i = 0; i < 100; i++) {
+            provider.progress(sender, receiver);
+            if (sender.write(ByteBuffer.allocate(MESSAGE_LENGTH)) > 0) {
+                messages++;
+            }
+        }
+
+        return messages;
+    }
+
+    private void read(final ByteBuffer target) {
+        provider.await(() -> {
+            try {
+                receiver.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, sender, receiver);
+    }
+}
@@ -0,0 +1,198 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.loopback.LoopbackWorker;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectorTest {
+
+    private static final int CHANNEL_COUNT = 100;
+    private static final int TIMEOUT = 200;
+
+    private LoopbackSelectorProvider provider;
+    private HadronioSelector selector;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void onlyActiveChannelsAreSelected() throws IOException {
+        open();
+        final LoopbackWorker worker = (LoopbackWorker) provider.ucxProvider.createWorker();
+        final TestSelectableChannel[] channels = register(worker, CHANNEL_COUNT, SelectionKey.OP_READ);
+
+        // Every channel is selected once after registering, to find out its initial state
+        assertEquals(0, selector.selectNow());
+        assertEquals(0, selector.selectNow());
+        for (final TestSelectableChannel channel : channels) {
+            assertEquals(1, channel.getSelectCount());
+        }
+
+        channels[CHANNEL_COUNT / 2].setReadyOps(SelectionKey.OP_READ);
+        assertEquals(1, selector.selectNow());
+        for (int i = 0; i < CHANNEL_COUNT; i++) {
+            assertEquals(i == CHANNEL_COUNT / 2 ? 2 : 1, channels[i].getSelectCount());
+        }
+    }
+
+    @Test
+    void sharedWorkerIsProgressedOncePerSelect() throws IOException {
+        open();
+        final LoopbackWorker worker = (LoopbackWorker) provider.ucxProvider.createWorker();
+        register(worker, CHANNEL_COUNT, SelectionKey.OP_READ);
+
+        final int progressCalls = worker.getProgressCalls();
+        selector.selectNow();
+        assertEquals(progressCalls + 1, worker.getProgressCalls());
+    }
+
+    @Test
+    void selectTimeoutIsHonoredWithoutSpinning() throws IOException {
+        open("SPIN_DURATION=0");
+        register((LoopbackWorker) provider.ucxProvider.createWorker(), 1, SelectionKey.OP_READ);
+
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        final long startCpuTime = threadBean.getCurrentThreadCpuTime();
+        final long start = System.nanoTime();
+        assertEquals(0, selector.select(TIMEOUT));
+
+        final long duration = System.nanoTime() - start;
+        assertTrue(duration >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT), "Select has returned before its timeout!");
+        assertTrue(duration < TimeUnit.MILLISECONDS.toNanos(10 * TIMEOUT), "Select has not returned in time!");
+
+        // The selector sleeps on its only worker, instead of polling it until the timeout has been reached
+        assertTrue(threadBean.getCurrentThreadCpuTime() - startCpuTime < duration / 2, "Selector has been spinning while idle!");
+    }
+
+    @Test
+    void wakeupInterruptsBlockingSelect() throws IOException, InterruptedException {
+        open("SPIN_DURATION=0");
+        register((LoopbackWorker) provider.ucxProvider.createWorker(), 1, SelectionKey.OP_READ);
+
+        final AtomicInteger selected = new AtomicInteger(-1);
+        final Thread thread = new Thread(() -> selected.set(selector.select()));
+        thread.start();
+
+        Thread.sleep(TIMEOUT);
+        assertTrue(thread.isAlive());
+        selector.wakeup();
+
+        thread.join(10 * TIMEOUT);
+        assertFalse(thread.isAlive(), "Select has not returned after wakeup!");
+        assertEquals(0, selected.get());
+    }
+
+    @Test
+    void channelIsSelectedAtItsDeadline() throws IOException {
+        open("SPIN_DURATION=0");
+        final TestSelectableChannel channel = register((LoopbackWorker) provider.ucxProvider.createWorker(), 1, SelectionKey.OP_READ)[0];
+
+        final long start = System.nanoTime();
+        channel.setReadyTime(start + TimeUnit.MILLISECONDS.toNanos(TIMEOUT));
+        assertEquals(1, selector.select());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT));
+
+        // The channel is selected once after registering and once its deadline has passed, but not while waiting
+        assertEquals(2, channel.getSelectCount());
+    }
+
+    @Test
+    void registrationDoesNotWaitForBlockingSelect() throws IOException, InterruptedException {
+        open("SPIN_DURATION=0");
+        final LoopbackWorker worker = (LoopbackWorker) provider.ucxProvider.createWorker();
+        register(worker, 1, SelectionKey.OP_READ);
+
+        final AtomicInteger selected = new AtomicInteger(-1);
+        final Thread thread = new Thread(() -> selected.set(selector.select()));
+        thread.start();
+        Thread.sleep(TIMEOUT);
+
+        // The registered channel is already readable, so the blocking select returns with its key
+        final TestSelectableChannel channel = provider.track(new TestSelectableChannel(provider, worker));
+        channel.setReadyOps(SelectionKey.OP_READ);
+        channel.configureBlocking(false);
+        final long start = System.nanoTime();
+        final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT), "Registration has waited for select!");
+
+        thread.join(10 * TIMEOUT);
+        assertFalse(thread.isAlive(), "Select has not returned after registration!");
+        assertEquals(1, selected.get());
+        assertTrue(selector.selectedKeys().contains(key));
+        assertTrue(selector.keys().contains(key));
+    }
+
+    @Test
+    void interestChangeIsAppliedByBlockingSelect() throws IOException, InterruptedException {
+        open("SPIN_DURATION=0");
+        final TestSelectableChannel channel = register((LoopbackWorker) provider.ucxProvider.createWorker(), 1, SelectionKey.OP_READ)[0];
+        final SelectionKey key = channel.keyFor(selector);
+        channel.setReadyOps(SelectionKey.OP_WRITE);
+        assertEquals(0, selector.selectNow());
+
+        final AtomicInteger selected = new AtomicInteger(-1);
+        final Thread thread = new Thread(() -> selected.set(selector.select()));
+        thread.start();
+        Thread.sleep(TIMEOUT);
+
+        // Changing the interest set queues the key, so that the sleeping selector selects its channel again
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        thread.join(10 * TIMEOUT);
+        assertFalse(thread.isAlive(), "Select has not returned after changing the interest set!");
+        assertEquals(1, selected.get());
+        assertEquals(SelectionKey.OP_WRITE, key.readyOps());
+    }
+
+    @Test
+    void cancelledKeyIsRemovedByNextSelect() throws IOException {
+        open();
+        final LoopbackWorker worker = (LoopbackWorker) provider.ucxProvider.createWorker();
+        final LoopbackWorker otherWorker = (LoopbackWorker) provider.ucxProvider.createWorker();
+        final TestSelectableChannel channel = register(worker, 1, SelectionKey.OP_READ)[0];
+        register(otherWorker, 1, SelectionKey.OP_READ);
+        channel.setReadyOps(SelectionKey.OP_READ);
+        assertEquals(1, selector.selectNow());
+
+        final SelectionKey key = channel.keyFor(selector);
+        key.cancel();
+        assertTrue(selector.keys().contains(key));
+
+        selector.selectNow();
+        assertFalse(selector.keys().contains(key));
+        assertFalse(selector.selectedKeys().contains(key));
+
+        // Only the worker of the remaining key is progressed from now on
+        final int progressCalls = worker.getProgressCalls();
+        final int otherProgressCalls = otherWorker.getProgressCalls();
+        selector.selectNow();
+        assertEquals(progressCalls, worker.getProgressCalls());
+        assertEquals(otherProgressCalls + 1, otherWorker.getProgressCalls());
+    }
+
+    private void open(final String... properties) {
+        provider = new LoopbackSelectorProvider(properties);
+        selector = provider.openSelector();
+    }
+
+    private TestSelectableChannel[] register(final LoopbackWorker worker, final int count, final int interestOps) throws IOException {
+        final TestSelectableChannel[] channels = new TestSelectableChannel[count];
+        for (int i = 0; i < count; i++) {
+            channels[i] = provider.track(new TestSelectableChannel(provider, worker));
+            channels[i].configureBlocking(false);
+            channels[i].register(selector, interestOps);
+        }
+
+        return channels;
+    }
+}
@@ -0,0 +1,42 @@
+package de.hhu.bsinfo.hadronio;
+
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedReceivePoolTest {
+
+    private static final int POOL_LENGTH = 64 * 1024;
+
+    private LoopbackSelectorProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new LoopbackSelectorProvider("BUFFER_SLICE_LENGTH=4096", "SHARED_RECEIVE_POOL_LENGTH=" + POOL_LENGTH);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void closingWorkerCancelsReceivesAndRemovesPool() {
+        // Each slice also holds a message header, so there are fewer slices than the configured slice length suggests
+        final int sliceCount = POOL_LENGTH / provider.configuration.getBufferSliceLength();
+        final SharedReceivePool pool = SharedReceivePool.getInstance(provider.sharedWorker, provider.configuration);
+        assertSame(pool, SharedReceivePool.getInstance(provider.sharedWorker, provider.configuration));
+        assertEquals(sliceCount, provider.sharedWorker.getPostedReceives());
+
+        SharedReceivePool.close(provider.sharedWorker);
+        assertEquals(0, provider.sharedWorker.getPostedReceives());
+
+        // A pool created after closing posts its own receives again
+        final SharedReceivePool newPool = SharedReceivePool.getInstance(provider.sharedWorker, provider.configuration);
+        assertNotSame(pool, newPool);
+        assertEquals(sliceCount, provider.sharedWorker.getPostedReceives());
+    }
+}
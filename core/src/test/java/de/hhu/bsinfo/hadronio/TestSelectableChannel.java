@@ -0,0 +1,91 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+
+import java.nio.channels.SelectionKey;
+import java.nio.channels.spi.AbstractSelectableChannel;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * A channel, whose readiness is set by the test, which counts how often a selector has selected it.
+ */
+class TestSelectableChannel extends AbstractSelectableChannel implements HadronioSelectableChannel {
+
+    private final UcxWorker worker;
+    private final ReadinessNotifier readinessNotifier = new ReadinessNotifier();
+
+    private volatile int readyOps;
+    private volatile long readyTime;
+    private volatile int selectCount;
+
+    TestSelectableChannel(final SelectorProvider provider, final UcxWorker worker) {
+        super(provider);
+        this.worker = worker;
+    }
+
+    /**
+     * Change the channel's ready operations and notify its selectors, like a completion callback would do.
+     */
+    void setReadyOps(final int readyOps) {
+        this.readyOps = readyOps;
+        readinessNotifier.notifyKeys();
+    }
+
+    /**
+     * Let the channel become readable at the given point in time (as given by {@link System#nanoTime()}),
+     * without notifying its selectors, like a channel sending delayed data would do.
+     */
+    void setReadyTime(final long readyTime) {
+        this.readyTime = readyTime;
+    }
+
+    int getSelectCount() {
+        return selectCount;
+    }
+
+    @Override
+    public void select() {
+        // Only called by the selecting thread
+        selectCount++;
+        if (readyTime != 0 && System.nanoTime() - readyTime >= 0) {
+            readyTime = 0;
+            readyOps = SelectionKey.OP_READ;
+        }
+    }
+
+    @Override
+    public int readyOps() {
+        return readyOps;
+    }
+
+    @Override
+    public UcxWorker getWorker() {
+        return worker;
+    }
+
+    @Override
+    public ReadinessNotifier getReadinessNotifier() {
+        return readinessNotifier;
+    }
+
+    @Override
+    public long getSelectDeadline() {
+        return readyTime;
+    }
+
+    @Override
+    public boolean needsSelectOnProgress() {
+        return false;
+    }
+
+    @Override
+    public int validOps() {
+        return SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+    }
+
+    @Override
+    protected void implCloseSelectableChannel() {}
+
+    @Override
+    protected void implConfigureBlocking(final boolean block) {}
+}
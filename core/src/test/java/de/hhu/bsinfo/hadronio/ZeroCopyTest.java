@@ -0,0 +1,70 @@
+package de.hhu.bsinfo.hadronio;
+
+import de.hhu.bsinfo.hadronio.loopback.LoopbackWorker;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZeroCopyTest {
+
+    private static final int RECEIVE_BUFFER_LENGTH = 32 * 1024;
+    private static final int WRITE_LENGTH = 64 * 1024;
+
+    private LoopbackSelectorProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new LoopbackSelectorProvider("SEND_BUFFER_LENGTH=65536", "RECEIVE_BUFFER_LENGTH=65536", "BUFFER_SLICE_LENGTH=4096", "ZERO_COPY_THRESHOLD=1024");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        provider.close();
+    }
+
+    @Test
+    void outOfBandMessagesFitIntoRemoteReceiveBuffer() throws IOException {
+        final HadronioServerSocketChannel serverChannel = provider.listen(0);
+        final HadronioSocketChannel receiver = provider.openSocketChannel();
+        receiver.configureBlocking(false);
+        receiver.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_LENGTH);
+        receiver.connect(provider.address);
+
+        final HadronioSocketChannel sender = provider.accept(serverChannel);
+        provider.await(() -> LoopbackSelectorProvider.finishConnect(receiver), receiver, sender);
+        sender.configureBlocking(true);
+
+        final ByteBuffer source = ByteBuffer.allocateDirect(WRITE_LENGTH);
+        for (int i = 0; i < WRITE_LENGTH; i++) {
+            source.put((byte) i);
+        }
+
+        source.flip();
+        assertEquals(WRITE_LENGTH, sender.write(source));
+
+        // The receiver has not been progressed, so all out-of-band data is still waiting for its receive requests
+        final LoopbackWorker receiverWorker = (LoopbackWorker) receiver.getWorker();
+        assertEquals(WRITE_LENGTH / RECEIVE_BUFFER_LENGTH, receiverWorker.getUnexpectedMessages());
+
+        final ByteBuffer target = ByteBuffer.allocate(WRITE_LENGTH);
+        provider.await(() -> {
+            try {
+                receiver.read(target);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+
+            return !target.hasRemaining();
+        }, receiver);
+
+        source.flip();
+        target.flip();
+        assertEquals(source, target);
+    }
+}
@@ -0,0 +1,214 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One side of a loopback connection, which is shared by all endpoints multiplexed over it.
+ * Tagged messages are delivered to the worker of the receiving side, while stream data is buffered by the connection itself.
+ * Messages arriving before the receiving side has been accepted are kept, until it has been assigned a worker.
+ */
+final class Connection {
+
+    private LoopbackWorker worker;
+    private Connection peer;
+    private final List<LoopbackEndpoint> endpoints = new ArrayList<>();
+    private final List<LoopbackWorker.Message> pendingMessages = new ArrayList<>();
+    private final ArrayDeque<StreamReceive> streamReceives = new ArrayDeque<>();
+    private final UnsafeBuffer streamView = new UnsafeBuffer(0, 0);
+    private byte[] streamData = new byte[256];
+    private int streamLength;
+    private boolean closed;
+    private boolean peerClosed;
+
+    Connection(final LoopbackWorker worker, final LoopbackEndpoint endpoint) {
+        this.worker = worker;
+        if (endpoint != null) {
+            endpoints.add(endpoint);
+        }
+    }
+
+    static void link(final Connection connector, final Connection acceptor) {
+        connector.peer = acceptor;
+        acceptor.peer = connector;
+    }
+
+    /**
+     * @return The connection of the remote side, or null if the connection has been made to an unbound address.
+     *         Messages sent over such a connection are dropped, since its endpoints fail anyway.
+     */
+    Connection getPeer() {
+        return peer;
+    }
+
+    void establish(final LoopbackWorker worker, final LoopbackEndpoint endpoint) {
+        final boolean failed;
+        synchronized (this) {
+            this.worker = worker;
+            endpoints.add(endpoint);
+            for (final LoopbackWorker.Message message : pendingMessages) {
+                worker.deliver(message);
+            }
+
+            pendingMessages.clear();
+            failed = peerClosed;
+        }
+
+        if (failed) {
+            worker.reportError(endpoint);
+        }
+    }
+
+    synchronized boolean add(final LoopbackEndpoint endpoint) {
+        if (closed) {
+            return false;
+        }
+
+        endpoints.add(endpoint);
+        return true;
+    }
+
+    /**
+     * @return Whether the endpoint has been the last one using this connection, which is closed afterwards
+     */
+    boolean remove(final LoopbackEndpoint endpoint) {
+        synchronized (this) {
+            if (!endpoints.remove(endpoint) || !endpoints.isEmpty()) {
+                return false;
+            }
+
+            closed = true;
+        }
+
+        // Connecting to an unbound address never links the connection to a peer
+        if (peer != null) {
+            peer.onPeerClosed();
+        }
+
+        return true;
+    }
+
+    void reject() {
+        synchronized (this) {
+            closed = true;
+        }
+
+        peer.onPeerClosed();
+    }
+
+    /**
+     * Report an error to all endpoints of this connection, since the remote side has closed or rejected it.
+     */
+    void onPeerClosed() {
+        final LoopbackEndpoint[] currentEndpoints;
+        synchronized (this) {
+            peerClosed = true;
+            currentEndpoints = endpoints.toArray(new LoopbackEndpoint[0]);
+        }
+
+        for (final LoopbackEndpoint endpoint : currentEndpoints) {
+            endpoint.getWorker().reportError(endpoint);
+        }
+    }
+
+    void deliver(final long tag, final long address, final long size, final long[] addresses, final long[] sizes) {
+        final LoopbackWorker target;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            if (worker == null) {
+                pendingMessages.add(LoopbackWorker.copy(tag, address, size, addresses, sizes));
+                return;
+            }
+
+            target = worker;
+        }
+
+        target.deliver(tag, address, size, addresses, sizes);
+    }
+
+    synchronized void appendStream(final long address, final long size) {
+        if (closed) {
+            return;
+        }
+
+        if (streamData.length < streamLength + size) {
+            final byte[] data = new byte[(int) Math.max(2L * streamData.length, streamLength + size)];
+            System.arraycopy(streamData, 0, data, 0, streamLength);
+            streamData = data;
+        }
+
+        streamView.wrap(address, (int) size);
+        streamView.getBytes(0, streamData, streamLength, (int) size);
+        streamLength += size;
+        drainStreams();
+    }
+
+    synchronized void receiveStream(final LoopbackEndpoint owner, final long address, final long size, final UcxReceiveCallback callback, final LoopbackWorker.Request request) {
+        streamReceives.add(new StreamReceive(owner, address, size, callback, request));
+        drainStreams();
+    }
+
+    void cancelStreams(final LoopbackEndpoint owner) {
+        final List<StreamReceive> cancelled = new ArrayList<>();
+        synchronized (this) {
+            final Iterator<StreamReceive> iterator = streamReceives.iterator();
+            while (iterator.hasNext()) {
+                final StreamReceive receive = iterator.next();
+                if (receive.owner == owner) {
+                    cancelled.add(receive);
+                    iterator.remove();
+                }
+            }
+        }
+
+        for (final StreamReceive receive : cancelled) {
+            if (receive.callback != null) {
+                receive.callback.onCancelled();
+            }
+
+            if (receive.request != null) {
+                receive.request.complete();
+            }
+        }
+    }
+
+    private void drainStreams() {
+        // Stream receives wait for all requested bytes, like UCP_STREAM_RECV_FLAG_WAITALL
+        while (!streamReceives.isEmpty() && streamReceives.peek().size <= streamLength) {
+            final StreamReceive receive = streamReceives.poll();
+            final int size = (int) receive.size;
+
+            streamView.wrap(receive.address, size);
+            streamView.putBytes(0, streamData, 0, size);
+            System.arraycopy(streamData, size, streamData, 0, streamLength - size);
+            streamLength -= size;
+
+            receive.owner.getWorker().completeReceive(receive.callback, 0, receive.request);
+        }
+    }
+
+    private static final class StreamReceive {
+
+        private final LoopbackEndpoint owner;
+        private final long address;
+        private final long size;
+        private final UcxReceiveCallback callback;
+        private final LoopbackWorker.Request request;
+
+        private StreamReceive(final LoopbackEndpoint owner, final long address, final long size, final UcxReceiveCallback callback, final LoopbackWorker.Request request) {
+            this.owner = owner;
+            this.address = address;
+            this.size = size;
+            this.callback = callback;
+            this.request = request;
+        }
+    }
+}
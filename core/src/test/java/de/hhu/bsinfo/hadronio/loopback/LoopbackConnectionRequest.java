@@ -0,0 +1,25 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxConnectionRequest;
+
+import java.net.InetSocketAddress;
+
+class LoopbackConnectionRequest implements UcxConnectionRequest {
+
+    private final Connection connection;
+    private final InetSocketAddress clientAddress;
+
+    LoopbackConnectionRequest(final Connection connection, final InetSocketAddress clientAddress) {
+        this.connection = connection;
+        this.clientAddress = clientAddress;
+    }
+
+    LoopbackEndpoint accept(final LoopbackProvider provider, final LoopbackWorker worker) {
+        return LoopbackEndpoint.accept(provider, worker, connection, clientAddress);
+    }
+
+    @Override
+    public void reject() {
+        connection.reject();
+    }
+}
@@ -0,0 +1,216 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxErrorCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxTagMessage;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class LoopbackEndpoint implements UcxEndpoint {
+
+    private final LoopbackProvider provider;
+    private final LoopbackWorker worker;
+    private volatile Connection connection;
+    private InetSocketAddress remoteAddress;
+    private volatile UcxSendCallback sendCallback;
+    private volatile UcxReceiveCallback receiveCallback;
+    private volatile UcxErrorCallback errorCallback;
+    private volatile boolean errorState = false;
+    private boolean closed = false;
+
+    LoopbackEndpoint(final LoopbackProvider provider, final LoopbackWorker worker) {
+        this.provider = provider;
+        this.worker = worker;
+    }
+
+    private LoopbackEndpoint(final LoopbackProvider provider, final LoopbackWorker worker, final Connection connection, final InetSocketAddress remoteAddress) {
+        this.provider = provider;
+        this.worker = worker;
+        this.connection = connection;
+        this.remoteAddress = remoteAddress;
+    }
+
+    static LoopbackEndpoint accept(final LoopbackProvider provider, final LoopbackWorker worker, final Connection connection, final InetSocketAddress remoteAddress) {
+        final LoopbackEndpoint endpoint = new LoopbackEndpoint(provider, worker, connection, remoteAddress);
+        connection.establish(worker, endpoint);
+        return endpoint;
+    }
+
+    @Override
+    public void connect(final InetSocketAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+        final Connection connection = new Connection(worker, this);
+        this.connection = connection;
+
+        final LoopbackListener listener = provider.lookup(remoteAddress);
+        if (listener == null) {
+            // Like UCX, the error is reported asynchronously, once the worker is progressed
+            worker.reportError(this);
+            return;
+        }
+
+        listener.onConnect(connection, provider.nextClientAddress(remoteAddress));
+    }
+
+    @Override
+    public boolean sendTaggedMessage(final long address, final long size, final long tag, final boolean useCallback, final boolean blocking) {
+        final Connection peer = getConnection().getPeer();
+        if (peer != null) {
+            peer.deliver(tag, address, size, null, null);
+        }
+
+        return completeSend(useCallback, blocking);
+    }
+
+    @Override
+    public boolean sendTaggedMessage(final long[] addresses, final long[] sizes, final long tag, final boolean useCallback, final boolean blocking) {
+        final Connection peer = getConnection().getPeer();
+        if (peer != null) {
+            peer.deliver(tag, 0, 0, addresses, sizes);
+        }
+
+        return completeSend(useCallback, blocking);
+    }
+
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final long tag, final long tagMask, final boolean useCallback, final boolean blocking) {
+        final LoopbackWorker.Request request = blocking ? new LoopbackWorker.Request() : null;
+        final boolean completed = worker.postReceive(this, address, size, tag, tagMask, useCallback ? receiveCallback : null, request);
+        if (blocking) {
+            worker.await(request);
+        }
+
+        return completed || blocking;
+    }
+
+    @Override
+    public void cancelTaggedReceives(final long tag, final long tagMask) {
+        worker.cancel(this, tag, tagMask, false);
+    }
+
+    @Override
+    public UcxTagMessage probeTaggedMessage(final long tag, final long tagMask) {
+        return worker.probe(tag, tagMask);
+    }
+
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final UcxTagMessage message, final boolean useCallback, final boolean blocking) {
+        final LoopbackWorker.Request request = blocking ? new LoopbackWorker.Request() : null;
+        worker.receive((LoopbackWorker.Message) message, address, size, useCallback ? receiveCallback : null, request);
+        if (blocking) {
+            worker.await(request);
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean sendStream(final long address, final long size, final boolean useCallback, final boolean blocking) {
+        final Connection peer = getConnection().getPeer();
+        if (peer != null) {
+            peer.appendStream(address, size);
+        }
+
+        return completeSend(useCallback, blocking);
+    }
+
+    @Override
+    public boolean receiveStream(final long address, final long size, final boolean useCallback, final boolean blocking) {
+        final LoopbackWorker.Request request = blocking ? new LoopbackWorker.Request() : null;
+        getConnection().receiveStream(this, address, size, useCallback ? receiveCallback : null, request);
+        if (blocking) {
+            worker.await(request);
+        }
+
+        return blocking;
+    }
+
+    @Override
+    public UcxEndpoint multiplex() throws IOException {
+        final LoopbackEndpoint multiplexedEndpoint = new LoopbackEndpoint(provider, worker, getConnection(), remoteAddress);
+        if (!connection.add(multiplexedEndpoint)) {
+            throw new IOException("Trying to multiplex an endpoint, which has already been closed!");
+        }
+
+        return multiplexedEndpoint;
+    }
+
+    @Override
+    public void setSendCallback(final UcxSendCallback sendCallback) {
+        this.sendCallback = sendCallback;
+    }
+
+    @Override
+    public void setReceiveCallback(final UcxReceiveCallback receiveCallback) {
+        this.receiveCallback = receiveCallback;
+    }
+
+    @Override
+    public void setErrorCallback(final UcxErrorCallback errorCallback) {
+        this.errorCallback = errorCallback;
+    }
+
+    @Override
+    public boolean getErrorState() {
+        return errorState;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public LoopbackWorker getWorker() {
+        return worker;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+        }
+
+        worker.cancel(this, 0, 0, false);
+        if (connection != null) {
+            connection.cancelStreams(this);
+            connection.remove(this);
+        }
+    }
+
+    void handleError() {
+        errorState = true;
+        final UcxErrorCallback callback = errorCallback;
+        if (callback != null) {
+            callback.onError();
+        }
+    }
+
+    private Connection getConnection() {
+        final Connection connection = this.connection;
+        if (connection == null) {
+            throw new IllegalStateException("Endpoint is not connected!");
+        }
+
+        return connection;
+    }
+
+    private boolean completeSend(final boolean useCallback, final boolean blocking) {
+        // The message has already been copied, but like UCX, the callback is only called while progressing the worker
+        final LoopbackWorker.Request request = blocking ? new LoopbackWorker.Request() : null;
+        worker.completeSend(useCallback ? sendCallback : null, request);
+        if (blocking) {
+            worker.await(request);
+        }
+
+        return true;
+    }
+}
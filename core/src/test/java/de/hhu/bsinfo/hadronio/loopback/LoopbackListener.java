@@ -0,0 +1,61 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxConnectionRequest;
+import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxListener;
+import de.hhu.bsinfo.hadronio.binding.UcxListenerCallback;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class LoopbackListener implements UcxListener {
+
+    private final LoopbackProvider provider;
+    private final LoopbackWorker worker;
+    private final boolean sharedWorker;
+    private volatile InetSocketAddress address;
+    private volatile UcxListenerCallback callback;
+
+    LoopbackListener(final LoopbackProvider provider, final LoopbackWorker worker, final boolean sharedWorker) {
+        this.provider = provider;
+        this.worker = worker;
+        this.sharedWorker = sharedWorker;
+    }
+
+    @Override
+    public void bind(final InetSocketAddress socketAddress, final UcxListenerCallback callback) throws IOException {
+        this.callback = callback;
+        provider.bind(socketAddress, this);
+        address = socketAddress;
+    }
+
+    @Override
+    public UcxEndpoint accept(final UcxConnectionRequest connectionRequest) {
+        // Like the JUCX binding, accepted endpoints only share the listener's worker, if it has been given to the listener
+        final LoopbackWorker endpointWorker = sharedWorker ? worker : provider.createWorker();
+        return ((LoopbackConnectionRequest) connectionRequest).accept(provider, endpointWorker);
+    }
+
+    @Override
+    public LoopbackWorker getWorker() {
+        return worker;
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    @Override
+    public void close() {
+        if (address != null) {
+            provider.unbind(address, this);
+        }
+    }
+
+    void onConnect(final Connection connection, final InetSocketAddress clientAddress) {
+        final Connection acceptorConnection = new Connection(null, null);
+        Connection.link(connection, acceptorConnection);
+        worker.reportConnectionRequest(callback, new LoopbackConnectionRequest(acceptorConnection, clientAddress));
+    }
+}
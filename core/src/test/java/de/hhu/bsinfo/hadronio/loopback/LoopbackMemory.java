@@ -0,0 +1,40 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loopback endpoints copy data between plain memory, so mapping memory only counts the mapped regions.
+ */
+class LoopbackMemory implements UcxMemory {
+
+    private final LoopbackProvider provider;
+    private final long address;
+    private final long length;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    LoopbackMemory(final LoopbackProvider provider, final long address, final long length) {
+        this.provider = provider;
+        this.address = address;
+        this.length = length;
+        provider.onMemoryMapped();
+    }
+
+    @Override
+    public long getAddress() {
+        return address;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            provider.onMemoryReleased();
+        }
+    }
+}
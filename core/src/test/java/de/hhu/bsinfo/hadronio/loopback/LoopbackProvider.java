@@ -0,0 +1,139 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
+import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxListener;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A UCX provider for tests, which connects endpoints inside the same process by copying messages between them.
+ * Tag matching follows UCX: receive requests are posted per worker and incoming messages are matched against them in the order they have been posted in.
+ * Messages without a matching request are kept as unexpected messages, until a matching request is posted or they are probed.
+ * Callbacks are only called, while the worker of the completed request is progressed.
+ */
+public class LoopbackProvider implements UcxProvider {
+
+    private final Set<UcxCapability> capabilities;
+    private final Map<InetSocketAddress, LoopbackListener> listeners = new HashMap<>();
+    private final List<LoopbackWorker> workers = new ArrayList<>();
+    private final AtomicInteger mappedRegions = new AtomicInteger();
+    private final AtomicInteger nextClientPort = new AtomicInteger(1024);
+
+    public LoopbackProvider() {
+        this(EnumSet.allOf(UcxCapability.class));
+    }
+
+    public LoopbackProvider(final Set<UcxCapability> capabilities) {
+        this.capabilities = capabilities.isEmpty() ? EnumSet.noneOf(UcxCapability.class) : EnumSet.copyOf(capabilities);
+    }
+
+    @Override
+    public UcxListener createListener() {
+        return new LoopbackListener(this, createWorker(), false);
+    }
+
+    @Override
+    public UcxEndpoint createEndpoint() {
+        return new LoopbackEndpoint(this, createWorker());
+    }
+
+    @Override
+    public LoopbackWorker createWorker() {
+        final LoopbackWorker worker = new LoopbackWorker(this);
+        synchronized (workers) {
+            workers.add(worker);
+        }
+
+        return worker;
+    }
+
+    @Override
+    public UcxListener createListener(final UcxWorker worker) {
+        return new LoopbackListener(this, (LoopbackWorker) worker, true);
+    }
+
+    @Override
+    public UcxEndpoint createEndpoint(final UcxWorker worker) {
+        return new LoopbackEndpoint(this, (LoopbackWorker) worker);
+    }
+
+    @Override
+    public UcxMemory mapMemory(final long address, final long length) {
+        return new LoopbackMemory(this, address, length);
+    }
+
+    @Override
+    public Set<UcxCapability> getCapabilities() {
+        return capabilities;
+    }
+
+    /**
+     * Progress all workers created by this provider once.
+     *
+     * @return Whether any callback has been called
+     */
+    public boolean progress() {
+        final LoopbackWorker[] currentWorkers;
+        synchronized (workers) {
+            currentWorkers = workers.toArray(new LoopbackWorker[0]);
+        }
+
+        boolean progressed = false;
+        for (final LoopbackWorker worker : currentWorkers) {
+            progressed |= worker.progress();
+        }
+
+        return progressed;
+    }
+
+    /**
+     * @return The amount of memory regions, which have been mapped via this provider or one of its workers and not been released yet
+     */
+    public int getMappedRegions() {
+        return mappedRegions.get();
+    }
+
+    void onMemoryMapped() {
+        mappedRegions.incrementAndGet();
+    }
+
+    void onMemoryReleased() {
+        mappedRegions.decrementAndGet();
+    }
+
+    InetSocketAddress nextClientAddress(final InetSocketAddress remoteAddress) {
+        return new InetSocketAddress(remoteAddress.getAddress(), nextClientPort.getAndIncrement());
+    }
+
+    synchronized void bind(final InetSocketAddress address, final LoopbackListener listener) throws IOException {
+        if (listeners.containsKey(address)) {
+            throw new BindException("Address " + address + " is already in use!");
+        }
+
+        listeners.put(address, listener);
+    }
+
+    synchronized void unbind(final InetSocketAddress address, final LoopbackListener listener) {
+        listeners.remove(address, listener);
+    }
+
+    synchronized LoopbackListener lookup(final InetSocketAddress address) {
+        return listeners.get(address);
+    }
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,474 @@
+package de.hhu.bsinfo.hadronio.loopback;
+
+import de.hhu.bsinfo.hadronio.binding.UcxConnectionRequest;
+import de.hhu.bsinfo.hadronio.binding.UcxListenerCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxTagMessage;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the posted receive requests and unexpected messages of all endpoints using it, as well as their completed requests.
+ * Requests, messages and completions are pooled, so that sending and receiving messages does not allocate once the pools are warmed up.
+ */
+public class LoopbackWorker implements UcxWorker {
+
+    private static final long WAIT_TIMEOUT = 10;
+
+    private final LoopbackProvider provider;
+
+    /**
+     * Serializes the execution of callbacks, which are called outside of the worker's monitor,
+     * so that callbacks may post new requests and progress the worker themselves.
+     */
+    private final Object progressLock = new Object();
+
+    private final ArrayList<Receive> receives = new ArrayList<>();
+    private final ArrayList<Message> unexpectedMessages = new ArrayList<>();
+    private final ArrayDeque<Completion> completions = new ArrayDeque<>();
+    private final ArrayDeque<Receive> freeReceives = new ArrayDeque<>();
+    private final ArrayDeque<Message> freeMessages = new ArrayDeque<>();
+    private final ArrayDeque<Completion> freeCompletions = new ArrayDeque<>();
+    private final UnsafeBuffer sourceView = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer targetView = new UnsafeBuffer(0, 0);
+    private boolean interrupted;
+    private boolean closed;
+    private volatile int progressCalls;
+
+    LoopbackWorker(final LoopbackProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public boolean progress() {
+        boolean progressed = false;
+        synchronized (progressLock) {
+            progressCalls++;
+            while (true) {
+                final Completion completion;
+                synchronized (this) {
+                    completion = completions.poll();
+                }
+
+                if (completion == null) {
+                    return progressed;
+                }
+
+                completion.execute();
+                synchronized (this) {
+                    completion.clear();
+                    freeCompletions.add(completion);
+                }
+
+                progressed = true;
+            }
+        }
+    }
+
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final long tag, final long tagMask, final UcxReceiveCallback callback) {
+        return postReceive(null, address, size, tag, tagMask, callback, null);
+    }
+
+    @Override
+    public void cancelTaggedReceives(final long tag, final long tagMask) {
+        // Receives posted directly on the worker do not belong to any endpoint
+        cancel(null, tag, tagMask, false);
+    }
+
+    @Override
+    public UcxMemory mapMemory(final long address, final long length) {
+        return provider.mapMemory(address, length);
+    }
+
+    @Override
+    public void waitForEvents() {
+        synchronized (this) {
+            if (!interrupted && completions.isEmpty()) {
+                try {
+                    wait(WAIT_TIMEOUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            interrupted = false;
+        }
+    }
+
+    @Override
+    public synchronized void interrupt() {
+        interrupted = true;
+        notifyAll();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+
+        cancel(null, 0, 0, true);
+    }
+
+    /**
+     * @return How often this worker has been progressed
+     */
+    public int getProgressCalls() {
+        return progressCalls;
+    }
+
+    /**
+     * @return The amount of receive requests, which are posted on this worker and have not been matched to a message yet
+     */
+    public synchronized int getPostedReceives() {
+        return receives.size();
+    }
+
+    /**
+     * @return The amount of received messages, which have neither been matched to a receive request nor been probed yet
+     */
+    public synchronized int getUnexpectedMessages() {
+        return unexpectedMessages.size();
+    }
+
+    boolean postReceive(final LoopbackEndpoint owner, final long address, final long size, final long tag, final long tagMask, final UcxReceiveCallback callback, final Request request) {
+        synchronized (this) {
+            for (int i = 0; i < unexpectedMessages.size(); i++) {
+                final Message message = unexpectedMessages.get(i);
+                if (matches(message.tag, tag, tagMask)) {
+                    unexpectedMessages.remove(i);
+                    receive(message, address, size, callback, request);
+                    return true;
+                }
+            }
+
+            final Receive receive = freeReceives.isEmpty() ? new Receive() : freeReceives.poll();
+            receive.set(owner, address, size, tag, tagMask, callback, request);
+            receives.add(receive);
+            return false;
+        }
+    }
+
+    synchronized Message probe(final long tag, final long tagMask) {
+        for (int i = 0; i < unexpectedMessages.size(); i++) {
+            final Message message = unexpectedMessages.get(i);
+            if (matches(message.tag, tag, tagMask)) {
+                return unexpectedMessages.remove(i);
+            }
+        }
+
+        return null;
+    }
+
+    synchronized void receive(final Message message, final long address, final long size, final UcxReceiveCallback callback, final Request request) {
+        if (message.length > size) {
+            throw new IllegalStateException("Message of " + message.length + " bytes does not fit into receive buffer of " + size + " bytes!");
+        }
+
+        targetView.wrap(address, message.length);
+        targetView.putBytes(0, message.data, 0, message.length);
+        completeReceive(callback, message.tag, request);
+
+        if (message.worker == this) {
+            freeMessages.add(message);
+        }
+    }
+
+    /**
+     * Copy a message into the first matching receive request or keep it as an unexpected message.
+     * If addresses is null, the message consists of a single buffer, given by address and size.
+     */
+    synchronized void deliver(final long tag, final long address, final long size, final long[] addresses, final long[] sizes) {
+        if (closed) {
+            return;
+        }
+
+        final long length = addresses == null ? size : sum(sizes);
+        for (int i = 0; i < receives.size(); i++) {
+            final Receive receive = receives.get(i);
+            if (matches(tag, receive.tag, receive.tagMask)) {
+                if (length > receive.size) {
+                    throw new IllegalStateException("Message of " + length + " bytes does not fit into receive buffer of " + receive.size + " bytes!");
+                }
+
+                receives.remove(i);
+                if (addresses == null) {
+                    copy(address, receive.address, size);
+                } else {
+                    long offset = 0;
+                    for (int j = 0; j < addresses.length; j++) {
+                        copy(addresses[j], receive.address + offset, sizes[j]);
+                        offset += sizes[j];
+                    }
+                }
+
+                completeReceive(receive.callback, tag, receive.request);
+                receive.clear();
+                freeReceives.add(receive);
+                return;
+            }
+        }
+
+        final Message message = freeMessages.isEmpty() ? new Message(this) : freeMessages.poll();
+        message.set(tag, address, size, addresses, sizes, sourceView);
+        unexpectedMessages.add(message);
+    }
+
+    /**
+     * Keep a message, which has been received by a connection, before it has been accepted and thus been assigned to a worker.
+     */
+    static Message copy(final long tag, final long address, final long size, final long[] addresses, final long[] sizes) {
+        final Message message = new Message(null);
+        message.set(tag, address, size, addresses, sizes, new UnsafeBuffer(0, 0));
+        return message;
+    }
+
+    synchronized void deliver(final Message message) {
+        if (closed) {
+            return;
+        }
+
+        for (int i = 0; i < receives.size(); i++) {
+            final Receive receive = receives.get(i);
+            if (matches(message.tag, receive.tag, receive.tagMask)) {
+                receives.remove(i);
+                receive(message, receive.address, receive.size, receive.callback, receive.request);
+                receive.clear();
+                freeReceives.add(receive);
+                return;
+            }
+        }
+
+        unexpectedMessages.add(message);
+    }
+
+    /**
+     * Cancel all receive requests matching the given tag, which have been posted by the given endpoint, or all receive requests, if all is set.
+     * Their callbacks are called before this method returns, like UCX does for cancelled tag receives.
+     */
+    void cancel(final LoopbackEndpoint owner, final long tag, final long tagMask, final boolean all) {
+        final List<Receive> cancelled = new ArrayList<>();
+        synchronized (this) {
+            for (int i = receives.size() - 1; i >= 0; i--) {
+                final Receive receive = receives.get(i);
+                if (all || (receive.owner == owner && matches(receive.tag, tag, tagMask))) {
+                    cancelled.add(0, receives.remove(i));
+                }
+            }
+        }
+
+        for (final Receive receive : cancelled) {
+            if (receive.callback != null) {
+                receive.callback.onCancelled();
+            }
+
+            if (receive.request != null) {
+                receive.request.complete();
+            }
+        }
+    }
+
+    synchronized void completeSend(final UcxSendCallback callback, final Request request) {
+        final Completion completion = enqueue(Completion.SEND);
+        completion.sendCallback = callback;
+        completion.request = request;
+    }
+
+    synchronized void completeReceive(final UcxReceiveCallback callback, final long tag, final Request request) {
+        final Completion completion = enqueue(Completion.RECEIVE);
+        completion.receiveCallback = callback;
+        completion.tag = tag;
+        completion.request = request;
+    }
+
+    synchronized void reportError(final LoopbackEndpoint endpoint) {
+        enqueue(Completion.ERROR).endpoint = endpoint;
+    }
+
+    synchronized void reportConnectionRequest(final UcxListenerCallback callback, final UcxConnectionRequest connectionRequest) {
+        final Completion completion = enqueue(Completion.CONNECTION_REQUEST);
+        completion.listenerCallback = callback;
+        completion.connectionRequest = connectionRequest;
+    }
+
+    /**
+     * Progress this worker, until the given request has completed. Callbacks of other requests may be called meanwhile.
+     */
+    void await(final Request request) {
+        while (!request.isCompleted()) {
+            if (!progress()) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private Completion enqueue(final int type) {
+        final Completion completion = freeCompletions.isEmpty() ? new Completion() : freeCompletions.poll();
+        completion.type = type;
+        completions.add(completion);
+        notifyAll();
+        return completion;
+    }
+
+    private void copy(final long sourceAddress, final long targetAddress, final long length) {
+        sourceView.wrap(sourceAddress, (int) length);
+        targetView.wrap(targetAddress, (int) length);
+        targetView.putBytes(0, sourceView, 0, (int) length);
+    }
+
+    private static boolean matches(final long messageTag, final long tag, final long tagMask) {
+        return (messageTag & tagMask) == (tag & tagMask);
+    }
+
+    private static long sum(final long[] sizes) {
+        long sum = 0;
+        for (final long size : sizes) {
+            sum += size;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Marks the completion of a blocking operation.
+     */
+    static final class Request {
+
+        private volatile boolean completed;
+
+        void complete() {
+            completed = true;
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    static final class Message implements UcxTagMessage {
+
+        private final LoopbackWorker worker;
+        private byte[] data = new byte[0];
+        private int length;
+        private long tag;
+
+        private Message(final LoopbackWorker worker) {
+            this.worker = worker;
+        }
+
+        private void set(final long tag, final long address, final long size, final long[] addresses, final long[] sizes, final UnsafeBuffer view) {
+            this.tag = tag;
+            length = (int) (addresses == null ? size : sum(sizes));
+            if (data.length < length) {
+                data = new byte[length];
+            }
+
+            if (addresses == null) {
+                view.wrap(address, (int) size);
+                view.getBytes(0, data, 0, (int) size);
+            } else {
+                int offset = 0;
+                for (int i = 0; i < addresses.length; i++) {
+                    view.wrap(addresses[i], (int) sizes[i]);
+                    view.getBytes(0, data, offset, (int) sizes[i]);
+                    offset += (int) sizes[i];
+                }
+            }
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public long getSenderTag() {
+            return tag;
+        }
+    }
+
+    private static final class Receive {
+
+        private LoopbackEndpoint owner;
+        private long address;
+        private long size;
+        private long tag;
+        private long tagMask;
+        private UcxReceiveCallback callback;
+        private Request request;
+
+        private void set(final LoopbackEndpoint owner, final long address, final long size, final long tag, final long tagMask, final UcxReceiveCallback callback, final Request request) {
+            this.owner = owner;
+            this.address = address;
+            this.size = size;
+            this.tag = tag;
+            this.tagMask = tagMask;
+            this.callback = callback;
+            this.request = request;
+        }
+
+        private void clear() {
+            owner = null;
+            callback = null;
+            request = null;
+        }
+    }
+
+    private static final class Completion {
+
+        private static final int SEND = 0;
+        private static final int RECEIVE = 1;
+        private static final int ERROR = 2;
+        private static final int CONNECTION_REQUEST = 3;
+
+        private int type;
+        private long tag;
+        private UcxSendCallback sendCallback;
+        private UcxReceiveCallback receiveCallback;
+        private LoopbackEndpoint endpoint;
+        private UcxListenerCallback listenerCallback;
+        private UcxConnectionRequest connectionRequest;
+        private Request request;
+
+        private void execute() {
+            switch (type) {
+                case SEND:
+                    if (sendCallback != null) {
+                        sendCallback.onMessageSent();
+                    }
+                    break;
+                case RECEIVE:
+                    if (receiveCallback != null) {
+                        receiveCallback.onMessageReceived(tag);
+                    }
+                    break;
+                case ERROR:
+                    endpoint.handleError();
+                    break;
+                default:
+                    listenerCallback.onConnectionRequest(connectionRequest);
+                    break;
+            }
+
+            if (request != null) {
+                request.complete();
+            }
+        }
+
+        private void clear() {
+            sendCallback = null;
+            receiveCallback = null;
+            endpoint = null;
+            listenerCallback = null;
+            connectionRequest = null;
+            request = null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.hhu.bsinfo.hadronio.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryUtilTest {
+
+    private static final int HUGE_PAGE_SIZE = MemoryUtil.Alignment.HUGE_PAGE.value();
+
+    // Any directory can be mapped from, so a regular temporary directory stands in for a hugetlbfs mount
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("hadronio-test").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    void mappingIsRoundedUpToHugePages() {
+        final MappedByteBuffer mapping = MemoryUtil.mapHugePages(HUGE_PAGE_SIZE + 1, directory.getPath());
+
+        assertNotNull(mapping);
+        assertEquals(2 * HUGE_PAGE_SIZE, mapping.capacity());
+        MemoryUtil.unmap(mapping);
+    }
+
+    @Test
+    void buffersSmallerThanHugePageAreNotMapped() {
+        assertNull(MemoryUtil.mapHugePages(HUGE_PAGE_SIZE - 1, directory.getPath()));
+        assertEquals(HUGE_PAGE_SIZE - 1, MemoryUtil.allocateHugePageBuffer(HUGE_PAGE_SIZE - 1, directory.getPath()).capacity());
+    }
+
+    @Test
+    void failedMappingIsRetried() {
+        final String missingDirectory = new File(directory, "missing").getPath();
+        assertNull(MemoryUtil.mapHugePages(HUGE_PAGE_SIZE, missingDirectory));
+        assertEquals(HUGE_PAGE_SIZE, MemoryUtil.allocateHugePageBuffer(HUGE_PAGE_SIZE, missingDirectory).capacity());
+
+        // A single failure must not disable huge pages for all further allocations
+        final MappedByteBuffer mapping = MemoryUtil.mapHugePages(HUGE_PAGE_SIZE, directory.getPath());
+        assertNotNull(mapping);
+        MemoryUtil.unmap(mapping);
+    }
+
+    @Test
+    void ringBufferFillsItsHugePagesExactly() {
+        final RingBuffer ringBuffer = new RingBuffer(HUGE_PAGE_SIZE, directory.getPath());
+
+        // The head and tail positions are kept outside of the mapping, so that it is not rounded up to another huge page
+        assertEquals(HUGE_PAGE_SIZE, ringBuffer.capacity());
+        assertEquals(HUGE_PAGE_SIZE, ringBuffer.buffer().capacity());
+
+        final int index = ringBuffer.tryClaim(HUGE_PAGE_SIZE / 2);
+        assertTrue(index >= 0);
+        ringBuffer.commitWrite(index);
+        assertEquals(RingBuffer.getRecordLength(HUGE_PAGE_SIZE / 2), ringBuffer.size());
+
+        ringBuffer.free();
+    }
+}
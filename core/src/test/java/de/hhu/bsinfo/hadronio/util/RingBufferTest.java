@@ -0,0 +1,161 @@
+package de.hhu.bsinfo.hadronio.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    private static final int CAPACITY = 4096;
+
+    private RingBuffer ringBuffer;
+
+    @BeforeEach
+    void setUp() {
+        ringBuffer = new RingBuffer(CAPACITY);
+    }
+
+    private int write(final int length, final byte value) {
+        final int index = ringBuffer.tryClaim(length);
+        assertTrue(index >= 0);
+
+        for (int i = 0; i < length; i++) {
+            ringBuffer.buffer().putByte(index + i, value);
+        }
+
+        ringBuffer.commitWrite(index);
+        return index;
+    }
+
+    @Test
+    void recordLengthIncludesHeaderAndAlignment() {
+        final int headerLength = RingBuffer.getRecordLength(0);
+
+        assertTrue(headerLength > 0);
+        assertEquals(RingBuffer.getRecordLength(1), RingBuffer.getRecordLength(2));
+        assertTrue(RingBuffer.getRecordLength(1) > headerLength);
+        assertTrue(RingBuffer.getRecordLength(100) >= 100 + headerLength);
+    }
+
+    @Test
+    void maxMessageLengthFitsIntoSpace() {
+        for (int space = RingBuffer.getRecordLength(0); space < 256; space++) {
+            final int length = RingBuffer.getMaxMessageLength(space);
+
+            assertTrue(RingBuffer.getRecordLength(length) <= space);
+            assertTrue(RingBuffer.getRecordLength(length + 1) > space);
+        }
+
+        assertEquals(0, RingBuffer.getMaxMessageLength(0));
+        assertEquals(0, RingBuffer.getMaxMessageLength(RingBuffer.getRecordLength(0) - 1));
+    }
+
+    @Test
+    void emptyBufferHasNoMessage() {
+        assertEquals(RingBuffer.NO_MESSAGE, ringBuffer.peek());
+        assertEquals(0, ringBuffer.size());
+        assertEquals(CAPACITY, ringBuffer.capacity());
+        assertEquals(RingBuffer.getMaxMessageLength(CAPACITY), ringBuffer.maxMessageLength());
+    }
+
+    @Test
+    void claimedMessageIsInvisibleUntilCommitted() {
+        final int index = ringBuffer.tryClaim(16);
+
+        assertEquals(RingBuffer.NO_MESSAGE, ringBuffer.peek());
+        ringBuffer.commitWrite(index);
+        assertEquals(index, ringBuffer.peek());
+    }
+
+    @Test
+    void peekDoesNotMoveCursor() {
+        final int index = write(32, (byte) 1);
+
+        assertEquals(index, ringBuffer.peek());
+        assertEquals(index, ringBuffer.peek());
+        assertEquals(RingBuffer.getRecordLength(32), ringBuffer.size());
+    }
+
+    @Test
+    void skipMovesToNextMessage() {
+        final int first = write(32, (byte) 1);
+        final int second = write(64, (byte) 2);
+
+        assertEquals(first, ringBuffer.peek());
+        ringBuffer.skip();
+        assertEquals(second, ringBuffer.peek());
+        assertEquals(2, ringBuffer.buffer().getByte(second));
+        ringBuffer.skip();
+        assertEquals(RingBuffer.NO_MESSAGE, ringBuffer.peek());
+    }
+
+    @Test
+    void commitSkippedReleasesSpace() {
+        write(32, (byte) 1);
+        write(64, (byte) 2);
+
+        ringBuffer.peek();
+        ringBuffer.skip();
+
+        // Skipping alone must not release any space
+        assertEquals(RingBuffer.getRecordLength(32) + RingBuffer.getRecordLength(64), ringBuffer.size());
+
+        ringBuffer.commitSkipped();
+        assertEquals(RingBuffer.getRecordLength(64), ringBuffer.size());
+
+        ringBuffer.peek();
+        ringBuffer.skip();
+        ringBuffer.commitSkipped();
+        assertEquals(0, ringBuffer.size());
+        assertEquals(RingBuffer.NO_MESSAGE, ringBuffer.peek());
+
+        // Committing without skipped messages is a no-op
+        ringBuffer.commitSkipped();
+        assertEquals(0, ringBuffer.size());
+    }
+
+    @Test
+    void maxMessageLengthShrinksWithSize() {
+        write(100, (byte) 1);
+
+        final int expected = RingBuffer.getMaxMessageLength(CAPACITY - RingBuffer.getRecordLength(100));
+        assertEquals(expected, ringBuffer.maxMessageLength());
+        assertTrue(RingBuffer.getRecordLength(ringBuffer.maxMessageLength()) <= CAPACITY - ringBuffer.size());
+    }
+
+    @Test
+    void fullBufferRejectsClaim() {
+        final int index = ringBuffer.tryClaim(ringBuffer.maxMessageLength());
+
+        assertTrue(index >= 0);
+        assertEquals(0, ringBuffer.maxMessageLength());
+        assertTrue(ringBuffer.tryClaim(1) < 0);
+    }
+
+    @Test
+    void peekSkipsPaddingAfterWrapAround() {
+        final int length = RingBuffer.getMaxMessageLength(CAPACITY / 4) + 1;
+
+        // Fill three quarters of the buffer and release the first two messages
+        for (int i = 0; i < 3; i++) {
+            write(length, (byte) i);
+        }
+
+        for (int i = 0; i < 2; i++) {
+            ringBuffer.peek();
+            ringBuffer.skip();
+        }
+
+        ringBuffer.commitSkipped();
+
+        // The next message does not fit at the end of the buffer, so it is written at the beginning after padding
+        final int wrapped = write(length, (byte) 3);
+        assertEquals(RingBuffer.getRecordLength(0), wrapped);
+
+        ringBuffer.peek();
+        ringBuffer.skip();
+        assertEquals(wrapped, ringBuffer.peek());
+        assertEquals(3, ringBuffer.buffer().getByte(wrapped));
+    }
+}
@@ -0,0 +1,113 @@
+package de.hhu.bsinfo.hadronio.util;
+
+import org.agrona.collections.LongHashSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagUtilTest {
+
+    private static final long TARGET_ID = 0x000000abcdef1234L;
+
+    @Test
+    void fieldsAreIndependent() {
+        long tag = TagUtil.setTargetId(0, TARGET_ID);
+        tag = TagUtil.setMessageType(tag, TagUtil.MessageType.CREDIT);
+        tag = TagUtil.setCredits(tag, 1234);
+
+        assertEquals(TARGET_ID, TagUtil.getTargetId(tag));
+        assertEquals(TagUtil.MessageType.CREDIT, TagUtil.getMessageType(tag));
+        assertEquals(1234, TagUtil.getCredits(tag));
+    }
+
+    @Test
+    void settingFieldsReplacesPreviousValues() {
+        long tag = TagUtil.setCredits(TagUtil.setMessageType(TARGET_ID, TagUtil.MessageType.HANDSHAKE), TagUtil.MAX_CREDITS);
+        tag = TagUtil.setMessageType(tag, TagUtil.MessageType.DIRECT);
+        tag = TagUtil.setCredits(tag, 1);
+
+        assertEquals(TARGET_ID, TagUtil.getTargetId(tag));
+        assertEquals(TagUtil.MessageType.DIRECT, TagUtil.getMessageType(tag));
+        assertEquals(1, TagUtil.getCredits(tag));
+    }
+
+    @Test
+    void everyMessageTypeSurvivesRoundTrip() {
+        for (final TagUtil.MessageType messageType : TagUtil.MessageType.values()) {
+            final long tag = TagUtil.setMessageType(TARGET_ID, messageType);
+            assertEquals(messageType, TagUtil.getMessageType(tag));
+            assertEquals(TARGET_ID, TagUtil.getTargetId(tag));
+        }
+    }
+
+    @Test
+    void maxCreditsFitIntoTag() {
+        final long tag = TagUtil.setCredits(TARGET_ID, TagUtil.MAX_CREDITS);
+
+        assertEquals(0xffff, TagUtil.MAX_CREDITS);
+        assertEquals(TagUtil.MAX_CREDITS, TagUtil.getCredits(tag));
+        assertEquals(TARGET_ID, TagUtil.getTargetId(tag));
+        assertEquals(TagUtil.MessageType.DEFAULT, TagUtil.getMessageType(tag));
+    }
+
+    @Test
+    void ignoreCreditsMaskMatchesTagsWithPiggybackedCredits() {
+        final long postedTag = TagUtil.setMessageType(TARGET_ID, TagUtil.MessageType.DEFAULT);
+        final long receivedTag = TagUtil.setCredits(postedTag, 42);
+
+        assertNotEquals(postedTag, receivedTag);
+        assertEquals(postedTag & TagUtil.TAG_MASK_IGNORE_CREDITS, receivedTag & TagUtil.TAG_MASK_IGNORE_CREDITS);
+
+        // Other message types and other targets must still be distinguished
+        final long creditTag = TagUtil.setMessageType(receivedTag, TagUtil.MessageType.CREDIT);
+        final long otherTag = TagUtil.setTargetId(receivedTag, TARGET_ID + 1);
+        assertNotEquals(postedTag & TagUtil.TAG_MASK_IGNORE_CREDITS, creditTag & TagUtil.TAG_MASK_IGNORE_CREDITS);
+        assertNotEquals(postedTag & TagUtil.TAG_MASK_IGNORE_CREDITS, otherTag & TagUtil.TAG_MASK_IGNORE_CREDITS);
+    }
+
+    @Test
+    void messageTypeMaskMatchesAnyTarget() {
+        final long tag = TagUtil.setMessageType(TARGET_ID, TagUtil.MessageType.DEFAULT);
+        final long otherTag = TagUtil.setCredits(TagUtil.setTargetId(tag, 1), 7);
+
+        assertEquals(tag & TagUtil.TAG_MASK_MESSAGE_TYPE, otherTag & TagUtil.TAG_MASK_MESSAGE_TYPE);
+    }
+
+    @Test
+    void generatedIdsAreUniqueTargetIds() {
+        final long first = TagUtil.generateId();
+        final long second = TagUtil.generateId();
+
+        try {
+            assertNotEquals(first, second);
+            assertEquals(first, TagUtil.getTargetId(first));
+            assertEquals(second, TagUtil.getTargetId(second));
+        } finally {
+            TagUtil.releaseId(first);
+            TagUtil.releaseId(second);
+        }
+    }
+
+    @Test
+    void generatedIdsAreUniqueWithinProcess() {
+        final LongHashSet ids = new LongHashSet();
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                assertTrue(ids.add(TagUtil.generateId()));
+            }
+        } finally {
+            for (final long id : ids) {
+                TagUtil.releaseId(id);
+            }
+        }
+    }
+
+    @Test
+    void checksumCoversAllValues() {
+        final long checksum = TagUtil.calculateChecksum(1, 2, 3);
+
+        assertEquals(checksum, TagUtil.calculateChecksum(1, 2, 3));
+        assertNotEquals(checksum, TagUtil.calculateChecksum(1, 2, 4));
+        assertNotEquals(checksum, TagUtil.calculateChecksum(2, 1, 3));
+    }
+}
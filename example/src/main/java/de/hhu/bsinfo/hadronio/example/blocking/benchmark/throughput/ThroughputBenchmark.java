@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
@@ -69,6 +70,12 @@ public class ThroughputBenchmark implements Runnable {
             description = "Iteration number to use, when writing the result to a file.")
     private int benchmarkIteration = 0;
 
+    @CommandLine.Option(
+            names = {"-g", "--allocations"},
+            description = "Report the heap memory allocated by the benchmark thread per message as a diagnostic (requires a HotSpot based JVM). " +
+                    "Allocations of other threads and native memory allocated by UCX are not included.")
+    private boolean measureAllocations = false;
+
     private ByteBuffer[] sendBuffers;
     private ByteBuffer receiveBuffer;
     private SocketChannel socket;
@@ -122,12 +129,15 @@ public class ThroughputBenchmark implements Runnable {
                 closeSignal.exchange();
 
                 LOGGER.info("Starting benchmark with [{}] messages", messageCount);
+                final long startAllocatedBytes = getAllocatedBytes();
                 final long startTime = System.nanoTime();
 
                 sendMessages(messageCount);
+                final long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
                 closeSignal.exchange();
 
                 result.setMeasuredTime(System.nanoTime() - startTime);
+                logAllocatedBytes(allocatedBytes);
             } else {
                 LOGGER.info("Starting warmup with [{}] messages", warmupCount);
 
@@ -135,8 +145,13 @@ public class ThroughputBenchmark implements Runnable {
                 closeSignal.exchange();
 
                 LOGGER.info("Starting benchmark with [{}] messages", messageCount);
+                final long startAllocatedBytes = getAllocatedBytes();
+
                 receiveMessages(messageCount);
+                final long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
                 closeSignal.exchange();
+
+                logAllocatedBytes(allocatedBytes);
             }
 
             socket.close();
@@ -176,4 +191,21 @@ public class ThroughputBenchmark implements Runnable {
             receiveBuffer.clear();
         }
     }
+
+    private long getAllocatedBytes() {
+        if (!measureAllocations) {
+            return 0;
+        }
+
+        // Sent and received messages are completed inside write() and read(), so this includes all callbacks
+        // It also includes request objects allocated by the binding, so hadroNIO's own share is not measured separately
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void logAllocatedBytes(final long allocatedBytes) {
+        if (measureAllocations) {
+            LOGGER.info("Allocated [{}] bytes while processing [{}] messages ([{}] bytes per message)", allocatedBytes, messageCount, (double) allocatedBytes / messageCount);
+        }
+    }
 }
@@ -4,7 +4,9 @@ import static org.openucx.Communication.ucp_request_check_status;
 
 import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxErrorCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxTagMessage;
 import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import de.hhu.bsinfo.infinileap.binding.*;
 import de.hhu.bsinfo.infinileap.primitive.NativeLong;
@@ -29,6 +31,7 @@ class InfinileapEndpoint implements UcxEndpoint {
     private final RequestParameters receiveParameters = new RequestParameters();
     private final RequestParameters emptyParameters = new RequestParameters();
 
+    private UcxErrorCallback errorCallback;
     private boolean errorState = false;
 
     InfinileapEndpoint(final Context context) throws ControlException {
@@ -71,12 +74,32 @@ class InfinileapEndpoint implements UcxEndpoint {
         return checkStatus(status, blocking);
     }
 
+    @Override
+    public boolean sendTaggedMessage(final long[] addresses, final long[] sizes, final long tag, final boolean useCallback, final boolean blocking) {
+        throw new UnsupportedOperationException("Vectored messages are not yet supported by the infinileap binding!");
+    }
+
     @Override
     public boolean receiveTaggedMessage(final long address, final long size, final long tag, final long tagMask, final boolean useCallback, final boolean blocking) {
         final var status = worker.getWorker().receiveTagged(MemorySegment.ofAddress(MemoryAddress.ofLong(address), size, ResourceScope.globalScope()), Tag.of(tag), useCallback ? receiveParameters : emptyParameters);
         return checkStatus(status, blocking);
     }
 
+    @Override
+    public void cancelTaggedReceives(final long tag, final long tagMask) {
+        throw new UnsupportedOperationException("Cancelling requests is not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public UcxTagMessage probeTaggedMessage(final long tag, final long tagMask) {
+        throw new UnsupportedOperationException("Tag probing is not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final UcxTagMessage message, final boolean useCallback, final boolean blocking) {
+        throw new UnsupportedOperationException("Tag probing is not yet supported by the infinileap binding!");
+    }
+
     @Override
     public boolean sendStream(final long address, final long size, final boolean useCallback, final boolean blocking) {
         final var status = endpoint.sendStream(MemorySegment.ofAddress(MemoryAddress.ofLong(address), size, ResourceScope.globalScope()), size, useCallback ? sendParameters : emptyParameters);
@@ -90,6 +113,11 @@ class InfinileapEndpoint implements UcxEndpoint {
         return checkStatus(status, blocking);
     }
 
+    @Override
+    public UcxEndpoint multiplex() {
+        throw new UnsupportedOperationException("Multiplexing endpoints is not yet supported by the infinileap binding!");
+    }
+
     @Override
     public void setSendCallback(final UcxSendCallback sendCallback) {
         sendParameters.setSendCallback(
@@ -120,6 +148,11 @@ class InfinileapEndpoint implements UcxEndpoint {
             });
     }
 
+    @Override
+    public void setErrorCallback(final UcxErrorCallback errorCallback) {
+        this.errorCallback = errorCallback;
+    }
+
     @Override
     public boolean getErrorState() {
         return errorState;
@@ -143,6 +176,9 @@ class InfinileapEndpoint implements UcxEndpoint {
 
     private void handleError() {
         errorState = true;
+        if (errorCallback != null) {
+            errorCallback.onError();
+        }
     }
 
     private boolean checkStatus(long status, boolean blocking) {
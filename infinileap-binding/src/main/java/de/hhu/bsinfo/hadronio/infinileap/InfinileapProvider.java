@@ -1,13 +1,18 @@
 package de.hhu.bsinfo.hadronio.infinileap;
 
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
 import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
 import de.hhu.bsinfo.hadronio.binding.UcxListener;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
 import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import de.hhu.bsinfo.infinileap.binding.Context;
 import de.hhu.bsinfo.infinileap.binding.ContextParameters;
 import de.hhu.bsinfo.infinileap.binding.ContextParameters.Feature;
 import de.hhu.bsinfo.infinileap.binding.ControlException;
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class InfinileapProvider implements UcxProvider {
 
@@ -35,6 +40,32 @@ public class InfinileapProvider implements UcxProvider {
         }
     }
 
+    @Override
+    public UcxWorker createWorker() {
+        throw new UnsupportedOperationException("Shared workers are not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public UcxListener createListener(final UcxWorker worker) {
+        throw new UnsupportedOperationException("Shared workers are not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public UcxEndpoint createEndpoint(final UcxWorker worker) {
+        throw new UnsupportedOperationException("Shared workers are not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public UcxMemory mapMemory(final long address, final long length) {
+        throw new UnsupportedOperationException("Memory mapping is not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public Set<UcxCapability> getCapabilities() {
+        // Only the basic operations are available, so hadroNIO disables all optional features, which need more
+        return EnumSet.noneOf(UcxCapability.class);
+    }
+
     @Override
     public void close() {
         context.close();
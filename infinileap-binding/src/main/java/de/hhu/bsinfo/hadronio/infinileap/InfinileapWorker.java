@@ -1,5 +1,7 @@
 package de.hhu.bsinfo.hadronio.infinileap;
 
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import de.hhu.bsinfo.infinileap.binding.Context;
 import de.hhu.bsinfo.infinileap.binding.ControlException;
@@ -28,6 +30,21 @@ class InfinileapWorker implements UcxWorker {
         return worker.progress() == WorkerProgress.ACTIVE;
     }
 
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final long tag, final long tagMask, final UcxReceiveCallback callback) {
+        throw new UnsupportedOperationException("Receiving messages directly on a worker is not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public void cancelTaggedReceives(final long tag, final long tagMask) {
+        throw new UnsupportedOperationException("Cancelling requests is not yet supported by the infinileap binding!");
+    }
+
+    @Override
+    public UcxMemory mapMemory(final long address, final long length) {
+        throw new UnsupportedOperationException("Memory mapping is not yet supported by the infinileap binding!");
+    }
+
     @Override
     public void waitForEvents() {
         worker.await();
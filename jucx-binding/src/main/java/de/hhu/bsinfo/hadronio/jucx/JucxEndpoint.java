@@ -1,14 +1,19 @@
 package de.hhu.bsinfo.hadronio.jucx;
 
 import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
+import de.hhu.bsinfo.hadronio.binding.UcxErrorCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxSendCallback;
+import de.hhu.bsinfo.hadronio.binding.UcxTagMessage;
 import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import org.openucx.jucx.ucp.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 class JucxEndpoint implements UcxEndpoint {
 
@@ -16,40 +21,67 @@ class JucxEndpoint implements UcxEndpoint {
 
     private final JucxWorker worker;
     private UcpEndpoint endpoint;
+    private Connection connection;
     private InetSocketAddress remoteAddress;
     private org.openucx.jucx.UcxCallback sendCallback;
     private org.openucx.jucx.UcxCallback receiveCallback;
+    private UcxErrorCallback errorCallback;
     private boolean errorState = false;
 
+    /**
+     * Receive requests are posted on the worker, which may be shared with other endpoints, so they are tracked together with their tag.
+     * Requests, that have not completed yet, are cancelled once this endpoint is closed, so that they do not outlive it.
+     */
+    private final ReceiveRequests receiveRequests = new ReceiveRequests();
+
     JucxEndpoint(final UcpContext context) {
-        worker = new JucxWorker(context, new UcpWorkerParams().requestWakeupTagSend().requestWakeupTagRecv());
+        this(new JucxWorker(context, new UcpWorkerParams().requestWakeupTagSend().requestWakeupTagRecv()));
+    }
+
+    JucxEndpoint(final JucxWorker worker) {
+        this.worker = worker;
     }
 
     JucxEndpoint(final UcpContext context, final UcpConnectionRequest connectionRequest) {
+        // The remote process may multiplex further channels over an accepted connection, which then share this worker
+        this(new JucxWorker(context, new UcpWorkerParams().requestThreadSafety().requestWakeupTagSend().requestWakeupTagRecv()), connectionRequest);
+    }
+
+    JucxEndpoint(final JucxWorker worker, final UcpConnectionRequest connectionRequest) {
+        this.worker = worker;
         remoteAddress = connectionRequest.getClientAddress();
-        worker = new JucxWorker(context, new UcpWorkerParams().requestWakeupTagSend().requestWakeupTagRecv());
+        connection = new Connection(this);
         endpoint = worker.getWorker().newEndpoint(
             new UcpEndpointParams().
             setConnectionRequest(connectionRequest).
             setPeerErrorHandlingMode().
             setErrorHandler((endpoint, status, message) -> {
                 LOGGER.error("A UCX error occurred (Status: [{}], Error: [{}])!", status, message);
-                handleError();
+                connection.handleError();
             }));
 
         LOGGER.info("Endpoint created: [{}]", endpoint);
     }
 
+    private JucxEndpoint(final JucxEndpoint other) {
+        worker = other.worker;
+        endpoint = other.endpoint;
+        connection = other.connection;
+        remoteAddress = other.remoteAddress;
+        errorState = other.errorState;
+    }
+
     @Override
     public void connect(final InetSocketAddress remoteAddress) {
         this.remoteAddress = remoteAddress;
+        connection = new Connection(this);
         endpoint = worker.getWorker().newEndpoint(
             new UcpEndpointParams().
             setSocketAddress(remoteAddress).
             setPeerErrorHandlingMode().
             setErrorHandler((endpoint, status, message) -> {
                 LOGGER.error("A UCX error occurred (Status: [{}], Error: [{}])!", status, message);
-                handleError();
+                connection.handleError();
             }));
 
         LOGGER.info("Endpoint created: [{}]", endpoint);
@@ -70,9 +102,56 @@ class JucxEndpoint implements UcxEndpoint {
         return request.isCompleted();
     }
 
+    @Override
+    public boolean sendTaggedMessage(final long[] addresses, final long[] sizes, final long tag, final boolean useCallback, final boolean blocking) {
+        final UcpRequest request = endpoint.sendTaggedNonBlocking(addresses, sizes, tag, useCallback ? sendCallback : null);
+        while (blocking && !request.isCompleted()) {
+            try {
+                worker.getWorker().progressRequest(request);
+            } catch (Exception e) {
+                // Should never happen, since we do no throw exceptions inside our error handlers
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return request.isCompleted();
+    }
+
     @Override
     public boolean receiveTaggedMessage(final long address, final long size, final long tag, final long tagMask, final boolean useCallback, final boolean blocking) {
         final UcpRequest request = worker.getWorker().recvTaggedNonBlocking(address, size, tag, tagMask, useCallback ? receiveCallback : null);
+        if (!blocking && !request.isCompleted()) {
+            receiveRequests.add(request, tag);
+        }
+
+        while (blocking && !request.isCompleted()) {
+            try {
+                worker.getWorker().progressRequest(request);
+            } catch (Exception e) {
+                // Should never happen, since we do no throw exceptions inside our error handlers
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return request.isCompleted();
+    }
+
+    @Override
+    public void cancelTaggedReceives(final long tag, final long tagMask) {
+        receiveRequests.cancel(worker.getWorker(), tag, tagMask);
+    }
+
+    @Override
+    public UcxTagMessage probeTaggedMessage(final long tag, final long tagMask) {
+        // The message is removed from UCX's unexpected queue and must be received via the returned handle afterwards
+        final UcpTagMessage tagMessage = worker.getWorker().tagProbeNonBlocking(tag, tagMask, true);
+        return tagMessage == null ? null : new JucxTagMessage(tagMessage);
+    }
+
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final UcxTagMessage message, final boolean useCallback, final boolean blocking) {
+        final UcpTagMessage tagMessage = ((JucxTagMessage) message).getTagMessage();
+        final UcpRequest request = worker.getWorker().recvTaggedMessageNonBlocking(address, size, tagMessage, useCallback ? receiveCallback : null);
         while (blocking && !request.isCompleted()) {
             try {
                 worker.getWorker().progressRequest(request);
@@ -113,6 +192,20 @@ class JucxEndpoint implements UcxEndpoint {
         return request.isCompleted();
     }
 
+    @Override
+    public UcxEndpoint multiplex() throws IOException {
+        if (connection == null) {
+            throw new IllegalStateException("Trying to multiplex an endpoint, which is not connected!");
+        }
+
+        final JucxEndpoint multiplexedEndpoint = new JucxEndpoint(this);
+        if (!connection.add(multiplexedEndpoint)) {
+            throw new IOException("Trying to multiplex an endpoint, which has already been closed!");
+        }
+
+        return multiplexedEndpoint;
+    }
+
     @Override
     public void setSendCallback(final UcxSendCallback sendCallback) {
         this.sendCallback = new SendCallback(this, sendCallback);
@@ -123,6 +216,11 @@ class JucxEndpoint implements UcxEndpoint {
         this.receiveCallback = new ReceiveCallback(this, receiveCallback);
     }
 
+    @Override
+    public void setErrorCallback(final UcxErrorCallback errorCallback) {
+        this.errorCallback = errorCallback;
+    }
+
     @Override
     public boolean getErrorState() {
         return errorState;
@@ -141,12 +239,54 @@ class JucxEndpoint implements UcxEndpoint {
     @Override
     public void close() {
         LOGGER.info("Closing endpoint");
-        if(endpoint != null) {
+        receiveRequests.cancel(worker.getWorker(), 0, 0);
+        if (connection != null && connection.remove(this)) {
+            // This has been the last endpoint using the connection
             endpoint.close();
         }
     }
 
     void handleError() {
         errorState = true;
+        if (errorCallback != null) {
+            errorCallback.onError();
+        }
+    }
+
+    /**
+     * Keeps track of all endpoints sharing the same UCX endpoint via {@link #multiplex()}.
+     * Errors are reported to all of them and the UCX endpoint is closed, once the last of them has been closed.
+     */
+    private static final class Connection {
+
+        private final List<JucxEndpoint> endpoints = new ArrayList<>();
+
+        private Connection(final JucxEndpoint endpoint) {
+            endpoints.add(endpoint);
+        }
+
+        private synchronized boolean add(final JucxEndpoint endpoint) {
+            if (endpoints.isEmpty()) {
+                return false;
+            }
+
+            endpoints.add(endpoint);
+            return true;
+        }
+
+        private synchronized boolean remove(final JucxEndpoint endpoint) {
+            return endpoints.remove(endpoint) && endpoints.isEmpty();
+        }
+
+        private void handleError() {
+            final JucxEndpoint[] currentEndpoints;
+            synchronized (this) {
+                currentEndpoints = endpoints.toArray(new JucxEndpoint[0]);
+            }
+
+            for (final JucxEndpoint endpoint : currentEndpoints) {
+                endpoint.handleError();
+            }
+        }
     }
 }
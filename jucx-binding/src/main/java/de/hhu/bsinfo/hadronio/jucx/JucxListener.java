@@ -19,11 +19,21 @@ class JucxListener implements UcxListener {
 
     private final UcpContext context;
     private final JucxWorker worker;
+    private final boolean sharedWorker;
     private UcpListener listener;
 
     JucxListener(final UcpContext context) {
+        // The worker only handles connection requests, but it may be shared by a listener group and progressed by multiple selectors
         this.context = context;
-        worker = new JucxWorker(context, new UcpWorkerParams());
+        worker = new JucxWorker(context, new UcpWorkerParams().requestThreadSafety());
+        sharedWorker = false;
+    }
+
+    JucxListener(final UcpContext context, final JucxWorker worker) {
+        // Accepted endpoints are created on the same worker as the listener
+        this.context = context;
+        this.worker = worker;
+        sharedWorker = true;
     }
 
     @Override
@@ -42,7 +52,8 @@ class JucxListener implements UcxListener {
 
     @Override
     public UcxEndpoint accept(final UcxConnectionRequest connectionRequest) {
-        return new JucxEndpoint(context, ((JucxConnectionRequest) connectionRequest).getConnectionRequest());
+        final UcpConnectionRequest request = ((JucxConnectionRequest) connectionRequest).getConnectionRequest();
+        return sharedWorker ? new JucxEndpoint(worker, request) : new JucxEndpoint(context, request);
     }
 
     @Override
@@ -0,0 +1,49 @@
+package de.hhu.bsinfo.hadronio.jucx;
+
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import org.openucx.jucx.UcxException;
+import org.openucx.jucx.ucp.UcpContext;
+import org.openucx.jucx.ucp.UcpMemMapParams;
+import org.openucx.jucx.ucp.UcpMemory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+class JucxMemory implements UcxMemory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JucxMemory.class);
+
+    private final UcpMemory memory;
+
+    private JucxMemory(final UcpMemory memory) {
+        this.memory = memory;
+    }
+
+    static JucxMemory map(final UcpContext context, final long address, final long length) throws IOException {
+        try {
+            return new JucxMemory(context.memoryMap(new UcpMemMapParams().setAddress(address).setLength(length)));
+        } catch (UcxException e) {
+            throw new IOException("Failed to map memory region (Address: [0x" + Long.toHexString(address) + "], Length: [" + length + "])!", e);
+        }
+    }
+
+    @Override
+    public long getAddress() {
+        return memory.getAddress();
+    }
+
+    @Override
+    public long getLength() {
+        return memory.getLength();
+    }
+
+    @Override
+    public void close() {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Unmapping memory region (Address: [0x{}], Length: [{}])", Long.toHexString(memory.getAddress()), memory.getLength());
+        }
+
+        memory.deregister();
+    }
+}
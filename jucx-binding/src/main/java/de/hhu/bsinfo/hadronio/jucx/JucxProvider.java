@@ -1,10 +1,18 @@
 package de.hhu.bsinfo.hadronio.jucx;
 
+import de.hhu.bsinfo.hadronio.binding.UcxCapability;
 import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
 import de.hhu.bsinfo.hadronio.binding.UcxListener;
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
 import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import org.openucx.jucx.ucp.UcpContext;
 import org.openucx.jucx.ucp.UcpParams;
+import org.openucx.jucx.ucp.UcpWorkerParams;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class JucxProvider implements UcxProvider {
 
@@ -24,6 +32,32 @@ public class JucxProvider implements UcxProvider {
         return new JucxEndpoint(context);
     }
 
+    @Override
+    public UcxWorker createWorker() {
+        // Workers created here are shared by multiple channels, which may be progressed by different threads (e.g. selectors)
+        return new JucxWorker(context, new UcpWorkerParams().requestThreadSafety().requestWakeupTagSend().requestWakeupTagRecv());
+    }
+
+    @Override
+    public UcxListener createListener(final UcxWorker worker) {
+        return new JucxListener(context, (JucxWorker) worker);
+    }
+
+    @Override
+    public UcxEndpoint createEndpoint(final UcxWorker worker) {
+        return new JucxEndpoint((JucxWorker) worker);
+    }
+
+    @Override
+    public UcxMemory mapMemory(final long address, final long length) throws IOException {
+        return JucxMemory.map(context, address, length);
+    }
+
+    @Override
+    public Set<UcxCapability> getCapabilities() {
+        return EnumSet.allOf(UcxCapability.class);
+    }
+
     @Override
     public void close() {
         context.close();
@@ -0,0 +1,27 @@
+package de.hhu.bsinfo.hadronio.jucx;
+
+import de.hhu.bsinfo.hadronio.binding.UcxTagMessage;
+import org.openucx.jucx.ucp.UcpTagMessage;
+
+class JucxTagMessage implements UcxTagMessage {
+
+    private final UcpTagMessage tagMessage;
+
+    JucxTagMessage(final UcpTagMessage tagMessage) {
+        this.tagMessage = tagMessage;
+    }
+
+    UcpTagMessage getTagMessage() {
+        return tagMessage;
+    }
+
+    @Override
+    public long getLength() {
+        return tagMessage.getRecvLength();
+    }
+
+    @Override
+    public long getSenderTag() {
+        return tagMessage.getSenderTag();
+    }
+}
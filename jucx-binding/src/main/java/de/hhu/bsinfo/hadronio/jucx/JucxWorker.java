@@ -1,20 +1,32 @@
 package de.hhu.bsinfo.hadronio.jucx;
 
+import de.hhu.bsinfo.hadronio.binding.UcxMemory;
+import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
 import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import org.openucx.jucx.ucp.UcpContext;
+import org.openucx.jucx.ucp.UcpRequest;
 import org.openucx.jucx.ucp.UcpWorker;
 
 import org.openucx.jucx.ucp.UcpWorkerParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 class JucxWorker implements UcxWorker {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JucxWorker.class);
 
+    private final UcpContext context;
     private final UcpWorker worker;
 
+    /**
+     * Requests posted directly on this worker, which have not completed yet, so that they can be cancelled later on.
+     */
+    private final ReceiveRequests receiveRequests = new ReceiveRequests();
+
     public JucxWorker(final UcpContext context, final UcpWorkerParams workerParams) {
+        this.context = context;
         worker = new UcpWorker(context, workerParams);
     }
 
@@ -32,6 +44,28 @@ class JucxWorker implements UcxWorker {
         }
     }
 
+    @Override
+    public boolean receiveTaggedMessage(final long address, final long size, final long tag, final long tagMask, final UcxReceiveCallback callback) {
+        final UcpRequest request = worker.recvTaggedNonBlocking(address, size, tag, tagMask, new ReceiveCallback(null, callback));
+        if (request.isCompleted()) {
+            return true;
+        }
+
+        receiveRequests.add(request, tag);
+        return false;
+    }
+
+    @Override
+    public void cancelTaggedReceives(final long tag, final long tagMask) {
+        receiveRequests.cancel(worker, tag, tagMask);
+    }
+
+    @Override
+    public UcxMemory mapMemory(final long address, final long length) throws IOException {
+        // Memory is mapped by the context, so that it may be used with all of its workers
+        return JucxMemory.map(context, address, length);
+    }
+
     @Override
     public void waitForEvents() {
         worker.waitForEvents();
@@ -2,6 +2,7 @@ package de.hhu.bsinfo.hadronio.jucx;
 
 import de.hhu.bsinfo.hadronio.binding.UcxReceiveCallback;
 import org.openucx.jucx.ucp.UcpRequest;
+import org.openucx.jucx.UcsConstants;
 import org.openucx.jucx.UcxCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,7 +21,9 @@ class ReceiveCallback extends UcxCallback {
 
     @Override
     public void onSuccess(final UcpRequest request) {
-        LOGGER.debug("JUCX ReceiveCallback called (Completed: [{}], Size: [{}], Tag: [0x{}])", request.isCompleted(), request.getRecvSize(), Long.toHexString(request.getSenderTag()));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("JUCX ReceiveCallback called (Completed: [{}], Size: [{}], Tag: [0x{}])", request.isCompleted(), request.getRecvSize(), Long.toHexString(request.getSenderTag()));
+        }
         if (request.isCompleted()) {
             callback.onMessageReceived(request.getSenderTag());
         }
@@ -28,7 +31,18 @@ class ReceiveCallback extends UcxCallback {
 
     @Override
     public void onError(final int ucsStatus, final String errorMessage) {
+        if (ucsStatus == UcsConstants.STATUS.UCS_ERR_CANCELED) {
+            // Outstanding receive requests are cancelled, when their endpoint is closed or their buffer is released
+            LOGGER.debug("Receive request has been cancelled");
+            callback.onCancelled();
+            return;
+        }
+
         LOGGER.error("Failed to receive a message (Status: [{}], Error: [{}])!", ucsStatus, errorMessage);
-        endpoint.handleError();
+
+        // Receive requests posted directly on a worker do not belong to any endpoint
+        if (endpoint != null) {
+            endpoint.handleError();
+        }
     }
 }
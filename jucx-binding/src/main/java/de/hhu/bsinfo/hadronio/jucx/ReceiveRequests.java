@@ -0,0 +1,95 @@
+package de.hhu.bsinfo.hadronio.jucx;
+
+import org.openucx.jucx.ucp.UcpRequest;
+import org.openucx.jucx.ucp.UcpWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Receive requests, which have been posted by an endpoint or a worker and may need to be cancelled later on, together with their tags.
+ * UCP can only cancel single requests, so their handles need to be kept. They are stored in preallocated arrays, which are only
+ * touched when a request is posted. Completed requests are not removed by their callbacks, but dropped once the arrays are full.
+ * Since a channel never has more receives posted, than its credit window allows, the arrays stay small.
+ */
+final class ReceiveRequests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReceiveRequests.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private UcpRequest[] requests = new UcpRequest[INITIAL_CAPACITY];
+    private long[] tags = new long[INITIAL_CAPACITY];
+    private int count;
+
+    synchronized void add(final UcpRequest request, final long tag) {
+        if (count == requests.length) {
+            removeCompleted();
+            if (count > requests.length / 2) {
+                // Keep enough space, so that completed requests are not scanned on every post
+                requests = Arrays.copyOf(requests, requests.length * 2);
+                tags = Arrays.copyOf(tags, tags.length * 2);
+            }
+        }
+
+        requests[count] = request;
+        tags[count++] = tag;
+    }
+
+    /**
+     * Cancel all requests, whose tag matches the given tag under the given mask and which have not completed yet.
+     */
+    void cancel(final UcpWorker worker, final long tag, final long tagMask) {
+        // Callbacks are called outside the lock, since cancelled requests complete right away
+        for (final UcpRequest request : remove(tag, tagMask)) {
+            try {
+                // The request's callback is called with UCS_ERR_CANCELED, which is not treated as an error
+                worker.cancelRequest(request);
+            } catch (RuntimeException e) {
+                // The request may have completed concurrently, since the worker may be progressed by other threads
+                LOGGER.debug("Failed to cancel receive request", e);
+            }
+        }
+    }
+
+    /**
+     * Remove all requests, whose tag matches the given tag under the given mask and which have not completed yet.
+     */
+    private synchronized List<UcpRequest> remove(final long tag, final long tagMask) {
+        final List<UcpRequest> removed = new ArrayList<>();
+        int kept = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (requests[i].isCompleted()) {
+                continue;
+            }
+
+            if ((tags[i] & tagMask) == (tag & tagMask)) {
+                removed.add(requests[i]);
+            } else {
+                requests[kept] = requests[i];
+                tags[kept++] = tags[i];
+            }
+        }
+
+        Arrays.fill(requests, kept, count, null);
+        count = kept;
+        return removed;
+    }
+
+    private void removeCompleted() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (!requests[i].isCompleted()) {
+                requests[kept] = requests[i];
+                tags[kept++] = tags[i];
+            }
+        }
+
+        Arrays.fill(requests, kept, count, null);
+        count = kept;
+    }
+}
@@ -1,9 +1,10 @@
 package de.hhu.bsinfo.hadronio;
 
-import de.hhu.bsinfo.hadronio.binding.UcxEndpoint;
 import de.hhu.bsinfo.hadronio.binding.UcxListener;
 import de.hhu.bsinfo.hadronio.binding.UcxProvider;
+import de.hhu.bsinfo.hadronio.binding.UcxWorker;
 import de.hhu.bsinfo.hadronio.generated.BuildConfig;
+import de.hhu.bsinfo.hadronio.util.MemoryUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,17 +25,41 @@ public class HadronioProvider extends SelectorProvider implements Closeable {
 
     private final UcxProvider provider;
 
+    /**
+     * If a shared receive pool is configured, all channels use the same worker, so that they can share its pool.
+     */
+    private final UcxWorker sharedWorker;
+
+    private final RegisteredBufferPool bufferPool;
+
     public HadronioProvider() {
         LOGGER.info("Initializing HadronioProvider\n\n{}\n", getBanner());
 
         final Configuration configuration = Configuration.getInstance();
         LOGGER.info("hadroNIO configuration: [{}]", configuration);
 
+        if (configuration.getHugePageDirectory() != null) {
+            LOGGER.info("Huge pages from [{}] are configured for buffers of at least [{}] byte (The actual backing of each buffer is logged on debug level)", configuration.getHugePageDirectory(), MemoryUtil.Alignment.HUGE_PAGE.value());
+        } else {
+            LOGGER.info("Backing ring buffers with regular pages");
+        }
+
         try {
             provider = (UcxProvider) Class.forName(configuration.getProviderClass()).getConstructor().newInstance();
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException | ClassNotFoundException e) {
             throw new IllegalArgumentException("Unable to instantiate class '" + configuration.getProviderClass() + "'!", e);
         }
+
+        // Features, which the provider does not support, are disabled before any channel uses them
+        configuration.applyCapabilities(provider.getCapabilities());
+
+        try {
+            sharedWorker = configuration.isSharedReceivePool() ? provider.createWorker() : null;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create shared worker!", e);
+        }
+
+        bufferPool = new RegisteredBufferPool(provider);
     }
 
     @Override
@@ -63,7 +88,7 @@ public class HadronioProvider extends SelectorProvider implements Closeable {
     public ServerSocketChannel openServerSocketChannel() throws IOException {
         LOGGER.info("Creating new HadronioServerSocketChannel");
 
-        final UcxListener serverSocketChannel = provider.createListener();
+        final UcxListener serverSocketChannel = sharedWorker != null ? provider.createListener(sharedWorker) : provider.createListener();
         return new HadronioServerSocketChannel(this, serverSocketChannel);
     }
 
@@ -71,8 +96,17 @@ public class HadronioProvider extends SelectorProvider implements Closeable {
     public SocketChannel openSocketChannel() throws IOException {
         LOGGER.info("Creating new HadronioSocketChannel");
 
-        final UcxEndpoint socketChannel = provider.createEndpoint();
-        return new HadronioSocketChannel(this, socketChannel);
+        // The endpoint is only created while connecting, since multiplexed channels use an existing connection instead
+        return new HadronioSocketChannel(this, provider, sharedWorker);
+    }
+
+    /**
+     * Get a pool of direct buffers, which are registered with UCX in advance.
+     * Applications (or buffer allocators used by frameworks like Netty) may use these buffers to send
+     * large messages via zero-copy, without UCX registering their memory on each operation.
+     */
+    public RegisteredBufferPool getBufferPool() {
+        return bufferPool;
     }
 
     public static String getBanner() {
@@ -91,6 +125,12 @@ public class HadronioProvider extends SelectorProvider implements Closeable {
 
     @Override
     public void close() throws IOException {
+        bufferPool.close();
+        if (sharedWorker != null) {
+            SharedReceivePool.close(sharedWorker);
+            sharedWorker.close();
+        }
+
         provider.close();
     }
 }